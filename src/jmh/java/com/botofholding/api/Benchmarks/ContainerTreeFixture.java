@@ -0,0 +1,111 @@
+package com.botofholding.api.Benchmarks;
+
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.Container;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.Domain.Entity.ContainerType;
+import com.botofholding.api.Domain.Entity.Item;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds detached, fully initialized container trees for the benchmarks, shaped like what
+ * {@code findActiveContainerWithItemsForUser} + {@code fetchChildrenForContainerItems} hand to the service.
+ * <p>
+ * Items are dealt round-robin over the levels, so every item at level {@code n > 0} hangs under the most
+ * recently created item at level {@code n - 1}. The result has exactly {@code depth} levels and the items
+ * are spread evenly across them. Item names repeat, except for {@link #deepestItem} whose path is unique.
+ */
+@Getter
+public final class ContainerTreeFixture {
+
+    private static final int CATALOG_SIZE = 200;
+
+    private final Container container;
+    private final BohUser user;
+    private final List<ContainerItem> items;
+    /** The last item created on the deepest level, i.e. an item with the longest parent chain. */
+    private final ContainerItem deepestItem;
+    /** The parent of {@link #deepestItem} (or the item itself when depth is 1), a parent-type item. */
+    private final ContainerItem deepestParent;
+    /** The root of the chain {@link #deepestItem} hangs in. */
+    private final ContainerItem deepestRoot;
+    /** A root item outside that chain, or null if the tree only has one root. */
+    private final ContainerItem unrelatedRoot;
+
+    public ContainerTreeFixture(int itemCount, int depth) {
+        if (itemCount < depth) {
+            throw new IllegalArgumentException("Need at least one item per level.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        this.user = BohUser.builder()
+                .discordId(1L)
+                .bohUserName("BenchUser")
+                .bohGlobalUserName("Bench User")
+                .build();
+        this.container = new Container();
+        container.setContainerId(1L);
+        container.setContainerName("Bench Bag");
+        container.setOwner(user);
+        ContainerType type = new ContainerType();
+        type.setContainerTypeName("Backpack");
+        container.setContainerType(type);
+        user.setPrimaryContainer(container);
+
+        List<Item> parentCatalog = catalog(true);
+        List<Item> leafCatalog = catalog(false);
+
+        this.items = new ArrayList<>(itemCount);
+        ContainerItem[] lastAtLevel = new ContainerItem[depth];
+        for (int i = 0; i < itemCount; i++) {
+            int level = i % depth;
+            boolean hasChildLevel = level < depth - 1;
+            List<Item> pool = hasChildLevel || depth == 1 ? parentCatalog : leafCatalog;
+
+            ContainerItem ci = new ContainerItem();
+            ci.setContainerItemId((long) i + 1);
+            ci.setContainer(container);
+            ci.setItem(pool.get(i % CATALOG_SIZE));
+            ci.setQuantity(1 + i % 20);
+            ci.setUserNote(i % 3 == 0 ? "note " + i : null);
+            ci.setLastModifiedDateTime(now);
+            if (level > 0) {
+                lastAtLevel[level - 1].addChild(ci);
+            }
+            lastAtLevel[level] = ci;
+            items.add(ci);
+        }
+        container.setContainerItems(items);
+
+        this.deepestItem = lastAtLevel[depth - 1];
+        // Give the target its own catalog entry so looking it up by path name is never ambiguous.
+        deepestItem.setItem(Item.builder()
+                .itemId(30_000L)
+                .itemName("Bench Target")
+                .parent(depth == 1)
+                .build());
+        this.deepestParent = deepestItem.getParent() != null ? deepestItem.getParent() : deepestItem;
+        ContainerItem root = deepestItem;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        this.deepestRoot = root;
+        this.unrelatedRoot = items.get(0) != root ? items.get(0) : null;
+    }
+
+    private static List<Item> catalog(boolean parent) {
+        List<Item> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(Item.builder()
+                    .itemId((parent ? 10_000L : 20_000L) + i)
+                    .itemName((parent ? "Pouch " : "Potion ") + i)
+                    .parent(parent)
+                    .build());
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,36 @@
+package com.botofholding.api.Benchmarks;
+
+import org.springframework.beans.BeanUtils;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Builds a service for the benchmarks the way Spring would, through its autowired constructor, so the benchmarks
+ * don't break whenever a dependency is added. Every parameter gets the first given collaborator of a matching type,
+ * or else a stub-only mock, which doesn't record its invocations and so doesn't grow over a run.
+ */
+public final class ServiceFixture {
+
+    private ServiceFixture() {
+    }
+
+    public static <T> T create(Class<T> type, Object... collaborators) {
+        Constructor<T> constructor = BeanUtils.getResolvableConstructor(type);
+        Object[] args = Arrays.stream(constructor.getParameterTypes())
+                .map(parameterType -> Arrays.stream(collaborators)
+                        .filter(parameterType::isInstance)
+                        .findFirst()
+                        .orElseGet(() -> stub(parameterType)))
+                .toArray();
+        return BeanUtils.instantiateClass(constructor, args);
+    }
+
+    /** A mock that only answers the stubs it is given, without keeping track of the calls made on it. */
+    public static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
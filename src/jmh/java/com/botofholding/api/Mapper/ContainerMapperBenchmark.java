@@ -0,0 +1,80 @@
+package com.botofholding.api.Mapper;
+
+import com.botofholding.api.Benchmarks.ContainerTreeFixture;
+import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the container and container item mappers over synthetic trees.
+ * Covers the full summary mapping, the recursive name-path building used by autocomplete and by-name lookup,
+ * and the autocomplete description formatting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContainerMapperBenchmark {
+
+    @Param({"10", "1000", "10000", "50000"})
+    private int items;
+
+    @Param({"1", "5", "10"})
+    private int depth;
+
+    private ContainerTreeFixture tree;
+    private ContainerMapper containerMapper;
+    private ContainerItemMapper containerItemMapper;
+
+    @Setup
+    public void setUp() {
+        tree = new ContainerTreeFixture(items, depth);
+        containerItemMapper = new ContainerItemMapperImpl();
+        containerMapper = new ContainerMapperImpl();
+        ReflectionTestUtils.setField(containerMapper, "containerItemMapper", containerItemMapper);
+    }
+
+    @Benchmark
+    public ContainerSummaryDto toSummaryDto() {
+        return containerMapper.toSummaryDto(tree.getContainer(), tree.getUser());
+    }
+
+    @Benchmark
+    public void buildRecursiveItemName(Blackhole bh) {
+        for (ContainerItem ci : tree.getItems()) {
+            bh.consume(containerItemMapper.buildRecursiveItemName(ci));
+        }
+    }
+
+    @Benchmark
+    public void mapDescription(Blackhole bh) {
+        for (ContainerItem ci : tree.getItems()) {
+            bh.consume(containerItemMapper.mapDescription(ci));
+        }
+    }
+
+    @Benchmark
+    public void toAutoCompleteDto(Blackhole bh) {
+        for (ContainerItem ci : tree.getItems()) {
+            AutoCompleteDto dto = containerItemMapper.toAutoCompleteDto(ci);
+            bh.consume(dto);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.botofholding.api.Observability;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Caller-side throughput and allocation of a typical per-request controller INFO line, logged from several
+ * request threads at once under three configurations (see src/jmh/resources):
+ * <ul>
+ *     <li>{@code sync}: the previous synchronous file logging with caller location lookup</li>
+ *     <li>{@code async}: async loggers with the garbage-free layout from log4j2-spring.xml</li>
+ *     <li>{@code async-sampled}: as above with the hot-path {@link SamplingFilter} keeping one in ten</li>
+ * </ul>
+ * Every configuration runs in its own fork, so each gets a fresh logger context. Production discards INFO events
+ * once the async ring buffer is full (log4j2.component.properties); here the forks override that with the blocking
+ * policy, so a full buffer makes the callers wait for the disk and the async figures count written events, not
+ * dropped ones. The number of lines written is printed after each configuration to confirm it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.asyncQueueFullPolicy=Default")
+public class LoggingBenchmark {
+
+    @Param({"sync", "async", "async-sampled"})
+    private String mode;
+
+    private LoggerContext context;
+    private Logger logger;
+    private final String itemName = "Potion of Healing";
+    private final String actorName = "Bench User";
+
+    @Setup
+    public void setUp() throws IOException {
+        Files.createDirectories(logDirectory());
+        context = Configurator.initialize("log-bench-" + mode, getClass().getClassLoader(), "log4j2-bench-" + mode + ".xml");
+        logger = context.getLogger("com.botofholding.api.Controller.ContainerController");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        // Shutting down drains the ring buffer, so the file then holds every event that was logged.
+        Configurator.shutdown(context);
+        Path logFile = logDirectory().resolve(mode + ".log");
+        try (Stream<String> lines = Files.lines(logFile)) {
+            System.out.println("Events written (" + mode + "): " + lines.count());
+        }
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public void hotPathInfoLine() {
+        logger.info("Adding item '{}' (x{}) to active container for actor {}.", itemName, 3, actorName);
+    }
+
+    private static Path logDirectory() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "boh-log-bench");
+    }
+}
@@ -0,0 +1,85 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Benchmarks.ContainerTreeFixture;
+import com.botofholding.api.Benchmarks.ServiceFixture;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.ExceptionHandling.ValidationException;
+import com.botofholding.api.Mapper.ContainerItemMapper;
+import com.botofholding.api.Mapper.ContainerItemMapperImpl;
+import com.botofholding.api.Mapper.ContainerMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the in-memory tree operations {@link ContainerServiceImpl} runs against the loaded active container:
+ * locating an item by id or by its full path name, and the parentage / cycle validation done before a move.
+ * The repositories are never touched by these methods, so the service is built with stubs for them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContainerTreeLookupBenchmark {
+
+    @Param({"10", "1000", "10000", "50000"})
+    private int items;
+
+    @Param({"1", "5", "10"})
+    private int depth;
+
+    private ContainerTreeFixture tree;
+    private ContainerServiceImpl containerService;
+    private Long deepestId;
+    private String deepestPathName;
+
+    @Setup
+    public void setUp() {
+        tree = new ContainerTreeFixture(items, depth);
+        ContainerItemMapper containerItemMapper = new ContainerItemMapperImpl();
+        containerService = ServiceFixture.create(ContainerServiceImpl.class, new ContainerMapperImpl(), containerItemMapper);
+
+        ContainerItem deepest = tree.getDeepestItem();
+        deepestId = deepest.getContainerItemId();
+        deepestPathName = containerItemMapper.mapItemName(deepest);
+    }
+
+    @Benchmark
+    public ContainerItem findContainerItemById() {
+        return containerService.findContainerItem(deepestId, null, tree.getContainer());
+    }
+
+    @Benchmark
+    public ContainerItem findContainerItemByName() {
+        return containerService.findContainerItem(null, deepestPathName, tree.getContainer());
+    }
+
+    @Benchmark
+    public void validateParentageAccepted(Blackhole bh) {
+        // Moving a root from outside the chain walks the whole chain without finding a cycle.
+        containerService.validateParentage(tree.getUnrelatedRoot(), tree.getDeepestParent());
+        bh.consume(tree.getDeepestParent());
+    }
+
+    @Benchmark
+    public void validateParentageRejectsCycle(Blackhole bh) {
+        try {
+            containerService.validateParentage(tree.getDeepestRoot(), tree.getDeepestParent());
+        } catch (ValidationException e) {
+            bh.consume(e);
+        }
+    }
+}
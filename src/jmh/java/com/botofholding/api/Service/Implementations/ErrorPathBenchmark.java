@@ -0,0 +1,129 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Benchmarks.ContainerTreeFixture;
+import com.botofholding.api.Benchmarks.ServiceFixture;
+import com.botofholding.api.Domain.DTO.Request.AddItemRequestDto;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.Domain.Entity.Item;
+import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.ExceptionHandling.ItemNotFoundException;
+import com.botofholding.api.Mapper.ContainerItemMapper;
+import com.botofholding.api.Mapper.ContainerItemMapperImpl;
+import com.botofholding.api.Mapper.ContainerMapper;
+import com.botofholding.api.Mapper.ContainerMapperImpl;
+import com.botofholding.api.Repository.ContainerItemRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Repository.ItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of the expected failure paths of {@link ContainerServiceImpl#addItemToActiveContainer}, against the same add
+ * going through: a parent that can't be found, which is logged and falls back to the container root, and an item
+ * name the autocomplete didn't resolve, which fails with a stackless {@link ItemNotFoundException}.
+ * The service runs with its real mappers over a {@link ContainerTreeFixture}; the repositories are stubs answering
+ * with the fixture, so the figures leave out the database but include the logging, in the shape the app uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench-async.xml")
+public class ErrorPathBenchmark {
+
+    private static final Long ROPE_ID = 40_000L;
+
+    @Param({"10", "1000"})
+    private int items;
+
+    private ContainerTreeFixture tree;
+    private ContainerServiceImpl containerService;
+    private Owner user;
+    private AddItemRequestDto addToRoot;
+    private AddItemRequestDto addInsideMissingParent;
+    private AddItemRequestDto addUnresolvedName;
+
+    @Setup
+    public void setUp() {
+        tree = new ContainerTreeFixture(items, 5);
+        user = tree.getUser();
+
+        // A stack at the container root for every add to go to, so the tree doesn't grow over the run.
+        Item rope = Item.builder().itemId(ROPE_ID).itemName("Rope").weight(10f).weightUnit("lb").parent(false).build();
+        ContainerItem ropeStack = new ContainerItem();
+        ropeStack.setContainerItemId((long) items + 1);
+        ropeStack.setContainer(tree.getContainer());
+        ropeStack.setItem(rope);
+        ropeStack.setQuantity(1);
+        tree.getContainer().getContainerItems().add(ropeStack);
+
+        ContainerRepository containerRepository = ServiceFixture.stub(ContainerRepository.class);
+        when(containerRepository.findActiveContainerWithItemsForUser(tree.getUser())).thenReturn(Optional.of(tree.getContainer()));
+        when(containerRepository.saveAndFlush(tree.getContainer())).thenReturn(tree.getContainer());
+        when(containerRepository.addToTotalsWithinCapacity(anyLong(), any(), any(), any())).thenReturn(1);
+        when(containerRepository.findVersionById(anyLong())).thenReturn(Optional.of(1L));
+        ItemRepository itemRepository = ServiceFixture.stub(ItemRepository.class);
+        when(itemRepository.findById(ROPE_ID)).thenReturn(Optional.of(rope));
+        when(itemRepository.findAllByNameForOwners(anyString(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        ContainerItemMapper containerItemMapper = new ContainerItemMapperImpl();
+        ContainerMapper containerMapper = new ContainerMapperImpl();
+        ReflectionTestUtils.setField(containerMapper, "containerItemMapper", containerItemMapper);
+        containerService = ServiceFixture.create(ContainerServiceImpl.class, containerRepository, itemRepository,
+                ServiceFixture.stub(ContainerItemRepository.class), containerMapper, containerItemMapper);
+
+        addToRoot = addRequest(ROPE_ID, null, null);
+        addInsideMissingParent = addRequest(ROPE_ID, null, "No Such Pouch");
+        addUnresolvedName = addRequest(null, "No Such Item", null);
+    }
+
+    @Benchmark
+    public Object addItem() {
+        return containerService.addItemToActiveContainer(addToRoot, user, user);
+    }
+
+    @Benchmark
+    public Object addItemInsideMissingParent() {
+        return containerService.addItemToActiveContainer(addInsideMissingParent, user, user);
+    }
+
+    @Benchmark
+    public void addItemWithUnresolvedName(Blackhole bh) {
+        try {
+            bh.consume(containerService.addItemToActiveContainer(addUnresolvedName, user, user));
+        } catch (ItemNotFoundException e) {
+            bh.consume(e);
+        }
+    }
+
+    private static AddItemRequestDto addRequest(Long itemId, String itemName, String insideName) {
+        AddItemRequestDto addDto = new AddItemRequestDto();
+        addDto.setItemId(itemId);
+        addDto.setItemName(itemName);
+        addDto.setInsideName(insideName);
+        addDto.setQuantity(1);
+        return addDto;
+    }
+}
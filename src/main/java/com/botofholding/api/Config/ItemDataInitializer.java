@@ -10,6 +10,7 @@ import com.botofholding.api.Domain.Entity.SystemOwner;
 import com.botofholding.api.Mapper.ItemMapper;
 import com.botofholding.api.Repository.ItemRepository;
 import com.botofholding.api.Repository.OwnerRepository;
+import com.botofholding.api.Service.Interfaces.ItemService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -39,13 +40,15 @@ public class ItemDataInitializer implements CommandLineRunner {
     private final ObjectMapper objectMapper;
     private final OwnerRepository ownerRepository;
     private final ItemMapper itemMapper;
+    private final ItemService itemService;
 
     public ItemDataInitializer(ItemRepository itemRepository, ObjectMapper objectMapper,
-                               OwnerRepository ownerRepository, ItemMapper itemMapper) {
+                               OwnerRepository ownerRepository, ItemMapper itemMapper, ItemService itemService) {
         this.itemRepository = itemRepository;
         this.objectMapper = objectMapper;
         this.ownerRepository = ownerRepository;
         this.itemMapper = itemMapper;
+        this.itemService = itemService;
     }
 
     @Override
@@ -92,6 +95,8 @@ public class ItemDataInitializer implements CommandLineRunner {
                             .collect(Collectors.toList());
 
                     itemRepository.saveAll(itemsToCreate);
+                    // Start the second-level cache over with the new catalog.
+                    itemService.evictCatalogCache();
                     logger.info("Successfully seeded {} items to the database.", itemsToCreate.size());
 
                 } catch (Exception e) {
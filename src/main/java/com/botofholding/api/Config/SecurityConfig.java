@@ -2,6 +2,7 @@ package com.botofholding.api.Config;
 
 
 import com.botofholding.api.Security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -29,6 +30,9 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 // 2. Define authorization rules.
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches only resume a request that was already authorized (e.g. an SSE stream
+                        // completing); the stateless JWT context is not available to them.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Allow unauthenticated access to a token generation endpoint for the bot.
                         .requestMatchers("/api/auth/bot-token").permitAll()
                         // Allow unauthenticated access to actuator endpoints.
@@ -1,26 +1,42 @@
 package com.botofholding.api.Controller;
 
 import com.botofholding.api.Domain.DTO.Request.AddItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.BatchRequestDto;
 import com.botofholding.api.Domain.DTO.Request.ContainerRequestDto;
 import com.botofholding.api.Domain.DTO.Request.ModifyItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.TransferItemRequestDto;
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.BatchResultDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerChangesDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerItemSummaryDto;
 import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerTransferDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
+import com.botofholding.api.Domain.DTO.Response.CursorPageDto;
 import com.botofholding.api.Domain.DTO.Response.DeletedEntityDto;
 import com.botofholding.api.Domain.DTO.Response.ServiceResponse;
 import com.botofholding.api.Domain.DTO.Response.StandardApiResponse;
 import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.Service.Interfaces.ContainerChangeService;
+import com.botofholding.api.Service.Interfaces.ContainerMutationQueue;
 import com.botofholding.api.Service.Interfaces.ContainerService;
+import com.botofholding.api.Service.Interfaces.ContainerSubscriptionService;
+import com.botofholding.api.Service.Interfaces.IdempotencyService;
+import com.botofholding.api.Utility.ContainerETag;
 import com.botofholding.api.Utility.ResponseBuilder;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -35,10 +51,21 @@ public class ContainerController extends BaseController {
     private static final Logger logger = LoggerFactory.getLogger(ContainerController.class);
 
     private final ContainerService containerService;
+    private final ContainerChangeService containerChangeService;
+    private final ContainerSubscriptionService containerSubscriptionService;
+    private final ContainerMutationQueue containerMutationQueue;
+    private final IdempotencyService idempotencyService;
     private final ResponseBuilder responseBuilder;
 
-    public ContainerController(ContainerService containerService, ResponseBuilder responseBuilder) {
+    public ContainerController(ContainerService containerService, ContainerChangeService containerChangeService,
+                               ContainerSubscriptionService containerSubscriptionService,
+                               ContainerMutationQueue containerMutationQueue, IdempotencyService idempotencyService,
+                               ResponseBuilder responseBuilder) {
         this.containerService = containerService;
+        this.containerChangeService = containerChangeService;
+        this.containerSubscriptionService = containerSubscriptionService;
+        this.containerMutationQueue = containerMutationQueue;
+        this.idempotencyService = idempotencyService;
         this.responseBuilder = responseBuilder;
     }
 
@@ -63,19 +90,24 @@ public class ContainerController extends BaseController {
 
     /**
      * Finds containers for the authenticated principal. Can be filtered by exact name.
-     * If no name is provided, it returns all containers for the principal.
+     * If no name is provided, it returns all containers for the principal, a page at a time.
      * @param name (Optional) The exact name of the container to find.
-     * @return A list of matching container summaries.
+     * @param cursor (Optional) The nextCursor of the previous page.
+     * @param limit (Optional) The page size, capped by boh.pagination.max-page-size.
+     * @return A page of matching container summaries, most recently active first.
      */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<StandardApiResponse<List<ContainerSummaryDto>>> findContainersByName(@RequestParam(required = false) String name) {
+    public ResponseEntity<StandardApiResponse<CursorPageDto<ContainerSummaryDto>>> findContainersByName(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Min(1) Integer limit) {
         Owner principal = getAuthenticatedPrincipal();
         Owner actor = getRequestActor();
         logger.info("Attempting to find containers for principal '{}' and actor '{}' with filter [name={}]", principal.getDisplayName(), actor.getDisplayName(), name);
-        List<ContainerSummaryDto> dtoList = containerService.findContainersForPrincipalAndActor(name, actor, principal);
+        CursorPageDto<ContainerSummaryDto> page = containerService.findContainersForPrincipalAndActor(name, cursor, limit, actor, principal);
         String message = responseBuilder.buildSuccessFoundMessage( "Containers", name);
-        StandardApiResponse<List<ContainerSummaryDto>> response = new StandardApiResponse<>(true, message, dtoList);
+        StandardApiResponse<CursorPageDto<ContainerSummaryDto>> response = new StandardApiResponse<>(true, message, page);
         return ResponseEntity.ok(response);
     }
 
@@ -98,15 +130,84 @@ public class ContainerController extends BaseController {
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<StandardApiResponse<ContainerSummaryDto>> getContainerById(
-            @PathVariable("id") @NotNull @Min(1) Long id) {
+            @PathVariable("id") @NotNull @Min(1) Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            WebRequest webRequest) {
         logger.info("Attempting to find container by containerId: {}. ", id);
         Owner actor = getRequestActor();
+        if (ifNoneMatch != null) {
+            ContainerVersionProjection version = containerService.findContainerVersionById(id, actor);
+            String eTag = ContainerETag.of(version);
+            if (webRequest.checkNotModified(eTag)) {
+                // checkNotModified already set the 304 status and the ETag; no body to write.
+                return null;
+            }
+        }
         ContainerSummaryDto  foundContainer = containerService.findContainerById(id, actor);
         String message = responseBuilder.buildSuccessFoundMessage("Container", foundContainer.getContainerName());
         StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, message, foundContainer);
+        return ResponseEntity.ok().eTag(ContainerETag.of(foundContainer)).body(response);
+    }
+
+    /**
+     * Lists one level of a container's contents a page at a time, without the levels below it. Expand an item
+     * by asking for the page with its id as parentId.
+     * @param id The ID of the container.
+     * @param parentId (Optional) The containerItem whose children to list, the container root if absent.
+     * @param cursor (Optional) The nextCursor of the previous page.
+     * @param limit (Optional) The page size, capped by boh.pagination.max-page-size.
+     * @return A page of containerItems, oldest first, with their children left out but counted in childCount.
+     */
+    @GetMapping("/{id}/items")
+    @PreAuthorize("@securityService.canModifyContainer(#id, principal)")
+    public ResponseEntity<StandardApiResponse<CursorPageDto<ContainerItemSummaryDto>>> getContainerItems(
+            @PathVariable("id") @NotNull @Min(1) Long id,
+            @RequestParam(required = false) @Min(1) Long parentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Min(1) Integer limit) {
+        logger.info("Attempting to find a page of items of container {} inside [parentId={}].", id, parentId);
+        CursorPageDto<ContainerItemSummaryDto> page = containerService.findContainerItemsPage(id, parentId, cursor, limit);
+        String message = responseBuilder.buildSuccessFoundMessage("Container items", String.valueOf(id));
+        StandardApiResponse<CursorPageDto<ContainerItemSummaryDto>> response = new StandardApiResponse<>(true, message, page);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Returns what changed in a container after the given version, so a client can update its cached copy
+     * instead of reloading it. If resetRequired is set in the result, the client has to reload the container.
+     * @param id The ID of the container.
+     * @param since The container version the client already has (the version of its cached copy).
+     * @return The changes, oldest first, and the version they bring the client to.
+     */
+    @GetMapping("/{id}/changes")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StandardApiResponse<ContainerChangesDto>> getContainerChanges(
+            @PathVariable("id") @NotNull @Min(1) Long id,
+            @RequestParam("since") @NotNull @Min(0) Long since) {
+        logger.info("Attempting to find changes of container {} since version {}.", id, since);
+        ContainerChangesDto changes = containerChangeService.findChangesSince(id, since);
+        String message = responseBuilder.buildSuccessFoundMessage("Container changes", id + " since version " + since);
+        StandardApiResponse<ContainerChangesDto> response = new StandardApiResponse<>(true, message, changes);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Streams a container's committed changes as Server-Sent Events, replacing polling of the container views.
+     * Events: 'changes' (same payload as /changes, id = version), 'reset' (reload the container, or catch up from
+     * /changes) and 'deleted'. A reconnecting client sends the last event id back as Last-Event-ID.
+     * @param id The ID of the container.
+     * @param lastEventId The version the client already has, sent by EventSource clients on reconnect.
+     * @return The open event stream.
+     */
+    @GetMapping("/{id}/stream")
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamContainerChanges(
+            @PathVariable("id") @NotNull @Min(1) Long id,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        logger.info("Opening change stream for container {} (last event id: {}).", id, lastEventId);
+        return containerSubscriptionService.subscribe(id, lastEventId);
+    }
+
     // TODO combine activate by id and activate by name into a single activate method. use query parameters for id
     //  since it cna be null, unless can keep it a path variable and still have it be nullable.
     @PutMapping("/{id}/activate")
@@ -118,7 +219,7 @@ public class ContainerController extends BaseController {
         ContainerSummaryDto activeContainer = containerService.activateContainerById(id, actor);
         String message = responseBuilder.buildSuccessActivateMessage(activeContainer.getContainerName());
         StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, message, activeContainer);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(ContainerETag.of(activeContainer)).body(response);
     }
 
     @PutMapping("/activate")
@@ -132,23 +233,74 @@ public class ContainerController extends BaseController {
         ContainerSummaryDto activeContainer = containerService.activateContainerByName(name, ownerPriority, actor, principal);
         String message = responseBuilder.buildSuccessActivateMessage(activeContainer.getContainerName());
         StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, message, activeContainer);
-        return  ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(ContainerETag.of(activeContainer)).body(response);
     }
 
+    /**
+     * Returns the actor's active container. With shallow=true only the first page of root items is included, each
+     * with its childCount; expand items with /active/items/{containerItemId}/children and read further root pages
+     * from /{id}/items with itemsNextCursor.
+     * @param shallow (Optional) Return just the root level instead of the whole tree.
+     * @param limit (Optional) The number of root items of the shallow view.
+     * @return The active container.
+     */
     @GetMapping("/active")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<StandardApiResponse<ContainerSummaryDto>> getActiveContainer() {
+    public ResponseEntity<StandardApiResponse<ContainerSummaryDto>> getActiveContainer(
+            @RequestParam(required = false) boolean shallow,
+            @RequestParam(required = false) @Min(1) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            WebRequest webRequest) {
         Owner actor = getRequestActor();
-        ContainerSummaryDto activeContainer = containerService.findActiveContainerForUser(actor);
+        // The bot re-reads the active container after most commands; answer from the version column when we can.
+        if (ifNoneMatch != null) {
+            ContainerVersionProjection version = containerService.findActiveContainerVersionForUser(actor);
+            String eTag = shallow ? ContainerETag.ofShallow(version) : ContainerETag.of(version);
+            if (webRequest.checkNotModified(eTag)) {
+                // checkNotModified already set the 304 status and the ETag; no body to write.
+                return null;
+            }
+        }
+        ContainerSummaryDto activeContainer = shallow
+                ? containerService.findActiveContainerRootLevelForUser(actor, limit)
+                : containerService.findActiveContainerForUser(actor);
         String message = responseBuilder.buildSuccessFoundMessage("Active Container", activeContainer.getContainerName());
         StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, message, activeContainer);
+        String eTag = shallow ? ContainerETag.ofShallow(activeContainer) : ContainerETag.of(activeContainer);
+        return ResponseEntity.ok().eTag(eTag).body(response);
+    }
+
+    /**
+     * Lists the direct children of an item in the actor's active container, a page at a time, each with its
+     * childCount. Used to expand one item of the shallow active container view.
+     * @param containerItemId The ContainerItem to expand.
+     * @param cursor (Optional) The nextCursor of the previous page.
+     * @param limit (Optional) The page size, capped by boh.pagination.max-page-size.
+     * @return A page of the item's children, oldest first.
+     */
+    @GetMapping("/active/items/{containerItemId}/children")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StandardApiResponse<CursorPageDto<ContainerItemSummaryDto>>> getChildrenInActiveContainer(
+            @PathVariable("containerItemId") @NotNull @Min(1) Long containerItemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Min(1) Integer limit) {
+        Owner actor = getRequestActor();
+        logger.info("Attempting to find the children of item {} in the active container of '{}'.", containerItemId, actor.getDisplayName());
+        CursorPageDto<ContainerItemSummaryDto> page = containerService.findChildrenInActiveContainer(containerItemId, cursor, limit, actor);
+        String message = responseBuilder.buildSuccessFoundMessage("Container items", "inside " + containerItemId);
+        StandardApiResponse<CursorPageDto<ContainerItemSummaryDto>> response = new StandardApiResponse<>(true, message, page);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Adds an item to the active container. A retry carrying the Idempotency-Key of an earlier request (the bot
+     * sends the Discord interaction id) gets that request's response instead of adding the item again.
+     */
     @PostMapping("/active/items")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<StandardApiResponse<ContainerSummaryDto>> addItemToActiveContainer(
-            @Valid @RequestBody AddItemRequestDto addItemRequestDto) {
+            @Valid @RequestBody AddItemRequestDto addItemRequestDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Owner actor = getRequestActor();
         Owner principal = getAuthenticatedPrincipal();
         String itemIdentifier = (addItemRequestDto.getItemName() != null) ? "named '" + addItemRequestDto.getItemName()
@@ -158,10 +310,12 @@ public class ContainerController extends BaseController {
                 addItemRequestDto.getQuantity(),
                 actor.getDisplayName());
 
-        ServiceResponse<ContainerSummaryDto> serviceResponse = containerService.addItemToActiveContainer(addItemRequestDto, actor, principal);
+        return idempotencyService.execute(idempotencyKey, actor, "POST /api/containers/active/items", () -> {
+            ServiceResponse<ContainerSummaryDto> serviceResponse = containerMutationQueue.addItem(addItemRequestDto, actor, principal);
 
-        StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
-        return ResponseEntity.ok(response);
+            StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
+            return ResponseEntity.ok().eTag(ContainerETag.of(serviceResponse.data())).body(response);
+        });
     }
 
     @DeleteMapping("/active/items")
@@ -170,16 +324,20 @@ public class ContainerController extends BaseController {
             @RequestParam(required = false) Long id,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Boolean dropChildren,
-            @RequestParam(required = true) Integer quantity) {
+            @RequestParam(required = true) Integer quantity,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Owner actor = getRequestActor();
+        Owner principal = getAuthenticatedPrincipal();
         // [FIX] Log a clear identifier, as 'name' can be null if 'id' is used.
         String itemIdentifier = (name != null) ? "named '" + name + "'" : "with ID " + id;
         logger.info("Attempting to drop item {} (quantity: {}) from active container.", itemIdentifier, quantity);
 
-        ServiceResponse<ContainerSummaryDto> serviceResponse  = containerService.dropItemFromActiveContainer(id, name, quantity, dropChildren, actor);
+        return idempotencyService.execute(idempotencyKey, actor, "DELETE /api/containers/active/items", () -> {
+            ServiceResponse<ContainerSummaryDto> serviceResponse  = containerMutationQueue.dropItem(id, name, quantity, dropChildren, actor, principal);
 
-        StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
-        return ResponseEntity.ok(response);
+            StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
+            return ResponseEntity.ok().eTag(ContainerETag.of(serviceResponse.data())).body(response);
+        });
     }
 
     @PatchMapping("/active/items")
@@ -187,17 +345,77 @@ public class ContainerController extends BaseController {
     public ResponseEntity<StandardApiResponse<ContainerSummaryDto>> modifyItemInActiveContainer(
             @Valid @RequestBody ModifyItemRequestDto modifyDto) {
         Owner actor = getRequestActor();
+        Owner principal = getAuthenticatedPrincipal();
         String itemIdentifier = (modifyDto.getContainerItemName() != null)
                 ? "named '" + modifyDto.getContainerItemName() + "'"
                 : "with ID " + modifyDto.getContainerItemId();
         logger.info("Attempting to modify item {} in active container for user '{}'", itemIdentifier, actor.getDisplayName());
 
-        ServiceResponse<ContainerSummaryDto> serviceResponse  = containerService.modifyItemInActiveContainer(modifyDto, actor);
+        ServiceResponse<ContainerSummaryDto> serviceResponse  = containerMutationQueue.modifyItem(modifyDto, actor, principal);
         logger.info("Returning message: {}", serviceResponse.message());
         StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(ContainerETag.of(serviceResponse.data())).body(response);
+    }
+
+
+    /**
+     * Flags a stack for concurrent updates (a guild's gold, say) by spreading its quantity over shards, or turns it
+     * back into a plain stack with count 0. The quantity doesn't change.
+     * @param containerItemId The stack in the active container.
+     * @param count The number of shards, up to boh.shards.max-count.
+     * @return The active container.
+     */
+    @PutMapping("/active/items/{containerItemId}/shards")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StandardApiResponse<ContainerSummaryDto>> shardItemInActiveContainer(
+            @PathVariable("containerItemId") @NotNull @Min(1) Long containerItemId,
+            @RequestParam @NotNull @Min(0) Integer count) {
+        Owner actor = getRequestActor();
+        logger.info("Attempting to give item {} in the active container of '{}' {} shard(s).", containerItemId, actor.getDisplayName(), count);
+
+        ServiceResponse<ContainerSummaryDto> serviceResponse = containerMutationQueue.shardItem(containerItemId, count, actor);
+
+        StandardApiResponse<ContainerSummaryDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
+        return ResponseEntity.ok().eTag(ContainerETag.of(serviceResponse.data())).body(response);
+    }
+
+    /**
+     * Applies several operations (activate, add, drop, modify) in order, in one transaction, so a compound bot
+     * command costs one request and one container load. Either all operations are saved or none are.
+     */
+    @PostMapping("/active/batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StandardApiResponse<BatchResultDto>> applyBatchToActiveContainer(
+            @Valid @RequestBody BatchRequestDto batchRequestDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        Owner actor = getRequestActor();
+        Owner principal = getAuthenticatedPrincipal();
+        logger.info("Attempting to apply a batch of {} operation(s) for user '{}'",
+                batchRequestDto.getOperations().size(), actor.getDisplayName());
+
+        return idempotencyService.execute(idempotencyKey, actor, "POST /api/containers/active/batch", () -> {
+            ServiceResponse<BatchResultDto> serviceResponse = containerService.applyBatchToActiveContainer(batchRequestDto, actor, principal);
+
+            StandardApiResponse<BatchResultDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
+            return ResponseEntity.ok().eTag(ContainerETag.of(serviceResponse.data().getContainer())).body(response);
+        });
     }
 
+    @PostMapping("/{id}/items/{containerItemId}/transfer")
+    @PreAuthorize("@securityService.canTransferBetween(#id, #transferDto.targetContainerId, principal)")
+    public ResponseEntity<StandardApiResponse<ContainerTransferDto>> transferContainerItem(
+            @PathVariable("id") @NotNull @Min(1) Long id,
+            @PathVariable("containerItemId") @NotNull @Min(1) Long containerItemId,
+            @Valid @RequestBody TransferItemRequestDto transferDto) {
+        logger.info("Attempting to transfer item {} from container {} to container {}.",
+                containerItemId, id, transferDto.getTargetContainerId());
+
+        ServiceResponse<ContainerTransferDto> serviceResponse =
+                containerService.transferContainerItem(id, containerItemId, transferDto.getTargetContainerId());
+
+        StandardApiResponse<ContainerTransferDto> response = new StandardApiResponse<>(true, serviceResponse.message(), serviceResponse.data());
+        return ResponseEntity.ok(response);
+    }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("@securityService.canModifyContainer(#id, principal)")
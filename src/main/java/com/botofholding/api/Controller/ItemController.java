@@ -1,17 +1,20 @@
 package com.botofholding.api.Controller;
 
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.CursorPageDto;
 import com.botofholding.api.Domain.DTO.Response.ItemSummaryDto;
 import com.botofholding.api.Domain.DTO.Response.StandardApiResponse;
 import com.botofholding.api.Domain.Entity.Owner;
 import com.botofholding.api.Service.Interfaces.ItemService;
 import com.botofholding.api.Utility.ResponseBuilder;
+import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -21,6 +24,7 @@ import java.util.List;
 
 @Controller
 @RequestMapping("/api/items")
+@Validated
 public class ItemController extends BaseController {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemController.class);
@@ -44,18 +48,28 @@ public class ItemController extends BaseController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Finds items accessible to the principal and actor, a page at a time, ordered by name.
+     * @param name (Optional) The exact name of the item to find, all accessible items if absent.
+     * @param cursor (Optional) The nextCursor of the previous page.
+     * @param limit (Optional) The page size, capped by boh.pagination.max-page-size.
+     * @return A page of matching item summaries.
+     */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<StandardApiResponse<List<ItemSummaryDto>>> findItemsByName(@RequestParam(required = false) String name) {
+    public ResponseEntity<StandardApiResponse<CursorPageDto<ItemSummaryDto>>> findItemsByName(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Min(1) Integer limit) {
         Owner principal = getAuthenticatedPrincipal();
         Owner actor = getRequestActor();
         logger.info("Attempting to find items for principal '{}' and actor '{}' with name: {}"
                 , principal.getDisplayName()
                 , actor.getDisplayName()
                 , name);
-        List<ItemSummaryDto> dtoList = itemService.findItemsForPrincipalAndActor(name, actor, principal);
+        CursorPageDto<ItemSummaryDto> page = itemService.findItemsForPrincipalAndActor(name, cursor, limit, actor, principal);
         String message = responseBuilder.buildSuccessFoundMessage("Items", name);
-        StandardApiResponse<List<ItemSummaryDto>> response = new StandardApiResponse<>(true, message, dtoList);
+        StandardApiResponse<CursorPageDto<ItemSummaryDto>> response = new StandardApiResponse<>(true, message, page);
         return ResponseEntity.ok(response);
     }
 
@@ -0,0 +1,20 @@
+package com.botofholding.api.Domain.DTO.Request;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO for activating a container inside a batch. The ID is preferred, the name is a fallback.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ActivateContainerRequestDto {
+    @Min(value = 1, message = "must be a positive number.")
+    private Long containerId;
+    private String containerName;
+    // USER (default) or GUILD, used when both the user and the guild have a container with that name.
+    private String ownerPriority;
+}
@@ -0,0 +1,27 @@
+package com.botofholding.api.Domain.DTO.Request;
+
+import com.botofholding.api.Domain.Enum.BatchOperationType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One operation of a batch. Only the details matching the type are read, e.g. {@code add} for an ADD.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BatchOperationDto {
+    @NotNull(message = "Operation type cannot be null.")
+    private BatchOperationType type;
+    @Valid
+    private ActivateContainerRequestDto activate;
+    @Valid
+    private AddItemRequestDto add;
+    @Valid
+    private DropItemRequestDto drop;
+    @Valid
+    private ModifyItemRequestDto modify;
+}
@@ -0,0 +1,22 @@
+package com.botofholding.api.Domain.DTO.Request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * An ordered list of operations on the active container, applied all together or not at all.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BatchRequestDto {
+    @NotEmpty(message = "A batch needs at least one operation.")
+    @Size(max = 25, message = "A batch can hold at most 25 operations.")
+    private List<@Valid BatchOperationDto> operations;
+}
@@ -0,0 +1,23 @@
+package com.botofholding.api.Domain.DTO.Request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO for dropping an item inside a batch, the body form of the drop endpoint's query parameters.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class DropItemRequestDto {
+    private Long containerItemId;
+    private String containerItemName;
+    @NotNull(message = "Quantity cannot be null.")
+    @Min(value = 1, message = "Quantity must be at least 1.")
+    private Integer quantity;
+    // Whether the children of a dropped parent item are dropped too, otherwise they move to the root.
+    private Boolean dropChildren;
+}
@@ -0,0 +1,19 @@
+package com.botofholding.api.Domain.DTO.Request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO for moving a ContainerItem, with everything inside it, to the root of another container.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransferItemRequestDto {
+    @NotNull(message = "Target container ID cannot be null.")
+    @Min(value = 1, message = "must be a positive number.")
+    private Long targetContainerId;
+}
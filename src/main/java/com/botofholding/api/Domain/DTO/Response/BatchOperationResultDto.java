@@ -0,0 +1,21 @@
+package com.botofholding.api.Domain.DTO.Response;
+
+import com.botofholding.api.Domain.Enum.BatchOperationType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The outcome of one operation of a batch, in the same order as the request.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationResultDto {
+    private int index;
+    private BatchOperationType type;
+    private boolean success;
+    private String message;
+}
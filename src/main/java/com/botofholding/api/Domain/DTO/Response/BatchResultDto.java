@@ -0,0 +1,20 @@
+package com.botofholding.api.Domain.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * The result of a batch that was applied: the active container after the last operation and what each operation did.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDto {
+    private ContainerSummaryDto container;
+    private List<BatchOperationResultDto> results;
+}
@@ -0,0 +1,9 @@
+package com.botofholding.api.Domain.DTO.Response;
+
+/**
+ * The number of direct children of a container item, read with a grouped count instead of loading the children.
+ */
+public interface ChildCountProjection {
+    Long getParentId();
+    Long getChildCount();
+}
@@ -0,0 +1,21 @@
+package com.botofholding.api.Domain.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContainerChangeDto {
+    private Long version;
+    private String type;
+    private Long containerItemId;
+    private Long itemId;
+    private String itemName;
+    private Long parentId;
+    private Integer quantity;
+    private String userNote;
+}
@@ -0,0 +1,24 @@
+package com.botofholding.api.Domain.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * The changes of a container since a version the client already has.
+ * When {@code resetRequired} is set the log can't bridge the gap (entries were compacted away, or there are
+ * too many of them) and the client should reload the full container instead.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContainerChangesDto {
+    private Long containerId;
+    private Long version;
+    private boolean resetRequired;
+    private List<ContainerChangeDto> changes;
+}
@@ -2,6 +2,7 @@ package com.botofholding.api.Domain.DTO.Response;
 
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -15,6 +16,11 @@ public class ContainerItemSummaryDto {
     private String itemName;
     private Integer quantity;
     private String userNote;
+    // Including everything nested inside the item
+    private BigDecimal totalWeight;
+    private BigDecimal totalValue;
+    // Only set by the one-level views, which leave children out
+    private Long childCount;
     private LocalDateTime lastModified;
     private List<ContainerItemSummaryDto> children;
     private ContainerItemSummaryDto parent;
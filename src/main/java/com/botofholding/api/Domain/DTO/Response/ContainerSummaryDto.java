@@ -1,5 +1,6 @@
 package com.botofholding.api.Domain.DTO.Response;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,5 +22,12 @@ public class ContainerSummaryDto {
     private String containerTypeName;
     private boolean active;
     private LocalDateTime lastActiveDateTime;
+    private Long version;
+    // Weight in lb and value in gp of everything inside, maxWeight is the type's limit if it has one.
+    private BigDecimal totalWeight;
+    private BigDecimal totalValue;
+    private BigDecimal maxWeight;
     private List<ContainerItemSummaryDto> items;
+    // Set by the shallow view when the root level has more pages, see GET /api/containers/{id}/items
+    private String itemsNextCursor;
 }
@@ -0,0 +1,24 @@
+package com.botofholding.api.Domain.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The result of a transfer between two containers, with the version each container is at afterwards.
+ * Clients holding either container can catch up through its change feed instead of reloading it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContainerTransferDto {
+    private Long containerItemId;
+    private String itemName;
+    private int movedItemCount;
+    private Long sourceContainerId;
+    private Long sourceVersion;
+    private Long targetContainerId;
+    private Long targetVersion;
+}
@@ -0,0 +1,33 @@
+package com.botofholding.api.Domain.DTO.Response;
+
+/**
+ * A projection of the few container columns needed to answer a conditional GET
+ * without loading the container's items.
+ */
+public interface ContainerVersionProjection {
+    Long getContainerId();
+    Long getVersion();
+    Boolean getActive();
+
+    /**
+     * The same columns for a version read on its own, with the active flag worked out by the caller.
+     */
+    static ContainerVersionProjection of(Long containerId, Long version, boolean active) {
+        return new ContainerVersionProjection() {
+            @Override
+            public Long getContainerId() {
+                return containerId;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+
+            @Override
+            public Boolean getActive() {
+                return active;
+            }
+        };
+    }
+}
@@ -53,7 +53,11 @@ public class BohUser extends Owner {
     @JoinColumn(name = "PRMY_CNTNR_ID", referencedColumnName = "CNTNR_ID") // Added referencedColumnName
     private Container primaryContainer;
 
-    @Column(name = "LST_ACTV_DTTM")
+    /**
+     * When the user last sent a request. Written behind by the {@code ActivityTracker}, never from the entity,
+     * so saving a stale copy can't roll it back.
+     */
+    @Column(name = "LST_ACTV_DTTM", updatable = false)
     private LocalDateTime lastActive;
 
 
@@ -8,6 +8,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -43,9 +44,38 @@ public class Container extends AuditableEntity {
     @JoinColumn(name = "CNTNR_TYPE_ID")
     private ContainerType containerType;
 
-    @Column(name = "LST_ACTV_DTTM")
+    /**
+     * When the container was last activated. Like the user's, written behind by the {@code ActivityTracker} and
+     * never from the entity; setting it only changes the loaded copy.
+     */
+    @Column(name = "LST_ACTV_DTTM", updatable = false)
     private LocalDateTime lastActiveDateTime;
 
+    /**
+     * Bumped on every change to the container or its items, see {@code ContainerRepository#incrementVersion}.
+     * Never written from the entity so a stale copy can't roll it back.
+     */
+    @Column(name = "CNTNR_VRSN", nullable = false, updatable = false)
+    private Long version = 0L;
+
+    /**
+     * The newest version whose change log entries may already have been compacted away. A client behind this
+     * version can't catch up from the log and has to reload the container.
+     */
+    @Column(name = "CNTNR_CHNG_FLOOR", nullable = false, updatable = false)
+    private Long changeLogFloor = 0L;
+
+    /**
+     * Weight (lb) and value (gp) of everything in the container, maintained incrementally by the item mutations.
+     * Like the version, only ever changed by adding a delta in the database, see {@code ContainerRepository#addToTotals}.
+     * The quantities still held in the shards of sharded stacks are left out until they are folded.
+     */
+    @Column(name = "TTL_WGHT", nullable = false, updatable = false, precision = 19, scale = 4)
+    private BigDecimal totalWeight = BigDecimal.ZERO;
+
+    @Column(name = "TTL_VAL", nullable = false, updatable = false, precision = 19, scale = 4)
+    private BigDecimal totalValue = BigDecimal.ZERO;
+
     public Container() {
         this.lastActiveDateTime = LocalDateTime.now();
     }
@@ -0,0 +1,75 @@
+package com.botofholding.api.Domain.Entity;
+
+import com.botofholding.api.Domain.Enum.ContainerChangeType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a container's change log. Every entry written by a mutation carries the container version that
+ * mutation produced, so a client holding version N can catch up with the entries above N.
+ * The item's state after the change is copied in, a REMOVE keeps its last state.
+ */
+@Table(name = "CNTNR_CHNG")
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ContainerChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "CHNG_ID")
+    private Long changeId;
+
+    // A plain column: the log is only ever read by container id and must not load the container.
+    @Column(name = "CNTNR_ID", nullable = false)
+    private Long containerId;
+
+    @Column(name = "CNTNR_VRSN", nullable = false)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "CHNG_TYP", nullable = false, length = 10)
+    private ContainerChangeType changeType;
+
+    @Column(name = "CNTNR_ITEM_ID", nullable = false)
+    private Long containerItemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ITEM_ID")
+    private Item item;
+
+    @Column(name = "PARENT_ID")
+    private Long parentId;
+
+    @Column(name = "ITM_QTY")
+    private Integer quantity;
+
+    @Column(name = "USER_NOTE")
+    private String userNote;
+
+    @Column(name = "CHNG_DTTM", nullable = false)
+    private LocalDateTime changedDateTime;
+
+    /**
+     * Captures the current state of a container item. The container id, version and time are filled in
+     * when the change is recorded.
+     * @param changeType What happened to the item.
+     * @param containerItem The item, must already have its id.
+     * @return A new, unsaved change.
+     */
+    public static ContainerChange of(ContainerChangeType changeType, ContainerItem containerItem) {
+        ContainerChange change = new ContainerChange();
+        change.setChangeType(changeType);
+        change.setContainerItemId(containerItem.getContainerItemId());
+        change.setItem(containerItem.getItem());
+        change.setParentId(containerItem.getParent() != null ? containerItem.getParent().getContainerItemId() : null);
+        change.setQuantity(containerItem.getQuantity());
+        change.setUserNote(containerItem.getUserNote());
+        return change;
+    }
+}
@@ -2,17 +2,24 @@ package com.botofholding.api.Domain.Entity;
 
 import com.botofholding.api.Domain.Entity.Auditing.AuditableEntity;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Formula;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Table(name = "CNTNR_ITEM")
 @Entity
+// Only write the changed columns: the quantity and totals of a sharded stack are folded in by bulk updates that
+// a concurrent flush of, say, a new note must not overwrite with what it loaded.
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -34,9 +41,29 @@ public class ContainerItem extends AuditableEntity {
     @JoinColumn(name = "ITEM_ID", nullable = false)
     private Item item;
 
+    /**
+     * The quantity stored in the stack's own row. Read through {@link #getQuantity()}, which adds the shards.
+     */
     @Column(name = "ITM_QTY")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private Integer quantity;
 
+    /**
+     * The number of counter shards of a stack flagged for concurrent updates, null for a plain stack.
+     * See {@link ContainerItemShard}.
+     */
+    @Column(name = "SHRD_CNT")
+    private Integer shardCount;
+
+    /**
+     * The quantity held in the stack's shards and not folded into its row yet, 0 for a plain stack. Read with the
+     * stack; afterwards mirrored by the service on every shard update.
+     */
+    @Formula("(CASE WHEN SHRD_CNT IS NULL THEN 0 ELSE " +
+            "(SELECT COALESCE(SUM(s.QTY_DLTA), 0) FROM CNTNR_ITEM_SHRD s WHERE s.CNTNR_ITEM_ID = CNTNR_ITEM_ID) END)")
+    private int shardedQuantity;
+
     @Column(name = "USER_NOTE")
     private String userNote;
 
@@ -44,6 +71,17 @@ public class ContainerItem extends AuditableEntity {
     @JoinColumn(name = "PARENT_ID")
     private ContainerItem parent;
 
+    /**
+     * Weight (lb) and value (gp) of this stack and everything nested inside it. Written on insert, afterwards only
+     * changed by adding a delta in the database, see {@code ContainerItemRepository#addToTotals}.
+     * The quantities still held in the shards of sharded stacks are left out until they are folded.
+     */
+    @Column(name = "TTL_WGHT", nullable = false, updatable = false, precision = 19, scale = 4)
+    private BigDecimal totalWeight = BigDecimal.ZERO;
+
+    @Column(name = "TTL_VAL", nullable = false, updatable = false, precision = 19, scale = 4)
+    private BigDecimal totalValue = BigDecimal.ZERO;
+
     @OneToMany(
             mappedBy = "parent",
             // [FIX] Remove orphanRemoval and CascadeType.REMOVE. The service layer now explicitly controls child deletion.
@@ -52,6 +90,24 @@ public class ContainerItem extends AuditableEntity {
     )
     private List<ContainerItem> children = new ArrayList<>();
 
+    public boolean isSharded() {
+        return shardCount != null;
+    }
+
+    /**
+     * The stack's quantity: its own row plus whatever its shards hold.
+     */
+    public Integer getQuantity() {
+        return quantity == null ? null : quantity + shardedQuantity;
+    }
+
+    /**
+     * Sets the stack's quantity, storing in its own row whatever the shards don't already hold.
+     */
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity == null ? null : quantity - shardedQuantity;
+    }
+
     public void addChild(ContainerItem child) {
         children.add(child);
         child.setParent(this);
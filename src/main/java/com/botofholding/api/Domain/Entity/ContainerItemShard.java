@@ -0,0 +1,50 @@
+package com.botofholding.api.Domain.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One counter shard of a stack flagged for concurrent updates (a guild's gold, say). Quantity changes of such a stack
+ * add to a random shard instead of the stack's own row, so concurrent writers lock different rows. A stack's quantity
+ * is its own {@code ITM_QTY} plus the deltas of its shards, which are folded back into the stack now and then,
+ * see {@code ContainerItemShardService}.
+ */
+@Table(name = "CNTNR_ITEM_SHRD")
+@Entity
+@IdClass(ContainerItemShard.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ContainerItemShard {
+
+    // A plain column like the change log's: shards are only ever updated by id and must not load the stack.
+    @Id
+    @Column(name = "CNTNR_ITEM_ID")
+    private Long containerItemId;
+
+    @Id
+    @Column(name = "SHRD_NO")
+    private Integer shardNo;
+
+    @Column(name = "QTY_DLTA", nullable = false)
+    private Integer quantityDelta = 0;
+
+    public ContainerItemShard(Long containerItemId, Integer shardNo) {
+        this.containerItemId = containerItemId;
+        this.shardNo = shardNo;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long containerItemId;
+        private Integer shardNo;
+    }
+}
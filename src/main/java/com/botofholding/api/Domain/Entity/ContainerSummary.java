@@ -0,0 +1,37 @@
+package com.botofholding.api.Domain.Entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The read model behind the container GETs: a container's {@code ContainerSummaryDto} with all its items, serialized
+ * once when a mutation produces it. A row only counts while its version matches the container's, anything else is
+ * rebuilt from the normalized tables, see {@code ContainerSummaryService}.
+ * The 'active' flag depends on who is asking and is set again on every read.
+ */
+@Table(name = "CNTNR_SMRY")
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ContainerSummary {
+
+    // Shares the container's id, but as a plain column: the summary must never load the container.
+    @Id
+    @Column(name = "CNTNR_ID")
+    private Long containerId;
+
+    @Column(name = "CNTNR_VRSN", nullable = false)
+    private Long version;
+
+    @Lob
+    @Column(name = "SMRY_JSON", nullable = false)
+    private String summaryJson;
+
+    @Column(name = "RFRSH_DTTM", nullable = false)
+    private LocalDateTime refreshedDateTime;
+}
@@ -1,6 +1,7 @@
 package com.botofholding.api.Domain.Entity;
 
 import com.botofholding.api.Domain.Entity.Auditing.AuditableEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -15,11 +16,16 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Table(name = "CNTNR_TYPE")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "container-type")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -40,6 +46,10 @@ public class ContainerType extends AuditableEntity {
     @Column(name = "CNTNR_TYPE_DESC")
     private String containerTypeDescription;
 
+    // Optional capacity in pounds. Containers of this type refuse anything that would make them heavier.
+    @Column(name = "MAX_WGHT", precision = 19, scale = 4)
+    private BigDecimal maxWeight;
+
     @Override
     public String toString() {
         return "ContainerType: " + containerTypeName + (containerTypeDescription != null && !containerTypeDescription.strip().isEmpty() ? " Description: " + containerTypeDescription : "");
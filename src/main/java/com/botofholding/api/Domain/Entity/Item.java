@@ -3,11 +3,16 @@ package com.botofholding.api.Domain.Entity;
 import com.botofholding.api.Domain.Entity.Auditing.AuditableEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Table(name = "ITEM")
 @Entity
+// Catalog data: read on every add, access check and container load, written only by the catalog seeding.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,53 @@
+package com.botofholding.api.Domain.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * How often an owner adds an item to containers, as a score that halves every {@code boh.usage.half-life-hours}.
+ * The score is as of {@code UPDT_DTTM}; the live counters are kept in memory and written here now and then,
+ * see {@code ItemUsageTracker}.
+ */
+@Table(name = "ITEM_USG")
+@Entity
+@IdClass(ItemUsage.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ItemUsage {
+
+    // Plain columns like the shards': the tracker writes scores by id and must not load the owner or item.
+    @Id
+    @Column(name = "OWNER_ID")
+    private Long ownerId;
+
+    @Id
+    @Column(name = "ITEM_ID")
+    private Long itemId;
+
+    @Column(name = "USG_SCR", nullable = false)
+    private Double score = 0d;
+
+    @Column(name = "UPDT_DTTM", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ItemUsage(Long ownerId, Long itemId) {
+        this.ownerId = ownerId;
+        this.itemId = itemId;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ownerId;
+        private Long itemId;
+    }
+}
@@ -0,0 +1,15 @@
+package com.botofholding.api.Domain.Enum;
+
+/**
+ * The kind of a single operation in a {@link com.botofholding.api.Domain.DTO.Request.BatchRequestDto}.
+ */
+public enum BatchOperationType {
+    /** Make another container the active one; later operations run against it. */
+    ACTIVATE,
+    /** Add an item, same as POST /api/containers/active/items. */
+    ADD,
+    /** Drop an item, same as DELETE /api/containers/active/items. */
+    DROP,
+    /** Change an item's note, quantity or parent, same as PATCH /api/containers/active/items. */
+    MODIFY
+}
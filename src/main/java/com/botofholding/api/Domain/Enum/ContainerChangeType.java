@@ -0,0 +1,15 @@
+package com.botofholding.api.Domain.Enum;
+
+/**
+ * What happened to a container item in a {@link com.botofholding.api.Domain.Entity.ContainerChange}.
+ */
+public enum ContainerChangeType {
+    /** A new stack or parent item was put in the container. */
+    ADD,
+    /** The item left the container. */
+    REMOVE,
+    /** Quantity or note changed. */
+    UPDATE,
+    /** The item now has a different parent (or none). */
+    MOVE
+}
@@ -0,0 +1,24 @@
+package com.botofholding.api.Domain.Event;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerChangeDto;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that changed a container. Listeners that push it to clients must only act
+ * after that transaction committed.
+ * @param containerId The changed container.
+ * @param version The container version after the change.
+ * @param changes What changed, already mapped while the entities were still attached.
+ * @param deleted Whether the container itself was deleted.
+ */
+public record ContainerChangedEvent(Long containerId, Long version, List<ContainerChangeDto> changes, boolean deleted) {
+
+    public static ContainerChangedEvent changed(Long containerId, Long version, List<ContainerChangeDto> changes) {
+        return new ContainerChangedEvent(containerId, version, changes, false);
+    }
+
+    public static ContainerChangedEvent deleted(Long containerId) {
+        return new ContainerChangedEvent(containerId, null, List.of(), true);
+    }
+}
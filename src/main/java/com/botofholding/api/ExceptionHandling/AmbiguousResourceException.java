@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.CONFLICT) // 409: The request is valid, but can't be processed due to the state of the resources.
-public class AmbiguousResourceException extends RuntimeException {
+public class AmbiguousResourceException extends DomainException {
     public AmbiguousResourceException(String message) {
         super(message);
     }
@@ -0,0 +1,26 @@
+package com.botofholding.api.ExceptionHandling;
+
+import com.botofholding.api.Domain.DTO.Response.BatchOperationResultDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * Thrown when an operation of a batch fails. The whole batch is rolled back; the per-operation results tell
+ * the client which operation failed and why, and which were skipped.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchOperationException extends DomainException {
+
+    private final List<BatchOperationResultDto> results;
+
+    public BatchOperationException(String message, List<BatchOperationResultDto> results) {
+        super(message);
+        this.results = results;
+    }
+
+    public List<BatchOperationResultDto> getResults() {
+        return results;
+    }
+}
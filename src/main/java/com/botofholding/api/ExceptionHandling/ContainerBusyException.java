@@ -0,0 +1,12 @@
+package com.botofholding.api.ExceptionHandling;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ContainerBusyException extends DomainException {
+
+    public ContainerBusyException(String message) { super(message); }
+
+    public ContainerBusyException(String message, Throwable cause) { super(message, cause); }
+}
@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class ContainerNotFoundException extends RuntimeException {
+public class ContainerNotFoundException extends DomainException {
 
     public ContainerNotFoundException(String message) { super(message); }
 
@@ -0,0 +1,18 @@
+package com.botofholding.api.ExceptionHandling;
+
+/**
+ * Base class for the expected, client-caused failures of normal bot flows (not found, ambiguous name, failed
+ * validation, ...). These are turned into 4xx responses by {@link GlobalExceptionHandler} and only their message
+ * is ever logged, so they skip filling in a stack trace, which through Spring's call stack is the most
+ * expensive part of throwing. Unexpected errors should keep using regular exceptions.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+
+    protected DomainException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.CONFLICT)
-public class DuplicateResourceException extends RuntimeException {
+public class DuplicateResourceException extends DomainException {
     public DuplicateResourceException(String message) {
         super(message);
     }
@@ -11,8 +11,6 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,13 +19,6 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    // Helper method to format the stack trace as a String
-    private String formatStackTrace(Throwable ex) {
-        StringWriter stringWriter = new StringWriter();
-        ex.printStackTrace(new PrintWriter(stringWriter));
-        return stringWriter.toString();
-    }
-
     // The return type now uses StandardApiResponse<Object>
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<StandardApiResponse<Object>> handleResourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
@@ -195,12 +186,46 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(SubscriptionLimitException.class)
+    public ResponseEntity<StandardApiResponse<Object>> handleSubscriptionLimitException(SubscriptionLimitException ex, WebRequest request) {
+        logger.warn("Subscription refused: {}. Request: {}", ex.getMessage(), request.getDescription(false));
+        StandardApiResponse<Object> errorResponse = new StandardApiResponse<>(
+                false,
+                ex.getMessage(),
+                null
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ContainerBusyException.class)
+    public ResponseEntity<StandardApiResponse<Object>> handleContainerBusyException(ContainerBusyException ex, WebRequest request) {
+        logger.warn("Container busy: {}. Request: {}", ex.getMessage(), request.getDescription(false));
+        StandardApiResponse<Object> errorResponse = new StandardApiResponse<>(
+                false,
+                ex.getMessage(),
+                null
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(BatchOperationException.class)
+    public ResponseEntity<StandardApiResponse<Object>> handleBatchOperationException(BatchOperationException ex, WebRequest request) {
+        logger.warn("Batch rolled back: {}. Request: {}", ex.getMessage(), request.getDescription(false));
+        // Unlike the other errors the data carries the per-operation results, so the bot can point at the failing step.
+        StandardApiResponse<Object> errorResponse = new StandardApiResponse<>(
+                false,
+                ex.getMessage(),
+                ex.getResults()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     // A final catch-all for any other unexpected exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<StandardApiResponse<Object>> handleAllUncaughtException(Exception ex, WebRequest request) {
-        logger.error("An unexpected error occurred. Request: {}. Stack trace: {}",
-                request.getDescription(false),
-                formatStackTrace(ex));
+        // Hand the exception to the logger as the throwable argument so the trace is rendered by the
+        // (async) appender thread instead of being printed into a String on the request thread.
+        logger.error("An unexpected error occurred. Request: {}.", request.getDescription(false), ex);
 
         StandardApiResponse<Object> errorResponse = new StandardApiResponse<>(
                 false,
@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class InvalidSearchScopeException extends RuntimeException{
+public class InvalidSearchScopeException extends DomainException {
     public InvalidSearchScopeException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.botofholding.api.ExceptionHandling;
 
-public class ItemNotFoundException extends RuntimeException{
+public class ItemNotFoundException extends DomainException {
     public ItemNotFoundException(String message) {
         super(message);
     }
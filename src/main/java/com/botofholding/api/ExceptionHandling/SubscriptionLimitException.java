@@ -0,0 +1,12 @@
+package com.botofholding.api.ExceptionHandling;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SubscriptionLimitException extends DomainException {
+
+    public SubscriptionLimitException(String message) { super(message); }
+
+    public SubscriptionLimitException(String message, Throwable cause) { super(message, cause); }
+}
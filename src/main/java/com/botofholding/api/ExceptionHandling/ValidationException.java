@@ -1,6 +1,6 @@
 package com.botofholding.api.ExceptionHandling;
 
-public class ValidationException extends RuntimeException{
+public class ValidationException extends DomainException {
     public ValidationException(String message) {
         super(message);
     }
@@ -0,0 +1,20 @@
+package com.botofholding.api.Mapper;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerChangeDto;
+import com.botofholding.api.Domain.Entity.ContainerChange;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface ContainerChangeMapper {
+
+    @Mapping(source = "changeType", target = "type")
+    @Mapping(source = "item.itemId", target = "itemId")
+    @Mapping(source = "item.itemName", target = "itemName")
+    ContainerChangeDto toDto(ContainerChange change);
+
+    List<ContainerChangeDto> toDtoList(List<ContainerChange> changes);
+}
@@ -18,8 +18,21 @@ public interface ContainerItemMapper {
     @Mapping(source = "userNote", target = "userNote")
     @Mapping(source = "lastModifiedDateTime", target = "lastModified")
     @Mapping(source = "children", target = "children")
+    // Mapping the parent back would recurse parent -> children -> parent forever for any nested item.
+    @Mapping(target = "parent", ignore = true)
     ContainerItemSummaryDto toSummaryDto(ContainerItem containerItem);
 
+    /**
+     * Maps a single level: children are left out, so their lazy collection is never touched.
+     */
+    @Named("toFlatSummaryDto")
+    @Mapping(source = "item.itemId", target = "itemId")
+    @Mapping(source = "item.itemName", target = "itemName")
+    @Mapping(source = "lastModifiedDateTime", target = "lastModified")
+    @Mapping(target = "children", ignore = true)
+    @Mapping(target = "parent", ignore = true)
+    ContainerItemSummaryDto toFlatSummaryDto(ContainerItem containerItem);
+
     @Mapping(source = "containerItem", target = "label", qualifiedByName = "mapItemName")
     @Mapping(source = "containerItemId", target = "id")
     @Mapping(source = "containerItem", target = "description", qualifiedByName = "mapDescription")
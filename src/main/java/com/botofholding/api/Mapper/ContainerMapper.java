@@ -13,10 +13,23 @@ public interface ContainerMapper {
     @Mapping(source = "containerId", target = "containerId")
     @Mapping(source = "owner.displayName", target = "ownerDisplayName")
     @Mapping(source = "containerType.containerTypeName", target = "containerTypeName")
+    @Mapping(source = "containerType.maxWeight", target = "maxWeight")
     @Mapping(source = "containerItems", target = "items")
     @Mapping(source = "container", target = "active", qualifiedByName = "mapIsActive")
     ContainerSummaryDto toSummaryDto(Container container, @Context BohUser currentUser);
 
+    /**
+     * Maps the container without its items, so the lazy item collection is never loaded.
+     */
+    @Named("toSummaryDtoWithoutItems")
+    @Mapping(source = "containerId", target = "containerId")
+    @Mapping(source = "owner.displayName", target = "ownerDisplayName")
+    @Mapping(source = "containerType.containerTypeName", target = "containerTypeName")
+    @Mapping(source = "containerType.maxWeight", target = "maxWeight")
+    @Mapping(target = "items", ignore = true)
+    @Mapping(source = "container", target = "active", qualifiedByName = "mapIsActive")
+    ContainerSummaryDto toSummaryDtoWithoutItems(Container container, @Context BohUser currentUser);
+
     @Mapping(source = "containerId", target = "id")
     @Mapping(source = "containerName", target = "label")
     @Mapping(source = "owner.displayName", target = "description")
@@ -0,0 +1,31 @@
+package com.botofholding.api.Observability;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Charges JDBC statement and batch execution to the {@link RequestTimings.Phase#DB} phase of the current request.
+ * Hibernate creates one instance per session; it is registered through the
+ * {@code hibernate.session.events.auto} property in application.properties.
+ */
+public class HibernateTimingListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        RequestTimings.current().enter(RequestTimings.Phase.DB);
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimings.current().exit();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        RequestTimings.current().enter(RequestTimings.Phase.DB);
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.current().exit();
+    }
+}
@@ -0,0 +1,258 @@
+package com.botofholding.api.Observability;
+
+/**
+ * Per-request phase timer backing the {@code Server-Timing} response header.
+ * <p>
+ * Phases are accounted <em>exclusively</em>: entering a nested phase pauses the enclosing one, so the
+ * reported durations always add up to the request total. Time spent outside any explicit phase is
+ * reported as {@link Phase#APP}. Database statements issued while another phase is open are charged to
+ * {@link Phase#DB} and additionally broken down by the phase that issued them.
+ * <p>
+ * The instance for the current request is bound to the request thread by {@link ServerTimingFilter}.
+ * All methods are no-ops when no timer is bound (schedulers, startup runners, tests), so instrumented
+ * code never needs to null-check. Uses {@link System#nanoTime()} only and does not allocate per phase.
+ */
+public final class RequestTimings implements AutoCloseable {
+
+    /**
+     * The phases reported in the {@code Server-Timing} header, in header order.
+     */
+    public enum Phase {
+        AUTH("auth", "JWT validation and owner provisioning"),
+        AUTHZ("authz", "Resource authorization checks"),
+        DB("db", "JDBC statement execution"),
+        MAP("map", "Entity to DTO mapping"),
+        SERIALIZE("ser", "JSON serialization"),
+        APP("app", "Controller and service code");
+
+        private final String metricName;
+        private final String description;
+
+        Phase(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int MAX_DEPTH = 16;
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final RequestTimings NOOP = new RequestTimings(true);
+
+    private final boolean noop;
+    private final long startNanos;
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final long[] dbNanosByPhase = new long[PHASES.length];
+    private final Phase[] stack = new Phase[MAX_DEPTH];
+    private int depth;
+    private long lastMark;
+    private int statementCount;
+    private long totalNanos = -1;
+
+    private RequestTimings(boolean noop) {
+        this.noop = noop;
+        this.startNanos = noop ? 0 : System.nanoTime();
+        this.lastMark = startNanos;
+        this.stack[0] = Phase.APP;
+        this.depth = 1;
+    }
+
+    /**
+     * Starts timing a new request and binds it to the current thread.
+     * @return The new timer.
+     */
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings(false);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * @return The timer bound to the current thread, or a shared no-op timer if there is none.
+     */
+    public static RequestTimings current() {
+        RequestTimings timings = CURRENT.get();
+        return timings != null ? timings : NOOP;
+    }
+
+    /**
+     * Unbinds the timer from the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Enters a phase on the current request's timer. Intended for try-with-resources:
+     * <pre>{@code try (RequestTimings ignored = RequestTimings.phase(Phase.MAP)) { ... }}</pre>
+     * @param phase The phase to enter.
+     * @return The timer, whose {@link #close()} leaves the phase again.
+     */
+    public static RequestTimings phase(Phase phase) {
+        RequestTimings timings = current();
+        timings.enter(phase);
+        return timings;
+    }
+
+    /**
+     * Pauses the enclosing phase and starts charging time to the given phase.
+     * @param phase The phase to enter.
+     */
+    public void enter(Phase phase) {
+        if (noop || totalNanos >= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        charge(now);
+        if (phase == Phase.DB) {
+            statementCount++;
+        }
+        if (depth < MAX_DEPTH) {
+            stack[depth] = phase;
+        }
+        depth++;
+    }
+
+    /**
+     * Leaves the innermost phase and resumes the enclosing one.
+     */
+    public void exit() {
+        if (noop || totalNanos >= 0 || depth <= 1) {
+            return;
+        }
+        charge(System.nanoTime());
+        depth--;
+    }
+
+    @Override
+    public void close() {
+        exit();
+    }
+
+    /**
+     * Stops the timer, charging any still-open phase up to now. Further calls are ignored.
+     */
+    public void stop() {
+        if (noop || totalNanos >= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        charge(now);
+        totalNanos = now - startNanos;
+        depth = 1;
+    }
+
+    /**
+     * @return The elapsed request time in nanoseconds, up to now if the timer is still running.
+     */
+    public long getTotalNanos() {
+        if (noop) {
+            return 0;
+        }
+        return totalNanos >= 0 ? totalNanos : System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @param phase The phase to read.
+     * @return The exclusive time charged to the phase so far, in nanoseconds.
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * @return The number of JDBC statements (or batches) executed during the request.
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Renders the timings as a {@code Server-Timing} header value, e.g.
+     * {@code auth;dur=1.20, db;dur=8.45;desc="6 statements (auth 1.02, app 7.43)", ..., total;dur=14.31}.
+     * Phases that took no time are omitted.
+     * @return The header value.
+     */
+    public String toServerTimingHeader() {
+        StringBuilder header = new StringBuilder(160);
+        for (Phase phase : PHASES) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos == 0) {
+                continue;
+            }
+            appendMetric(header, phase.getMetricName(), nanos);
+            if (phase == Phase.DB) {
+                header.append(";desc=\"").append(statementCount).append(statementCount == 1 ? " statement" : " statements");
+                appendDbBreakdown(header);
+                header.append('"');
+            }
+            header.append(", ");
+        }
+        appendMetric(header, "total", getTotalNanos());
+        return header.toString();
+    }
+
+    private void charge(long now) {
+        Phase active = depth <= MAX_DEPTH ? stack[depth - 1] : Phase.APP;
+        long elapsed = now - lastMark;
+        phaseNanos[active.ordinal()] += elapsed;
+        if (active == Phase.DB) {
+            dbNanosByPhase[enclosingPhase().ordinal()] += elapsed;
+        }
+        lastMark = now;
+    }
+
+    /**
+     * @return The closest non-DB phase below the top of the stack, i.e. whoever issued the statement.
+     */
+    private Phase enclosingPhase() {
+        for (int i = Math.min(depth, MAX_DEPTH) - 1; i >= 0; i--) {
+            if (stack[i] != Phase.DB) {
+                return stack[i];
+            }
+        }
+        return Phase.APP;
+    }
+
+    private void appendDbBreakdown(StringBuilder header) {
+        boolean first = true;
+        for (Phase phase : PHASES) {
+            long nanos = dbNanosByPhase[phase.ordinal()];
+            if (nanos == 0) {
+                continue;
+            }
+            header.append(first ? " (" : ", ").append(phase.getMetricName()).append(' ');
+            appendMillis(header, nanos);
+            first = false;
+        }
+        if (!first) {
+            header.append(')');
+        }
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        header.append(name).append(";dur=");
+        appendMillis(header, nanos);
+    }
+
+    /**
+     * Appends nanoseconds as milliseconds with two decimals, without going through String.format.
+     */
+    private static void appendMillis(StringBuilder sb, long nanos) {
+        long hundredths = (nanos + 5_000) / 10_000;
+        sb.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+}
@@ -0,0 +1,65 @@
+package com.botofholding.api.Observability;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log4j2 filter that keeps one in every {@code keepOneIn} events at or below {@code level} and drops the rest.
+ * More severe events are never sampled. Meant for {@code Logger} / {@code AsyncLogger} elements in
+ * log4j2-spring.xml, to thin out per-request INFO lines on hot paths:
+ * <pre>{@code <SamplingFilter level="INFO" keepOneIn="10"/>}</pre>
+ * Each event is kept with probability {@code 1 / keepOneIn}, drawn from {@link ThreadLocalRandom}: logging threads
+ * share no state to contend on, and nothing is allocated per event.
+ */
+@Plugin(name = "SamplingFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class SamplingFilter extends AbstractFilter {
+
+    private final Level level;
+    private final long keepOneIn;
+
+    private SamplingFilter(Level level, long keepOneIn, Result onMatch, Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.level = level;
+        this.keepOneIn = keepOneIn;
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        if (!event.getLevel().isLessSpecificThan(level)) {
+            return Result.NEUTRAL; // More severe than the sampled level, always let through.
+        }
+        return ThreadLocalRandom.current().nextLong(keepOneIn) == 0 ? onMatch : onMismatch;
+    }
+
+    @Override
+    public String toString() {
+        return "level=" + level + ", keepOneIn=" + keepOneIn;
+    }
+
+    /**
+     * @param level The most severe level that is sampled, INFO if not given.
+     * @param keepOneIn Keep one in this many events; 1 keeps everything.
+     * @param onMatch Result for kept events, NEUTRAL if not given.
+     * @param onMismatch Result for dropped events, DENY if not given.
+     * @return The filter.
+     */
+    @PluginFactory
+    public static SamplingFilter createFilter(@PluginAttribute("level") Level level,
+                                              @PluginAttribute(value = "keepOneIn", defaultLong = 10) long keepOneIn,
+                                              @PluginAttribute("onMatch") Result onMatch,
+                                              @PluginAttribute("onMismatch") Result onMismatch) {
+        return new SamplingFilter(
+                level != null ? level : Level.INFO,
+                Math.max(1, keepOneIn),
+                onMatch != null ? onMatch : Result.NEUTRAL,
+                onMismatch != null ? onMismatch : Result.DENY);
+    }
+}
@@ -0,0 +1,95 @@
+package com.botofholding.api.Observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Outermost filter that times every API request and reports the phase breakdown in a
+ * {@code Server-Timing} header. The response body is buffered so the header can still be written after
+ * JSON serialization has finished. Requests slower than the configured threshold are written to the
+ * {@code SlowRequests} logger, sampled at the configured rate.
+ * Event streams are not timed: their body must reach the client as it is written, not when the stream ends.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // Run before the security chain so JWT handling is timed as well.
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final Logger slowRequestLog = LoggerFactory.getLogger("com.botofholding.api.Observability.SlowRequests");
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final double slowSampleRate;
+
+    public ServerTimingFilter(@Value("${boh.timing.enabled:true}") boolean enabled,
+                              @Value("${boh.timing.slow-threshold-ms:1500}") long slowThresholdMs,
+                              @Value("${boh.timing.slow-sample-rate:1.0}") double slowSampleRate) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+        this.slowSampleRate = slowSampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/") || isEventStream(request);
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return request.getRequestURI().endsWith("/stream")
+                || (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        RequestTimings timings = RequestTimings.start();
+        ContentCachingResponseWrapper bufferedResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, bufferedResponse);
+        } finally {
+            timings.stop();
+            RequestTimings.clear();
+            String serverTiming = timings.toServerTimingHeader();
+            bufferedResponse.setHeader(SERVER_TIMING_HEADER, serverTiming);
+            bufferedResponse.copyBodyToResponse();
+            logIfSlow(request, bufferedResponse.getStatus(), timings, serverTiming);
+        }
+    }
+
+    private void logIfSlow(HttpServletRequest request, int status, RequestTimings timings, String serverTiming) {
+        if (timings.getTotalNanos() < slowThresholdNanos) {
+            return;
+        }
+        if (slowSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= slowSampleRate) {
+            return;
+        }
+        slowRequestLog.warn("Slow request: {} {} -> {} in {} ms ({} statements). Server-Timing: {}",
+                request.getMethod(),
+                request.getRequestURI(),
+                status,
+                timings.getTotalNanos() / 1_000_000L,
+                timings.getStatementCount(),
+                serverTiming);
+    }
+}
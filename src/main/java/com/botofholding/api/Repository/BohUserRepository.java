@@ -4,6 +4,7 @@ import com.botofholding.api.Domain.Entity.Container;
 import org.springframework.stereotype.Repository;
 import com.botofholding.api.Domain.Entity.BohUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -49,4 +50,17 @@ public interface BohUserRepository extends JpaRepository<BohUser, Long> {
     @Query("SELECT u FROM BohUser u LEFT JOIN FETCH u.primaryContainer WHERE u.id = :id")
     Optional<BohUser> findByIdWithPrimaryContainer(@Param("id") Long id);
 
+    /**
+     * Moves a user's last-active stamp forward, never back. Written behind by the {@code ActivityTracker}.
+     * Native and keyed on USER_DATA alone: a JPQL update of the JOINED BohUser goes through a temporary id table
+     * joined to OWNER, which deadlocks with concurrent writers.
+     * @param id The ID of the user.
+     * @param at When the user was last seen.
+     * @return 1 if the stamp was moved, 0 if it was already as new or the user is gone.
+     */
+    @Modifying
+    @Query(value = "UPDATE USER_DATA SET LST_ACTV_DTTM = :at WHERE USER_ID = :id " +
+            "AND (LST_ACTV_DTTM IS NULL OR LST_ACTV_DTTM < :at)", nativeQuery = true)
+    int touchLastActive(@Param("id") Long id, @Param("at") LocalDateTime at);
+
 }
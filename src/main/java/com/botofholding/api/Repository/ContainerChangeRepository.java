@@ -0,0 +1,46 @@
+package com.botofholding.api.Repository;
+
+import com.botofholding.api.Domain.Entity.ContainerChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ContainerChangeRepository extends JpaRepository<ContainerChange, Long> {
+
+    /**
+     * Finds a container's changes in the version range (since, upTo], oldest first, with their item data.
+     * @param containerId The container whose log to read
+     * @param since The version the client already has
+     * @param upTo The newest version to include
+     * @param pageable Limits how many entries are read
+     * @return The matching changes, or an empty list if there are none
+     */
+    @Query("SELECT ch FROM ContainerChange ch LEFT JOIN FETCH ch.item WHERE ch.containerId = :containerId " +
+            "AND ch.version > :since AND ch.version <= :upTo ORDER BY ch.changeId")
+    List<ContainerChange> findChangesInRange(@Param("containerId") Long containerId, @Param("since") Long since,
+                                             @Param("upTo") Long upTo, Pageable pageable);
+
+    /**
+     * Deletes all log entries written before the cutoff.
+     * @param cutoff Entries older than this are removed
+     * @return The number of removed entries
+     */
+    @Modifying
+    @Query("DELETE FROM ContainerChange ch WHERE ch.changedDateTime < :cutoff")
+    int deleteChangesBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Deletes a container's whole log, used when the container itself is deleted.
+     * @param containerId The deleted container
+     */
+    @Modifying
+    @Query("DELETE FROM ContainerChange ch WHERE ch.containerId = :containerId")
+    void deleteByContainerId(@Param("containerId") Long containerId);
+}
@@ -1,13 +1,18 @@
 package com.botofholding.api.Repository;
 
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteProjection;
+import com.botofholding.api.Domain.DTO.Response.ChildCountProjection;
 import com.botofholding.api.Domain.Entity.*;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,15 +46,167 @@ public interface ContainerItemRepository extends JpaRepository<ContainerItem, Lo
             "ORDER BY ci.lastModifiedDateTime DESC")
     List<ContainerItem> findAllParentsFromActiveContainer(@Param("prefix") String prefix, @Param("user") BohUser user, Pageable pageable);
 
+    /**
+     * Fetch every containerItem of a user's active container together with its item, flat and unordered.
+     * Used to build item paths in memory where the recursive CTE below is not available.
+     * @param user the user who owns the active container
+     * @return all containerItems of the user's active container
+     */
+    @Query("SELECT ci FROM BohUser u JOIN u.primaryContainer pc JOIN pc.containerItems ci JOIN FETCH ci.item i WHERE u = :user")
+    List<ContainerItem> findAllWithItemInActiveContainer(@Param("user") BohUser user);
+
+    /**
+     * Fetch every containerItem of a container together with its item, flat and unordered.
+     * @param containerId the id of the container
+     * @return all containerItems of the container
+     */
+    @Query("SELECT ci FROM ContainerItem ci JOIN FETCH ci.item i WHERE ci.container.containerId = :containerId")
+    List<ContainerItem> findAllWithItemByContainerId(@Param("containerId") Long containerId);
+
+    /**
+     * Fetch the sharded stacks of a container together with their items, to weigh what their shards hold.
+     * @param containerId the id of the container
+     * @return the sharded stacks of the container
+     */
+    @Query("SELECT ci FROM ContainerItem ci JOIN FETCH ci.item i WHERE ci.container.containerId = :containerId AND ci.shardCount IS NOT NULL")
+    List<ContainerItem> findShardedWithItemByContainerId(@Param("containerId") Long containerId);
+
+    /**
+     * One page of the top level of a container, oldest first. Children aren't fetched.
+     * @param containerId the id of the container
+     * @param afterId the id of the last containerItem of the previous page, 0 for the first page
+     * @param pageable the page size, the order is fixed by the query
+     * @return the containerItems at the container root after the cursor
+     */
+    @Query("SELECT ci FROM ContainerItem ci JOIN FETCH ci.item i " +
+            "WHERE ci.container.containerId = :containerId AND ci.parent IS NULL AND ci.containerItemId > :afterId " +
+            "ORDER BY ci.containerItemId")
+    List<ContainerItem> findRootPage(@Param("containerId") Long containerId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * One page of the direct children of a containerItem, oldest first. Their own children aren't fetched.
+     * @param containerId the id of the container, so a parent in another container yields nothing
+     * @param parentId the id of the parent containerItem
+     * @param afterId the id of the last containerItem of the previous page, 0 for the first page
+     * @param pageable the page size, the order is fixed by the query
+     * @return the children after the cursor
+     */
+    @Query("SELECT ci FROM ContainerItem ci JOIN FETCH ci.item i " +
+            "WHERE ci.container.containerId = :containerId AND ci.parent.containerItemId = :parentId AND ci.containerItemId > :afterId " +
+            "ORDER BY ci.containerItemId")
+    List<ContainerItem> findChildPage(@Param("containerId") Long containerId, @Param("parentId") Long parentId,
+                                      @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Moves the given containerItems to another container in place, keeping their parent links.
+     * Only rows still in the source container are moved, so the count tells whether anything changed underneath.
+     * @param ids the ids of the containerItems to move
+     * @param sourceId the id of the container they are in
+     * @param target the container to move them to
+     * @param now the new last modified time
+     * @return the number of moved rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ContainerItem ci SET ci.container = :target, ci.lastModifiedDateTime = :now " +
+            "WHERE ci.containerItemId IN :ids AND ci.container.containerId = :sourceId")
+    int moveToContainer(@Param("ids") Collection<Long> ids, @Param("sourceId") Long sourceId,
+                        @Param("target") Container target, @Param("now") LocalDateTime now);
+
+    /**
+     * Adds a weight/value delta to the totals of the given containerItems, typically an item and its ancestors.
+     * @param ids the ids of the containerItems
+     * @param weight the weight to add, in pounds, may be negative
+     * @param value the value to add, in gold pieces, may be negative
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ContainerItem ci SET ci.totalWeight = ci.totalWeight + :weight, ci.totalValue = ci.totalValue + :value " +
+            "WHERE ci.containerItemId IN :ids")
+    int addToTotals(@Param("ids") Collection<Long> ids, @Param("weight") BigDecimal weight, @Param("value") BigDecimal value);
+
+    /**
+     * Adds a (possibly negative) delta to a stack's quantity in place, as long as at least one item is left.
+     * @param id the id of the containerItem
+     * @param delta the quantity to add
+     * @param actor the owner making the change
+     * @param now the new last modified time
+     * @return 1 if the quantity was changed, 0 if the stack doesn't exist or would be emptied
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ContainerItem ci SET ci.quantity = ci.quantity + :delta, ci.lastModifiedBy = :actor, " +
+            "ci.lastModifiedDateTime = :now WHERE ci.containerItemId = :id AND ci.quantity + :delta >= 1")
+    int addToQuantity(@Param("id") Long id, @Param("delta") int delta, @Param("actor") Owner actor,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Folds the deltas taken from a sharded stack's shards into its own row, and sets its number of shards.
+     * The stack's quantity and totals as read (row plus shards) stay the same once the shards are emptied.
+     * @param id the id of the containerItem
+     * @param delta the sum of the shards' quantity deltas
+     * @param weight the weight of that quantity, in pounds, may be negative
+     * @param value the value of that quantity, in gold pieces, may be negative
+     * @param shardCount the stack's number of shards from now on, null for a plain stack
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ContainerItem ci SET ci.quantity = ci.quantity + :delta, ci.totalWeight = ci.totalWeight + :weight, " +
+            "ci.totalValue = ci.totalValue + :value, ci.shardCount = :shardCount WHERE ci.containerItemId = :id")
+    int foldShards(@Param("id") Long id, @Param("delta") int delta, @Param("weight") BigDecimal weight,
+                   @Param("value") BigDecimal value, @Param("shardCount") Integer shardCount);
+
+    /**
+     * Puts the given containerItems at the root of their container.
+     * @param ids the ids of the containerItems
+     * @param now the new last modified time
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ContainerItem ci SET ci.parent = null, ci.lastModifiedDateTime = :now WHERE ci.containerItemId IN :ids")
+    int detachFromParents(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Moves the direct children of a containerItem to the root of the container; their own children stay with them.
+     * @param parentId the id of the parent containerItem
+     * @param now the new last modified time
+     * @return the number of moved children
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ContainerItem ci SET ci.parent = null, ci.lastModifiedDateTime = :now WHERE ci.parent.containerItemId = :parentId")
+    int moveChildrenToRoot(@Param("parentId") Long parentId, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes the given containerItems. Any of their children must have been moved or detached first.
+     * @param ids the ids of the containerItems
+     * @return the number of deleted rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ContainerItem ci WHERE ci.containerItemId IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the direct children of the given containerItems without loading them.
+     * @param parentIds the ids of the containerItems
+     * @return one row per containerItem that has children
+     */
+    @Query("SELECT ci.parent.containerItemId AS parentId, COUNT(ci) AS childCount FROM ContainerItem ci " +
+            "WHERE ci.parent.containerItemId IN :parentIds GROUP BY ci.parent.containerItemId")
+    List<ChildCountProjection> countChildren(@Param("parentIds") Collection<Long> parentIds);
+
     @Query("SELECT DISTINCT ci FROM ContainerItem ci LEFT JOIN FETCH ci.item i WHERE ci.parent in :containerItems")
     List<ContainerItem> fetchChildrenForContainerItems(@Param("containerItems") List<ContainerItem> containerItems);
 
+    /**
+     * Recursive CTE building the full path of every item in a user's active container.
+     * SQL Server specific (VARCHAR(MAX), '+' concatenation, TOP); with {@code boh.jpa.native-recursive-queries=false}
+     * the service builds the same paths from {@link #findAllWithItemInActiveContainer} instead.
+     */
     String AUTOCOMPLETE_CTE = """
             WITH ItemPath AS (
                 -- Anchor: items at the root of the container
                 SELECT
                     ci.cntnr_item_id,
-                    ci.itm_qty,
+                    -- The quantity of a sharded stack includes its shards.
+                    ci.itm_qty + COALESCE((SELECT SUM(s.qty_dlta) FROM cntnr_item_shrd s WHERE s.cntnr_item_id = ci.cntnr_item_id), 0) AS itm_qty,
                     ci.user_note,
                     i.item_nme,
                     CAST(i.item_nme AS VARCHAR(MAX)) AS full_path,
@@ -67,7 +224,7 @@ public interface ContainerItemRepository extends JpaRepository<ContainerItem, Lo
                 -- Recursive member: children of items already in the path
                 SELECT
                     child.cntnr_item_id,
-                    child.itm_qty,
+                    child.itm_qty + COALESCE((SELECT SUM(s.qty_dlta) FROM cntnr_item_shrd s WHERE s.cntnr_item_id = child.cntnr_item_id), 0),
                     child.user_note,
                     child_item.item_nme,
                     CAST(parent.full_path + ' > ' + child_item.item_nme AS VARCHAR(MAX)),
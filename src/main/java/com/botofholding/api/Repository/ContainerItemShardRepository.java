@@ -0,0 +1,76 @@
+package com.botofholding.api.Repository;
+
+import com.botofholding.api.Domain.Entity.ContainerItemShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ContainerItemShardRepository extends JpaRepository<ContainerItemShard, ContainerItemShard.Key> {
+
+    /**
+     * Adds a (possibly negative) delta to one shard of a stack. Only that shard's row is locked.
+     * @param containerItemId the id of the sharded stack
+     * @param shardNo the shard to add to
+     * @param delta the quantity to add
+     * @return 1 if the shard was changed, 0 if the stack has no such shard (anymore)
+     */
+    @Modifying
+    @Query("UPDATE ContainerItemShard s SET s.quantityDelta = s.quantityDelta + :delta " +
+            "WHERE s.containerItemId = :containerItemId AND s.shardNo = :shardNo")
+    int addToShard(@Param("containerItemId") Long containerItemId, @Param("shardNo") Integer shardNo,
+                   @Param("delta") int delta);
+
+    /**
+     * Reads and locks all shards of a stack, so their deltas can be folded into the stack without losing
+     * a concurrent update. Writers of the stack wait for the lock until the fold commits.
+     * @param containerItemId the id of the sharded stack
+     * @return the stack's shards
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ContainerItemShard s WHERE s.containerItemId = :containerItemId")
+    List<ContainerItemShard> findAllForFold(@Param("containerItemId") Long containerItemId);
+
+    /**
+     * Finds containers holding stacks whose shards hold something to fold into the stack.
+     * @param pageable limits how many ids are read
+     * @return the ids of the containers
+     */
+    @Query("SELECT DISTINCT ci.container.containerId FROM ContainerItemShard s, ContainerItem ci " +
+           "WHERE ci.containerItemId = s.containerItemId AND s.quantityDelta <> 0")
+    List<Long> findContainerIdsToFold(Pageable pageable);
+
+    /**
+     * Finds the stacks of a container whose shards hold something to fold into the stack.
+     * @param containerId the container
+     * @return the ids of the stacks
+     */
+    @Query("SELECT DISTINCT s.containerItemId FROM ContainerItemShard s, ContainerItem ci " +
+           "WHERE ci.containerItemId = s.containerItemId AND ci.container.containerId = :containerId AND s.quantityDelta <> 0")
+    List<Long> findContainerItemIdsToFold(@Param("containerId") Long containerId);
+
+    /**
+     * Empties all shards of a stack after their deltas were folded into it.
+     * @param containerItemId the id of the sharded stack
+     * @return the number of emptied shards
+     */
+    @Modifying
+    @Query("UPDATE ContainerItemShard s SET s.quantityDelta = 0 WHERE s.containerItemId = :containerItemId")
+    int clearShards(@Param("containerItemId") Long containerItemId);
+
+    /**
+     * Deletes all shards of a stack, when it is turned back into a plain stack or gets a new number of shards.
+     * @param containerItemId the id of the stack
+     * @return the number of deleted shards
+     */
+    @Modifying
+    @Query("DELETE FROM ContainerItemShard s WHERE s.containerItemId = :containerItemId")
+    int deleteShards(@Param("containerItemId") Long containerItemId);
+}
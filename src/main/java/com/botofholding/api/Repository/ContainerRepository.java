@@ -1,14 +1,19 @@
 package com.botofholding.api.Repository;
 
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
 import com.botofholding.api.Domain.Entity.BohUser;
 import com.botofholding.api.Domain.Entity.Container;
 import com.botofholding.api.Domain.Entity.Owner;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 // In ContainerRepository.java
@@ -26,6 +31,19 @@ public interface ContainerRepository extends JpaRepository<Container, Long> {
     @Query("SELECT c FROM Container c WHERE (c.owner = :principal OR c.owner = :actor) AND (:name IS NULL OR c.containerName = :name)")
     List<Container> findContainersForOwnersByName(@Param("name") String name, @Param("actor") Owner actor, @Param("principal") Owner principal, Pageable pageable);
 
+    /**
+     * The page after a cursor of {@link #findContainersForOwnersByName}, most recently active first.
+     * @param lastActive The last active time of the last container of the previous page
+     * @param lastId The id of the last container of the previous page, breaks ties on lastActive
+     * @param pageable The page size, the order is fixed by the query
+     * @return The containers after the cursor
+     */
+    @Query("SELECT c FROM Container c WHERE (c.owner = :principal OR c.owner = :actor) AND (:name IS NULL OR c.containerName = :name) " +
+            "AND (c.lastActiveDateTime < :lastActive OR (c.lastActiveDateTime = :lastActive AND c.containerId < :lastId)) " +
+            "ORDER BY c.lastActiveDateTime DESC, c.containerId DESC")
+    List<Container> findContainersForOwnersByNameAfter(@Param("name") String name, @Param("actor") Owner actor, @Param("principal") Owner principal,
+                                                       @Param("lastActive") LocalDateTime lastActive, @Param("lastId") Long lastId, Pageable pageable);
+
     /**
      *  Used for Autocomplete results, finds containers owned by EITHER the principal OR the actor that start with the given prefix.
      * @param prefix The prefix to search for.
@@ -79,4 +97,107 @@ public interface ContainerRepository extends JpaRepository<Container, Long> {
     @Query("SELECT c FROM Container c LEFT JOIN FETCH c.containerItems ci LEFT JOIN FETCH ci.item i WHERE c.containerId = :id")
     Optional<Container> findByIdWithItems(@Param("id") Long id);
 
-}
\ No newline at end of file
+    /**
+     * Counts how many of the given containers the actor may change: their own, or the principal guild's.
+     * Same rules as {@code SecurityService.canModifyContainer}, answered for several containers in one query.
+     * @param ids The ids of the containers
+     * @param actor The requesting user
+     * @param principal The guild the request comes from, or the requesting user
+     * @return The number of the given containers that exist and are accessible
+     */
+    @Query("SELECT COUNT(c) FROM Container c JOIN c.owner o WHERE c.containerId IN :ids " +
+            "AND (o = :actor OR (o = :principal AND TYPE(o) = Guild))")
+    long countAccessibleContainers(@Param("ids") Collection<Long> ids, @Param("actor") Owner actor, @Param("principal") Owner principal);
+
+    /**
+     * Adds a weight/value delta to a container's totals.
+     * @param id The id of the container
+     * @param weight The weight to add, in pounds, may be negative
+     * @param value The value to add, in gold pieces, may be negative
+     * @return The number of updated rows, 0 if the container doesn't exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Container c SET c.totalWeight = c.totalWeight + :weight, c.totalValue = c.totalValue + :value " +
+            "WHERE c.containerId = :id")
+    int addToTotals(@Param("id") Long id, @Param("weight") BigDecimal weight, @Param("value") BigDecimal value);
+
+    /**
+     * Same as {@link #addToTotals}, but only if the container stays within the weight limit of its type. Checked
+     * and applied in one statement, so concurrent additions can't overfill the container between check and update.
+     * @param unfolded The weight held in the shards of sharded stacks, which counts against the limit but isn't
+     *                 part of the total until folded, in pounds
+     * @return The number of updated rows, 0 if the container doesn't exist or the limit would be exceeded
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Container c SET c.totalWeight = c.totalWeight + :weight, c.totalValue = c.totalValue + :value " +
+            "WHERE c.containerId = :id AND NOT EXISTS (SELECT t FROM ContainerType t WHERE t = c.containerType " +
+            "AND t.maxWeight IS NOT NULL AND c.totalWeight + :weight + :unfolded > t.maxWeight)")
+    int addToTotalsWithinCapacity(@Param("id") Long id, @Param("weight") BigDecimal weight, @Param("value") BigDecimal value,
+                                  @Param("unfolded") BigDecimal unfolded);
+
+    /**
+     * Atomically bumps a container's version. The row stays locked until the surrounding transaction ends,
+     * so concurrent changes to the same container each get their own version.
+     * @param id The id of the container that changed
+     * @return The number of updated rows, 0 if the container doesn't exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Container c SET c.version = c.version + 1 WHERE c.containerId = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    /**
+     * Moves a container's last-active stamp forward, never back. Written behind by the {@code ActivityTracker}.
+     * @param id The id of the container
+     * @param at When the container was last active
+     * @return 1 if the stamp was moved, 0 if it was already as new or the container is gone
+     */
+    @Modifying
+    @Query("UPDATE Container c SET c.lastActiveDateTime = :at WHERE c.containerId = :id " +
+            "AND (c.lastActiveDateTime IS NULL OR c.lastActiveDateTime < :at)")
+    int touchLastActive(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    /**
+     * Finds the owners of the given containers.
+     * @param ids The ids of the containers
+     * @return The ids of their owners, each once
+     */
+    @Query("SELECT DISTINCT c.owner.id FROM Container c WHERE c.containerId IN :ids")
+    List<Long> findOwnerIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads a container's current version without loading the container.
+     * @param id The id of the container
+     * @return An Optional containing the version, or empty if the container doesn't exist
+     */
+    @Query("SELECT c.version FROM Container c WHERE c.containerId = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Reads the id and version of a user's active container without loading it.
+     * @param user The user whose active container is to be checked.
+     * @return An Optional containing the version info, or empty if none is set.
+     */
+    @Query("SELECT pc.containerId AS containerId, pc.version AS version, true AS active FROM BohUser u JOIN u.primaryContainer pc WHERE u = :user")
+    Optional<ContainerVersionProjection> findActiveContainerVersionForUser(@Param("user") BohUser user);
+
+    /**
+     * Reads a container's change log floor without loading the container.
+     * @param id The id of the container
+     * @return An Optional containing the floor, or empty if the container doesn't exist
+     */
+    @Query("SELECT c.changeLogFloor FROM Container c WHERE c.containerId = :id")
+    Optional<Long> findChangeLogFloorById(@Param("id") Long id);
+
+    /**
+     * Raises the change log floor of every container with log entries older than the cutoff to the newest of
+     * those entries' versions. Must run in the same transaction as the deletion of those entries.
+     * @param cutoff Entries older than this are about to be removed
+     * @return The number of updated containers
+     */
+    @Modifying
+    @Query("UPDATE Container c SET c.changeLogFloor = " +
+            "(SELECT MAX(ch.version) FROM ContainerChange ch WHERE ch.containerId = c.containerId AND ch.changedDateTime < :cutoff) " +
+            "WHERE c.containerId IN (SELECT ch2.containerId FROM ContainerChange ch2 WHERE ch2.changedDateTime < :cutoff)")
+    int raiseChangeLogFloors(@Param("cutoff") LocalDateTime cutoff);
+
+}
@@ -0,0 +1,80 @@
+package com.botofholding.api.Repository;
+
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.ContainerSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ContainerSummaryRepository extends JpaRepository<ContainerSummary, Long> {
+
+    /**
+     * Reads a container's stored summary, if it was written for the container's current version.
+     * @param id The id of the container
+     * @return The serialized summary, or empty if there is none or it is out of date
+     */
+    @Query("SELECT s.summaryJson FROM ContainerSummary s JOIN Container c ON c.containerId = s.containerId " +
+            "WHERE s.containerId = :id AND s.version = c.version")
+    Optional<String> findCurrentJsonById(@Param("id") Long id);
+
+    /**
+     * Reads the stored summary of the user's active container, if it was written for the container's current version.
+     * @param user The user whose active container to read
+     * @return The serialized summary, or empty if there is none, it is out of date or the user has no active container
+     */
+    @Query("SELECT s.summaryJson FROM BohUser u JOIN u.primaryContainer c JOIN ContainerSummary s ON s.containerId = c.containerId " +
+            "WHERE u = :user AND s.version = c.version")
+    Optional<String> findCurrentJsonForActiveContainer(@Param("user") BohUser user);
+
+    /**
+     * Replaces a stored summary, unless it already holds a newer version. Never inserts, so concurrent writers of
+     * the same container can't collide on the key; the row is created with the container or by the rebuild job.
+     * @param id The id of the container
+     * @param version The container version the summary was built from
+     * @param json The serialized summary
+     * @param refreshed When the summary was built
+     * @return 1 if the summary was replaced, 0 if there is no row or it is newer
+     */
+    @Modifying
+    @Query("UPDATE ContainerSummary s SET s.version = :version, s.summaryJson = :json, s.refreshedDateTime = :refreshed " +
+            "WHERE s.containerId = :id AND s.version <= :version")
+    int updateIfNotNewer(@Param("id") Long id, @Param("version") Long version, @Param("json") String json,
+                         @Param("refreshed") LocalDateTime refreshed);
+
+    /**
+     * Finds containers whose summary is missing, out of date, or older than the cutoff, oldest container first.
+     * @param cutoff Summaries refreshed before this are rebuilt even if their version matches
+     * @param pageable Limits how many ids are read
+     * @return The ids of the containers to rebuild
+     */
+    @Query("SELECT c.containerId FROM Container c LEFT JOIN ContainerSummary s ON s.containerId = c.containerId " +
+            "WHERE s.containerId IS NULL OR s.version <> c.version OR s.refreshedDateTime < :cutoff ORDER BY c.containerId")
+    List<Long> findContainerIdsNeedingRebuild(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Marks the summaries of an owner's containers as out of date, for changes to the owner that don't bump the
+     * containers' versions. The rows stay, so the next mutation or rebuild can replace them.
+     * @param ownerId The owner whose containers' summaries to expire
+     * @return The number of expired summaries
+     */
+    @Modifying
+    @Query("UPDATE ContainerSummary s SET s.version = -1 WHERE s.containerId IN " +
+            "(SELECT c.containerId FROM Container c WHERE c.owner.id = :ownerId)")
+    int expireByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Drops summaries whose container no longer exists, e.g. after its owner was deleted.
+     * @return The number of dropped summaries
+     */
+    @Modifying
+    @Query("DELETE FROM ContainerSummary s WHERE NOT EXISTS (SELECT c FROM Container c WHERE c.containerId = s.containerId)")
+    int deleteOrphans();
+}
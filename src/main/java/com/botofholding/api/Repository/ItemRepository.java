@@ -3,12 +3,16 @@ package com.botofholding.api.Repository;
 import com.botofholding.api.Domain.Entity.BohUser;
 import com.botofholding.api.Domain.Entity.Item;
 import com.botofholding.api.Domain.Entity.Owner;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +31,8 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      * @param pageable the pagination information
      * @return A sorted list of matching items.
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "item-query")})
     @Query("SELECT i FROM Item i JOIN i.createdBy o " +
             "WHERE LOWER(i.itemName) = LOWER(:name) " +
             "AND (o = :actor OR o = :principal OR TYPE(o) = SystemOwner) " +
@@ -36,10 +42,11 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
 
     /**
-     * Finds all items with a name starting with a given prefix (case-insensitive) that are accessible
+     * Finds all items with a name containing a given prefix (case-insensitive) that are accessible
      * within a given scope. The scope includes items owned by any of the provided owner IDs, plus any
      * globally available items owned by the SystemOwner.
-     * Results are ordered alphabetically by item name, then by owner type.
+     * Names starting with the prefix come first, so a limited page keeps the best matches for the ranking;
+     * then results are ordered alphabetically by item name, then by owner type.
      *
      * @param prefix The prefix to search for in the item name.
      * @param actor the user making the request
@@ -47,14 +54,47 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      * @param pageable the pagination information
      * @return A sorted list of matching items.
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "item-query")})
     @Query("SELECT i FROM Item i JOIN i.createdBy o " +
             "WHERE LOWER(i.itemName) LIKE CONCAT('%', LOWER(:prefix), '%') " +
             "AND (o = :actor OR o = :principal OR TYPE(o) = SystemOwner) " +
-            "ORDER BY i.itemName, " +
+            "ORDER BY CASE WHEN LOWER(i.itemName) LIKE CONCAT(LOWER(:prefix), '%') THEN 0 ELSE 1 END, " +
+            "i.itemName, " +
             "CASE WHEN TYPE(o) = BohUser THEN 1 " +
             "WHEN TYPE(o) = Guild THEN 2 ELSE 3 END")
     List<Item> findAllByNameLikeForOwners(@Param("prefix") String prefix, @Param("actor") Owner actor, @Param("principal") Owner principal, Pageable pageable);
 
+    /**
+     * One page of the items accessible within a given scope, ordered by name and id. Without a name every
+     * accessible item is listed, otherwise only those with that exact (case-insensitive) name.
+     *
+     * @param name The exact item name to search for, null for all items.
+     * @param actor the user making the request
+     * @param principal the guild the request was made in or the actor if not in a guild
+     * @param pageable the page size, the order is fixed by the query
+     * @return The first page of matching items.
+     */
+    @Query("SELECT i FROM Item i JOIN i.createdBy o " +
+            "WHERE (:name IS NULL OR LOWER(i.itemName) = LOWER(:name)) " +
+            "AND (o = :actor OR o = :principal OR TYPE(o) = SystemOwner) " +
+            "ORDER BY i.itemName, i.itemId")
+    List<Item> findPageForOwners(@Param("name") String name, @Param("actor") Owner actor, @Param("principal") Owner principal, Pageable pageable);
+
+    /**
+     * The page after a cursor of {@link #findPageForOwners}.
+     *
+     * @param lastName The name of the last item of the previous page.
+     * @param lastId The id of the last item of the previous page, breaks ties on the name.
+     */
+    @Query("SELECT i FROM Item i JOIN i.createdBy o " +
+            "WHERE (:name IS NULL OR LOWER(i.itemName) = LOWER(:name)) " +
+            "AND (o = :actor OR o = :principal OR TYPE(o) = SystemOwner) " +
+            "AND (i.itemName > :lastName OR (i.itemName = :lastName AND i.itemId > :lastId)) " +
+            "ORDER BY i.itemName, i.itemId")
+    List<Item> findPageForOwnersAfter(@Param("name") String name, @Param("actor") Owner actor, @Param("principal") Owner principal,
+                                      @Param("lastName") String lastName, @Param("lastId") Long lastId, Pageable pageable);
+
     // [FIX] Corrected parameter name from :actor to :user.
     // [IMPROVEMENT] Changed to a "starts with" search (LIKE 'prefix%') for better autocomplete performance and behavior.
     // [IMPROVEMENT] Added explicit sorting by the ContainerItem's modification date to get most-recently-used items.
@@ -69,4 +109,14 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "AND i.parent = true " +
             "ORDER BY ci.lastModifiedDateTime DESC")
     List<Item> findAllParentsFromActiveContainer(@Param("prefix") String prefix, @Param("user") BohUser user, Pageable pageable);
+
+    /**
+     * Finds items by id together with their creators, for the usage tracker, which keeps names and creators
+     * of the items it ranks.
+     *
+     * @param ids the ids of the items
+     * @return the items that still exist
+     */
+    @Query("SELECT i FROM Item i JOIN FETCH i.createdBy WHERE i.itemId IN :ids")
+    List<Item> findAllWithCreatorByIdIn(@Param("ids") Collection<Long> ids);
 }
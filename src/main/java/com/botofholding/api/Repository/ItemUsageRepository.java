@@ -0,0 +1,18 @@
+package com.botofholding.api.Repository;
+
+import com.botofholding.api.Domain.Entity.ItemUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ItemUsageRepository extends JpaRepository<ItemUsage, ItemUsage.Key> {
+
+    /**
+     * Reads the usage scores of one owner, when the tracker first needs them.
+     * @param ownerId the id of the user or guild
+     * @return the owner's scores
+     */
+    List<ItemUsage> findAllByOwnerId(Long ownerId);
+}
@@ -5,7 +5,9 @@ import com.botofholding.api.Domain.Entity.BohUser;
 import com.botofholding.api.Domain.Entity.Guild;
 import com.botofholding.api.Domain.Entity.Owner;
 import com.botofholding.api.Domain.Enum.OwnerType;
+import com.botofholding.api.Observability.RequestTimings;
 import com.botofholding.api.Repository.OwnerRepository;
+import com.botofholding.api.Service.Interfaces.ActivityTracker;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,6 +22,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -27,10 +30,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
     private final JwtService jwtService;
     private final OwnerRepository ownerRepository;
+    private final ActivityTracker activityTracker;
 
-    public JwtAuthFilter(JwtService jwtService, OwnerRepository ownerRepository) {
+    public JwtAuthFilter(JwtService jwtService, OwnerRepository ownerRepository, ActivityTracker activityTracker) {
         this.jwtService = jwtService;
         this.ownerRepository = ownerRepository;
+        this.activityTracker = activityTracker;
     }
 
     @Override
@@ -40,6 +45,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final String jwt = authHeader.substring(7);
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.AUTH)) {
+            authenticate(request, jwt);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Validates the bot token and, if it is valid, establishes the request actor and the principal
+     * from the impersonation headers.
+     */
+    private void authenticate(HttpServletRequest request, String jwt) {
         // --- The Actor (WHO is doing this?) ---
         final String actorIdHeader = request.getHeader("X-On-Behalf-Of-User-ID");
         final String actorUserNameHeader = request.getHeader("X-On-Behalf-Of-User-Name");
@@ -50,12 +74,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         final String ownerTypeHeader = request.getHeader("X-Target-Owner-Type");
         final String ownerNameHeader = request.getHeader("X-Target-Owner-Name"); // Primarily for Guild name provisioning
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        final String jwt = authHeader.substring(7);
         if (jwtService.validateToken(jwt) && "bot-service-account".equals(jwtService.getPrincipalFromToken(jwt))) {
             // Token is valid and belongs to our bot. Now, check for impersonation.
             try {
@@ -63,6 +81,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 // we attempt to provision a principal, which might trigger a database save.
                 Owner actor = findAndProvisionActor(actorIdHeader, actorUserNameHeader, globalNameHeader);
                 request.setAttribute("requestActor", actor); // Set the actor for the AuditorAware bean.
+                if (actor instanceof BohUser) {
+                    // Last seen, written behind instead of saving the user on every request.
+                    activityTracker.recordUserActivity(actor.getId(), LocalDateTime.now());
+                }
 
                 // Scenario 1: Explicit Target (e.g., acting on a Guild or another User)
                 if (targetOwnerIdHeader != null && !targetOwnerIdHeader.isBlank() && ownerTypeHeader != null && !ownerTypeHeader.isBlank()) {
@@ -89,9 +111,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 log.warn("Invalid impersonation headers provided. Reason: {}", e.getMessage());
             }
         }
-
-
-        filterChain.doFilter(request, response);
     }
 
     /**
@@ -5,6 +5,7 @@ import com.botofholding.api.Domain.Entity.Item;
 import com.botofholding.api.Domain.Entity.Owner;
 import com.botofholding.api.Domain.Entity.SystemOwner;
 import com.botofholding.api.Domain.Enum.OwnerType;
+import com.botofholding.api.Observability.RequestTimings;
 import com.botofholding.api.Repository.ContainerRepository;
 import com.botofholding.api.Repository.ItemRepository;
 import com.botofholding.api.Repository.OwnerRepository;
@@ -16,6 +17,7 @@ import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Optional;
+import java.util.Set;
 
 @Service("securityService") // The name "securityService" is used in the @PreAuthorize annotation
 public class SecurityService {
@@ -74,8 +76,35 @@ public class SecurityService {
             return false;
         }
 
-        Optional<Container> containerOpt = containerRepository.findById(containerId);
-        return validateContainerAccess(containerOpt, principal);
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.AUTHZ)) {
+            Optional<Container> containerOpt = containerRepository.findById(containerId);
+            return validateContainerAccess(containerOpt, principal);
+        }
+    }
+
+    /**
+     * Checks that the actor may change both containers of a transfer, with a single query for the two of them.
+     * The same ownership rules as {@link #canModifyContainer} apply to each container.
+     *
+     * @param sourceContainerId The ID of the container the item leaves.
+     * @param targetContainerId The ID of the container the item goes to.
+     * @param principal The authenticated principal (the context of the request).
+     * @return true if both containers exist and the actor can modify them, false otherwise.
+     */
+    @Transactional(readOnly = true)
+    public boolean canTransferBetween(Long sourceContainerId, Long targetContainerId, Owner principal) {
+        if (principal == null || sourceContainerId == null || targetContainerId == null) {
+            return false;
+        }
+        logger.info("Verifying principal {} can transfer from container {} to container {}.",
+                principal.getDisplayName(), sourceContainerId, targetContainerId);
+
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.AUTHZ)) {
+            Set<Long> containerIds = sourceContainerId.equals(targetContainerId)
+                    ? Set.of(sourceContainerId)
+                    : Set.of(sourceContainerId, targetContainerId);
+            return containerRepository.countAccessibleContainers(containerIds, getRequestActor(), principal) == containerIds.size();
+        }
     }
 
     // This method has the same potential for LazyInitializationException and also needs to be transactional.
@@ -85,25 +114,27 @@ public class SecurityService {
             return false;
         }
 
-        Optional<Item> itemOptional = itemRepository.findById(itemId);
-        if (itemOptional.isEmpty()) {
-            return false;
-        }
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.AUTHZ)) {
+            Optional<Item> itemOptional = itemRepository.findById(itemId);
+            if (itemOptional.isEmpty()) {
+                return false;
+            }
 
-        Owner systemOwner = ownerRepository.findByDiscordId(SystemOwner.SYSTEM_OWNER_DISCORD_ID).orElseGet(() -> {
-            SystemOwner so = SystemOwner.createInstance();
-            return ownerRepository.save(so);
-        });
+            Owner systemOwner = ownerRepository.findByDiscordId(SystemOwner.SYSTEM_OWNER_DISCORD_ID).orElseGet(() -> {
+                SystemOwner so = SystemOwner.createInstance();
+                return ownerRepository.save(so);
+            });
 
-        Item item = itemOptional.get();
-        Owner owner = item.getCreatedBy();
+            Item item = itemOptional.get();
+            Owner owner = item.getCreatedBy();
 
-        //Rule 1: item was created by the system
-        if (owner.getId().equals(systemOwner.getId())) {
-            return true;
-        }
+            //Rule 1: item was created by the system
+            if (owner.getId().equals(systemOwner.getId())) {
+                return true;
+            }
 
-        return validateOwnership(owner, getRequestActor(), principal);
+            return validateOwnership(owner, getRequestActor(), principal);
+        }
     }
 
     /**
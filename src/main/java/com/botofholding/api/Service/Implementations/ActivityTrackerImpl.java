@@ -0,0 +1,126 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Repository.BohUserRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Service.Interfaces.ActivityTracker;
+import com.botofholding.api.Service.Interfaces.AutocompleteCache;
+import com.botofholding.api.Utility.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Write-behind for the last-active stamps of containers ({@code Container.lastActiveDateTime}) and users
+ * ({@code BohUser.lastActive}). Recording a stamp only touches a concurrent map; the stamps are written every
+ * {@code boh.activity.flush-interval-ms}, so the database is at most that far behind.
+ * <p>
+ * Both columns are never written from the entities, so a stale copy can't roll a flushed stamp back, and the
+ * flush only ever moves a stamp forward. A stamp recorded in a transaction is only taken once it committed.
+ * Queries that order by last activity use the written stamps and accept the lag; container DTOs take a pending
+ * stamp over the loaded one. Once container stamps moved, their owners' cached container autocompletes, which are
+ * ordered by them, are dropped.
+ * <p>
+ * One flush runs at a time and writes the rows in id order, each in its own short transaction: the flush never holds
+ * more than one row lock, so it can't deadlock with the requests that lock the same rows in another order.
+ */
+@Service
+public class ActivityTrackerImpl implements ActivityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityTrackerImpl.class);
+
+    private static final BiFunction<LocalDateTime, LocalDateTime, LocalDateTime> LATEST =
+            (a, b) -> a.isAfter(b) ? a : b;
+
+    private final ContainerRepository containerRepository;
+    private final BohUserRepository bohUserRepository;
+    private final AutocompleteCache autocompleteCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Long, LocalDateTime> containerActivity = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LocalDateTime> userActivity = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ActivityTrackerImpl(ContainerRepository containerRepository, BohUserRepository bohUserRepository,
+                               AutocompleteCache autocompleteCache, PlatformTransactionManager transactionManager) {
+        this.containerRepository = containerRepository;
+        this.bohUserRepository = bohUserRepository;
+        this.autocompleteCache = autocompleteCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void recordContainerActivity(Long containerId, LocalDateTime at) {
+        AfterCommit.run(() -> containerActivity.merge(containerId, at, LATEST));
+    }
+
+    @Override
+    public void recordUserActivity(Long userId, LocalDateTime at) {
+        AfterCommit.run(() -> userActivity.merge(userId, at, LATEST));
+    }
+
+    /**
+     * The container's last-active stamp, if it is newer than what was last written.
+     */
+    @Override
+    public Optional<LocalDateTime> pendingContainerActivity(Long containerId) {
+        return Optional.ofNullable(containerActivity.get(containerId));
+    }
+
+    /**
+     * Writes all pending stamps. A stamp recorded while the flush runs stays pending for the next one.
+     * @return The number of stamps that moved.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${boh.activity.flush-interval-ms:5000}",
+            fixedDelayString = "${boh.activity.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        if (containerActivity.isEmpty() && userActivity.isEmpty()) {
+            return 0;
+        }
+        List<Long> movedContainers = flush(containerActivity, containerRepository::touchLastActive);
+        int written = movedContainers.size() + flush(userActivity, bohUserRepository::touchLastActive).size();
+        if (!movedContainers.isEmpty()) {
+            containerRepository.findOwnerIdsByIdIn(movedContainers).forEach(autocompleteCache::containersChanged);
+        }
+        logger.debug("Moved {} last-active stamp(s).", written);
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Writes the pending stamps of one table.
+     * @return The ids whose stamp moved.
+     */
+    private List<Long> flush(ConcurrentHashMap<Long, LocalDateTime> pending, BiFunction<Long, LocalDateTime, Integer> touch) {
+        List<Long> moved = new ArrayList<>();
+        List<Long> ids = pending.keySet().stream().sorted().toList();
+        for (Long id : ids) {
+            LocalDateTime at = pending.get(id);
+            if (at == null) {
+                continue;
+            }
+            Integer touched = transactionTemplate.execute(status -> touch.apply(id, at));
+            if (touched != null && touched > 0) {
+                moved.add(id);
+            }
+            // Only drop the stamp if it didn't move on meanwhile.
+            pending.remove(id, at);
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,206 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
+import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.Service.Interfaces.AutocompleteCache;
+import com.botofholding.api.Utility.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Remembers autocomplete results between keystrokes. Results are keyed by the query, its scope and the lower-cased
+ * prefix, in a bounded store that drops the least recently used entry first. A longer prefix is answered by
+ * filtering the result of a shorter one, as long as that result was complete (below the 25 row limit of every
+ * autocomplete query).
+ * <p>
+ * Nothing is evicted on writes; the scopes carry what the results depend on, so a write just moves lookups to new
+ * keys:
+ * <ul>
+ *     <li>Items in the active container: the container's id and version, which every item change and activation
+ *     bumps.</li>
+ *     <li>Containers: a generation per owner, moved by creating, deleting or activating one of its containers, and
+ *     again once the activation's last-active stamp is written, since that orders the results.</li>
+ *     <li>Items: a catalog generation, moved by catalog syncs.</li>
+ * </ul>
+ * Generations move once the writing transaction committed, so a lookup racing the write can't store the old rows
+ * under the new generation. Entries also expire after {@code boh.autocomplete.cache.ttl-seconds}, for changes made
+ * around the API.
+ * <p>
+ * Every lookup is counted in {@code boh.autocomplete.cache}, tagged with the query and whether it was a {@code hit},
+ * {@code derived} from a shorter prefix or a {@code miss}.
+ */
+@Service
+public class AutocompleteCacheImpl implements AutocompleteCache {
+
+    private static final String METRIC = "boh.autocomplete.cache";
+
+    /** The row limit of every autocomplete query; a result with fewer rows holds every match. */
+    private static final int RESULT_LIMIT = 25;
+
+    private static final BiPredicate<String, String> CONTAINS = String::contains;
+    private static final BiPredicate<String, String> STARTS_WITH = String::startsWith;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final MeterRegistry meterRegistry;
+    // Access order, so the eldest entry is the least recently used one. Guarded by itself.
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<Long, Long> containerGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AutocompleteCacheImpl(@Value("${boh.autocomplete.cache.max-entries:10000}") int maxEntries,
+                                 @Value("${boh.autocomplete.cache.ttl-seconds:300}") long ttlSeconds,
+                                 MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Items whose name contains the prefix, visible to the actor and principal. The rows are whatever the loader
+     * returns, so the caller can keep more than the response needs (the ranking does).
+     * @param label The item name of a row, matched when filtering for a longer prefix.
+     * @param loader Runs the query for a lower-cased prefix.
+     */
+    @Override
+    public <T> List<T> items(Owner actor, Owner principal, String prefix, Function<T, String> label,
+                             Function<String, List<T>> loader) {
+        return lookup("item-autocomplete", Arrays.asList(actor.getId(), principal.getId(), catalogGeneration.get()),
+                prefix, CONTAINS, label, loader);
+    }
+
+    /**
+     * Containers of the actor or principal whose name starts with the prefix.
+     * @param loader Runs the query for a lower-cased prefix.
+     */
+    @Override
+    public List<AutoCompleteDto> containers(Owner actor, Owner principal, String prefix, Function<String, List<AutoCompleteDto>> loader) {
+        return lookup("container-autocomplete", Arrays.asList(actor.getId(), principal.getId(),
+                        containerGenerations.getOrDefault(actor.getId(), 0L),
+                        containerGenerations.getOrDefault(principal.getId(), 0L)),
+                prefix, STARTS_WITH, AutoCompleteDto::getLabel, loader);
+    }
+
+    /**
+     * Items in the user's active container whose path contains the prefix.
+     * @param activeContainer The id and version of the active container, null if the user has none.
+     * @param parentsOnly Whether only items that can hold other items are looked up.
+     * @param loader Runs the query for a lower-cased prefix.
+     */
+    @Override
+    public List<AutoCompleteDto> containerItems(Long userId, ContainerVersionProjection activeContainer, boolean parentsOnly,
+                                                String prefix, Function<String, List<AutoCompleteDto>> loader) {
+        return lookup(parentsOnly ? "parent-item-autocomplete" : "container-item-autocomplete",
+                Arrays.asList(userId,
+                        activeContainer == null ? null : activeContainer.getContainerId(),
+                        activeContainer == null ? null : activeContainer.getVersion()),
+                prefix, CONTAINS, AutoCompleteDto::getLabel, loader);
+    }
+
+    /**
+     * A container of the owner was created, deleted or activated, or its last-active stamp was written. Takes effect
+     * once the current transaction, if any, commits.
+     */
+    @Override
+    public void containersChanged(Long ownerId) {
+        AfterCommit.run(() -> containerGenerations.merge(ownerId, 1L, Long::sum));
+    }
+
+    /**
+     * The item catalog was rewritten. Takes effect once the current transaction, if any, commits.
+     */
+    @Override
+    public void catalogChanged() {
+        AfterCommit.run(catalogGeneration::incrementAndGet);
+    }
+
+    // Each query stores one row type, so the rows of its entries are what its loader returns.
+    @SuppressWarnings("unchecked")
+    private <T> List<T> lookup(String query, List<?> scope, String prefix, BiPredicate<String, String> match,
+                               Function<T, String> label, Function<String, List<T>> loader) {
+        String normalized = prefix.toLowerCase(Locale.ROOT);
+        long now = System.nanoTime();
+        List<T> derived = null;
+        synchronized (entries) {
+            Entry exact = live(new Key(query, scope, normalized), now);
+            if (exact != null) {
+                counter(query, "hit").increment();
+                return (List<T>) exact.results();
+            }
+            if (derivable(normalized)) {
+                for (int length = normalized.length() - 1; length >= 0 && derived == null; length--) {
+                    Entry shorter = live(new Key(query, scope, normalized.substring(0, length)), now);
+                    if (shorter != null && shorter.results().size() < RESULT_LIMIT) {
+                        derived = ((List<T>) shorter.results()).stream()
+                                .filter(row -> match.test(label.apply(row).toLowerCase(Locale.ROOT), normalized))
+                                .toList();
+                    }
+                }
+            }
+        }
+        List<T> results;
+        if (derived != null) {
+            counter(query, "derived").increment();
+            results = derived;
+        } else {
+            counter(query, "miss").increment();
+            results = List.copyOf(loader.apply(normalized));
+        }
+        synchronized (entries) {
+            entries.put(new Key(query, scope, normalized), new Entry(results, now));
+            if (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Whether filtering labels in memory matches exactly what the query would. LIKE wildcards in the prefix don't
+     * filter the same way, neither do spaces at its ends, which the trimmed labels may have lost.
+     */
+    private boolean derivable(String normalized) {
+        return normalized.equals(normalized.strip())
+                && normalized.chars().noneMatch(c -> c == '%' || c == '_' || c == '[');
+    }
+
+    private Entry live(Key key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.storedNanos() > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private Counter counter(String query, String outcome) {
+        return counters.computeIfAbsent(query + '|' + outcome, ignored -> Counter.builder(METRIC)
+                .description("Autocomplete lookups answered from the cache, derived from a shorter prefix, or queried")
+                .tag("query", query)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private record Key(String query, List<?> scope, String prefix) {
+    }
+
+    private record Entry(List<?> results, long storedNanos) {
+    }
+}
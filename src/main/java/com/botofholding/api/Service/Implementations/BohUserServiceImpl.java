@@ -7,11 +7,14 @@ import com.botofholding.api.ExceptionHandling.ResourceNotFoundException;
 import com.botofholding.api.Mapper.BohUserMapper;
 import com.botofholding.api.Repository.BohUserRepository;
 import com.botofholding.api.Service.Interfaces.BohUserService;
+import com.botofholding.api.Service.Interfaces.ContainerSummaryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Objects;
+
 @Service
 public class BohUserServiceImpl implements BohUserService {
 
@@ -19,18 +22,26 @@ public class BohUserServiceImpl implements BohUserService {
 
     private final BohUserRepository userRepository;
     private final BohUserMapper bohUserMapper;
+    private final ContainerSummaryService containerSummaryService;
 
-    public BohUserServiceImpl(BohUserRepository userRepository, BohUserMapper bohUserMapper) {
+    public BohUserServiceImpl(BohUserRepository userRepository, BohUserMapper bohUserMapper,
+                              ContainerSummaryService containerSummaryService) {
         this.userRepository = userRepository;
         this.bohUserMapper = bohUserMapper;
+        this.containerSummaryService = containerSummaryService;
     }
 
     @Override
     @Transactional
     public BohUserSummaryDto updateUserProfile(BohUser userToUpdate, BohUserRequestDto dto) {
         logger.debug("Updating profile for user: {}", userToUpdate.getDisplayName());
+        String previousDisplayName = userToUpdate.getDisplayName();
         bohUserMapper.updateEntityFromUpdateRequest(dto, userToUpdate);
         BohUser savedUser = userRepository.save(userToUpdate);
+        if (!Objects.equals(previousDisplayName, savedUser.getDisplayName())) {
+            // The display name is part of every stored container summary but bumps no container version.
+            containerSummaryService.expireSummariesForOwner(savedUser.getId());
+        }
         return bohUserMapper.toSummaryDto(savedUser);
     }
 
@@ -0,0 +1,156 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerChangesDto;
+import com.botofholding.api.Domain.Entity.Container;
+import com.botofholding.api.Domain.Entity.ContainerChange;
+import com.botofholding.api.Domain.Event.ContainerChangedEvent;
+import com.botofholding.api.ExceptionHandling.ContainerNotFoundException;
+import com.botofholding.api.Mapper.ContainerChangeMapper;
+import com.botofholding.api.Repository.ContainerChangeRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Service.Interfaces.ContainerChangeService;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ContainerChangeServiceImpl implements ContainerChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerChangeServiceImpl.class);
+
+    private final ContainerChangeRepository containerChangeRepository;
+    private final ContainerRepository containerRepository;
+    private final ContainerChangeMapper containerChangeMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long retentionHours;
+    private final int maxFeedSize;
+
+    @Autowired
+    public ContainerChangeServiceImpl(ContainerChangeRepository containerChangeRepository,
+                                      ContainerRepository containerRepository,
+                                      ContainerChangeMapper containerChangeMapper,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${boh.changes.retention-hours:168}") long retentionHours,
+                                      @Value("${boh.changes.max-feed-size:500}") int maxFeedSize) {
+        this.containerChangeRepository = containerChangeRepository;
+        this.containerRepository = containerRepository;
+        this.containerChangeMapper = containerChangeMapper;
+        this.eventPublisher = eventPublisher;
+        this.retentionHours = retentionHours;
+        this.maxFeedSize = maxFeedSize;
+    }
+
+    /**
+     * Writes a mutation's changes to the container's log and announces them to stream subscribers. Joins the caller's
+     * transaction, so the entries commit or roll back together with the mutation, and subscribers only hear of them
+     * after the commit.
+     * @param container The changed container, its version already bumped for this mutation.
+     * @param changes The changes, as created by {@link ContainerChange#of}.
+     */
+    @Override
+    @Transactional
+    public void recordChanges(Container container, List<ContainerChange> changes) {
+        recordChanges(container.getContainerId(), container.getVersion(), changes);
+    }
+
+    /**
+     * Same as {@link #recordChanges(Container, List)}, for mutations that changed the container's rows with
+     * bulk updates and never loaded the container itself.
+     * @param containerId The changed container.
+     * @param version The version the mutation produced.
+     * @param changes The changes, as created by {@link ContainerChange#of}.
+     */
+    @Override
+    @Transactional
+    public void recordChanges(Long containerId, Long version, List<ContainerChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ContainerChange change : changes) {
+            change.setContainerId(containerId);
+            change.setVersion(version);
+            change.setChangedDateTime(now);
+        }
+        containerChangeRepository.saveAll(changes);
+        eventPublisher.publishEvent(ContainerChangedEvent.changed(containerId, version, containerChangeMapper.toDtoList(changes)));
+    }
+
+    /**
+     * Finds the changes of a container after the given version.
+     * The current version is read first and bounds the entries, the floor is read last: compaction raises the floor
+     * and deletes entries in one transaction, so if any entry we needed was gone, the floor we read shows it.
+     * @param containerId The container to read the log of.
+     * @param since The version the client already has.
+     * @return The changes (oldest first) and the version they bring the client to, or a reset marker.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ContainerChangesDto findChangesSince(@NotNull @Min(1) Long containerId, @NotNull @Min(0) Long since) {
+        Long version = containerRepository.findVersionById(containerId)
+                .orElseThrow(() -> new ContainerNotFoundException("Container with id " + containerId + " not found."));
+        if (since > version) {
+            logger.warn("Client asked for changes of container {} since version {}, but it is only at {}.", containerId, since, version);
+            return reset(containerId, version);
+        }
+
+        List<ContainerChange> changes = since.equals(version)
+                ? List.of()
+                : containerChangeRepository.findChangesInRange(containerId, since, version, PageRequest.of(0, maxFeedSize + 1));
+        if (changes.size() > maxFeedSize) {
+            logger.info("More than {} changes in container {} since version {}, asking the client to reload.", maxFeedSize, containerId, since);
+            return reset(containerId, version);
+        }
+
+        long floor = containerRepository.findChangeLogFloorById(containerId).orElse(0L);
+        if (floor > since) {
+            logger.info("Changes of container {} since version {} were compacted (floor {}), asking the client to reload.", containerId, since, floor);
+            return reset(containerId, version);
+        }
+        return new ContainerChangesDto(containerId, version, false, containerChangeMapper.toDtoList(changes));
+    }
+
+    /**
+     * Removes log entries older than the retention period, raising the affected containers' floors first.
+     * @return The number of removed entries.
+     */
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${boh.changes.compaction-interval-ms:3600000}",
+            fixedDelayString = "${boh.changes.compaction-interval-ms:3600000}")
+    public int compactChangeLog() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int containers = containerRepository.raiseChangeLogFloors(cutoff);
+        int removed = containerChangeRepository.deleteChangesBefore(cutoff);
+        if (removed > 0) {
+            logger.info("Compacted the container change log: removed {} entries from {} containers.", removed, containers);
+        }
+        return removed;
+    }
+
+    /**
+     * Deletes a container's whole log and, once that commits, closes the container's streams.
+     * @param containerId The container being deleted.
+     */
+    @Override
+    @Transactional
+    public void deleteChangeLog(Long containerId) {
+        containerChangeRepository.deleteByContainerId(containerId);
+        eventPublisher.publishEvent(ContainerChangedEvent.deleted(containerId));
+    }
+
+    private ContainerChangesDto reset(Long containerId, Long version) {
+        return new ContainerChangesDto(containerId, version, true, List.of());
+    }
+}
@@ -0,0 +1,86 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.ExceptionHandling.AmbiguousResourceException;
+import com.botofholding.api.ExceptionHandling.DomainException;
+import com.botofholding.api.ExceptionHandling.ItemNotFoundException;
+import com.botofholding.api.ExceptionHandling.ValidationException;
+
+/**
+ * The outcome of looking up a ContainerItem inside a loaded container, without throwing.
+ * Callers that must fail use {@link #orElseThrow()}; callers that can fall back (e.g. an optional parent)
+ * just inspect the outcome and message.
+ */
+final class ContainerItemLookup {
+
+    enum Outcome { FOUND, NOT_FOUND, AMBIGUOUS, INVALID }
+
+    private final Outcome outcome;
+    private final ContainerItem item;
+    private final String message;
+
+    private ContainerItemLookup(Outcome outcome, ContainerItem item, String message) {
+        this.outcome = outcome;
+        this.item = item;
+        this.message = message;
+    }
+
+    static ContainerItemLookup found(ContainerItem item) {
+        return new ContainerItemLookup(Outcome.FOUND, item, null);
+    }
+
+    static ContainerItemLookup notFound(String message) {
+        return new ContainerItemLookup(Outcome.NOT_FOUND, null, message);
+    }
+
+    static ContainerItemLookup ambiguous(String message) {
+        return new ContainerItemLookup(Outcome.AMBIGUOUS, null, message);
+    }
+
+    static ContainerItemLookup invalid(String message) {
+        return new ContainerItemLookup(Outcome.INVALID, null, message);
+    }
+
+    boolean isFound() {
+        return outcome == Outcome.FOUND;
+    }
+
+    Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The found item, or null if the lookup failed.
+     */
+    ContainerItem getItem() {
+        return item;
+    }
+
+    /**
+     * @return Why the lookup failed, or null if it succeeded.
+     */
+    String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return The found item.
+     * @throws ItemNotFoundException if no item matched.
+     * @throws AmbiguousResourceException if several items matched.
+     * @throws ValidationException if the lookup itself was invalid.
+     */
+    ContainerItem orElseThrow() {
+        if (outcome == Outcome.FOUND) {
+            return item;
+        }
+        throw toException();
+    }
+
+    private DomainException toException() {
+        return switch (outcome) {
+            case NOT_FOUND -> new ItemNotFoundException(message);
+            case AMBIGUOUS -> new AmbiguousResourceException(message);
+            default -> new ValidationException(message);
+        };
+    }
+}
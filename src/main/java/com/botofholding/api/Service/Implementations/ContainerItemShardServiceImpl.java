@@ -0,0 +1,179 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.Entity.ContainerChange;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.Domain.Entity.ContainerItemShard;
+import com.botofholding.api.Domain.Entity.Item;
+import com.botofholding.api.Domain.Enum.ContainerChangeType;
+import com.botofholding.api.ExceptionHandling.ValidationException;
+import com.botofholding.api.Repository.ContainerItemRepository;
+import com.botofholding.api.Repository.ContainerItemShardRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Service.Interfaces.ContainerChangeService;
+import com.botofholding.api.Service.Interfaces.ContainerItemShardService;
+import com.botofholding.api.Utility.Rollup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sharded quantity counters for stacks that many users change at the same time, like a guild's gold or arrows.
+ * A flagged stack gets a fixed number of shard rows; each quantity change adds its delta to a random shard and
+ * writes nothing else, so concurrent writers mostly lock different rows. The stack's quantity is its row plus the sum
+ * of its shards, summed when the stack is read (see {@link ContainerItem#getQuantity()}).
+ * <p>
+ * The weight and value totals of the stack, its ancestors and its container only take the shards in when they are
+ * folded back into the stack's row: periodically, driven by the mutation queue so a fold takes its turn with the
+ * container's other mutations, and whenever the stack is resharded. A fold locks all shards of the stack, so a
+ * change arriving meanwhile waits for it instead of getting lost.
+ */
+@Service
+public class ContainerItemShardServiceImpl implements ContainerItemShardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerItemShardServiceImpl.class);
+
+    private final ContainerItemShardRepository containerItemShardRepository;
+    private final ContainerItemRepository containerItemRepository;
+    private final ContainerRepository containerRepository;
+    private final ContainerChangeService containerChangeService;
+    private final int maxShards;
+    private final int consolidateBatchSize;
+
+    @Autowired
+    public ContainerItemShardServiceImpl(ContainerItemShardRepository containerItemShardRepository,
+                                         ContainerItemRepository containerItemRepository,
+                                         ContainerRepository containerRepository,
+                                         ContainerChangeService containerChangeService,
+                                         @Value("${boh.shards.max-count:16}") int maxShards,
+                                         @Value("${boh.shards.consolidate-batch-size:100}") int consolidateBatchSize) {
+        this.containerItemShardRepository = containerItemShardRepository;
+        this.containerItemRepository = containerItemRepository;
+        this.containerRepository = containerRepository;
+        this.containerChangeService = containerChangeService;
+        this.maxShards = maxShards;
+        this.consolidateBatchSize = consolidateBatchSize;
+    }
+
+    /**
+     * Adds a quantity delta to a random shard of a sharded stack, and mirrors it on the loaded stack.
+     * Joins the caller's transaction. Any guard against emptying the stack is up to the caller, since no single
+     * shard knows the stack's quantity.
+     * @param stack The sharded stack.
+     * @param delta The quantity to add, may be negative.
+     * @throws ValidationException if the stack was resharded since it was loaded.
+     */
+    @Override
+    @Transactional
+    public void addToShard(ContainerItem stack, int delta) {
+        int shardNo = ThreadLocalRandom.current().nextInt(stack.getShardCount());
+        if (containerItemShardRepository.addToShard(stack.getContainerItemId(), shardNo, delta) == 0) {
+            throw new ValidationException("'" + stack.getItem().getItemName() + "' was changed by another request, please try again.");
+        }
+        stack.setShardedQuantity(stack.getShardedQuantity() + delta);
+    }
+
+    /**
+     * Gives a stack a new number of shards, folding whatever its current shards hold into its row first.
+     * Joins the caller's transaction and clears its persistence context, so the caller has to reload the container.
+     * @param stack The stack, a stackable item, with its ancestors loaded.
+     * @param shardCount The new number of shards, 0 to turn the stack back into a plain one.
+     * @return The folded quantity. If it isn't 0 the totals changed, and the caller has to bump the container's version.
+     * @throws ValidationException if the number of shards is out of range.
+     */
+    @Override
+    @Transactional
+    public int reshard(ContainerItem stack, int shardCount) {
+        if (shardCount < 0 || shardCount > maxShards) {
+            throw new ValidationException("The number of shards must be between 0 and " + maxShards + ".");
+        }
+        Long id = stack.getContainerItemId();
+        Item item = stack.getItem();
+        int folded = fold(stack, shardCount == 0 ? null : shardCount);
+        containerItemShardRepository.deleteShards(id);
+        List<ContainerItemShard> shards = new ArrayList<>(shardCount);
+        for (int shardNo = 0; shardNo < shardCount; shardNo++) {
+            shards.add(new ContainerItemShard(id, shardNo));
+        }
+        containerItemShardRepository.saveAll(shards);
+        logger.info("Stack {} of '{}' now has {} shard(s), folded {} into its row.", id, item.getItemName(), shardCount, folded);
+        return folded;
+    }
+
+    /**
+     * Finds a batch of containers holding stacks whose shards hold something to fold.
+     * @return The ids of the containers.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findContainerIdsToFold() {
+        return containerItemShardRepository.findContainerIdsToFold(PageRequest.of(0, consolidateBatchSize));
+    }
+
+    /**
+     * Folds the shards of a container's stacks into the stacks' rows and the totals above them. The quantities as
+     * read stay the same but the totals don't, so the container gets a new version and an update of each folded
+     * stack is logged for the clients following it. The caller keeps the container's other mutations out meanwhile,
+     * since a move or drop works from the totals it loaded.
+     * @param containerId The container to fold the stacks of.
+     * @return The number of folded stacks.
+     */
+    @Override
+    @Transactional
+    public int consolidateShards(Long containerId) {
+        List<ContainerChange> changes = new ArrayList<>();
+        for (Long id : containerItemShardRepository.findContainerItemIdsToFold(containerId)) {
+            Optional<ContainerItem> stack = containerItemRepository.findById(id);
+            if (stack.isEmpty() || !stack.get().isSharded()) {
+                continue;
+            }
+            // Captured before the fold detaches the stack; its quantity as read doesn't change.
+            changes.add(ContainerChange.of(ContainerChangeType.UPDATE, stack.get()));
+            fold(stack.get(), stack.get().getShardCount());
+            containerItemShardRepository.clearShards(id);
+        }
+        if (!changes.isEmpty()) {
+            containerRepository.incrementVersion(containerId);
+            containerRepository.findVersionById(containerId)
+                    .ifPresent(version -> containerChangeService.recordChanges(containerId, version, changes));
+            logger.info("Folded the shards of {} stack(s) of container {}.", changes.size(), containerId);
+        }
+        return changes.size();
+    }
+
+    /**
+     * Locks a stack's shards and adds their sum to the stack's row, and its weight and value to the totals of the
+     * stack's ancestors and container. The caller empties or deletes the shards in the same transaction.
+     * Clears the persistence context.
+     * @return The folded quantity.
+     */
+    private int fold(ContainerItem stack, Integer shardCount) {
+        Long id = stack.getContainerItemId();
+        // Walk up before the bulk updates clear the context.
+        List<Long> ancestorIds = new ArrayList<>();
+        for (ContainerItem ci = stack.getParent(); ci != null; ci = ci.getParent()) {
+            ancestorIds.add(ci.getContainerItemId());
+        }
+        Long containerId = stack.getContainer().getContainerId();
+        int delta = containerItemShardRepository.findAllForFold(id).stream()
+                .mapToInt(ContainerItemShard::getQuantityDelta)
+                .sum();
+        Rollup rollup = delta == 0 ? Rollup.ZERO : Rollup.of(stack.getItem(), delta);
+        if (!rollup.isZero()) {
+            if (!ancestorIds.isEmpty()) {
+                containerItemRepository.addToTotals(ancestorIds, rollup.weight(), rollup.value());
+            }
+            containerRepository.addToTotals(containerId, rollup.weight(), rollup.value());
+        }
+        containerItemRepository.foldShards(id, delta, rollup.weight(), rollup.value(), shardCount);
+        return delta;
+    }
+}
@@ -0,0 +1,367 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.DTO.Request.AddItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.BatchOperationDto;
+import com.botofholding.api.Domain.DTO.Request.BatchRequestDto;
+import com.botofholding.api.Domain.DTO.Request.DropItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.ModifyItemRequestDto;
+import com.botofholding.api.Domain.DTO.Response.BatchOperationResultDto;
+import com.botofholding.api.Domain.DTO.Response.BatchResultDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ServiceResponse;
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.Domain.Enum.BatchOperationType;
+import com.botofholding.api.ExceptionHandling.ContainerBusyException;
+import com.botofholding.api.Service.Interfaces.ContainerItemShardService;
+import com.botofholding.api.Service.Interfaces.ContainerMutationQueue;
+import com.botofholding.api.Service.Interfaces.ContainerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the item mutations of the active container per container, and merges mutations that queue up behind
+ * each other into one container load and flush.
+ * <p>
+ * Containers are spread over a fixed number of stripes, each a lock plus a queue of pending mutations. A request
+ * queues its mutation, then waits for the stripe's lock. The thread holding the lock applies its own mutation
+ * together with every queued one for the same container, actor and principal (a double-clicked button, say) as
+ * one batch, and hands each request its own message. If the merged batch fails, the mutations are applied one
+ * by one, so a failing request never takes the others down with it. Mutations of different containers only wait
+ * for each other when they share a stripe.
+ * <p>
+ * Merged runs of plain quantity changes ("+1 arrow", "-1 ration") skip the batch and write each stack once with
+ * its net delta. To catch such a burst even when its requests don't overlap, a request whose container and user
+ * just had a mutation applied waits a few milliseconds for the rest of the burst to queue up before it asks for the
+ * lock, so the wait never holds up other containers on the stripe.
+ * <p>
+ * Requests wait outside of any transaction, so a queue never holds database connections. A request that can't
+ * get its turn within the timeout gives up with a {@link ContainerBusyException}.
+ * <p>
+ * Folding the shards of sharded stacks into the totals takes a turn on the container's stripe as well, both the
+ * periodic fold and a reshard, since moves and drops work from the totals they loaded.
+ */
+@Service
+public class ContainerMutationQueueImpl implements ContainerMutationQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerMutationQueueImpl.class);
+
+    private final ContainerService containerService;
+    private final ContainerItemShardService containerItemShardService;
+    private final Stripe[] stripes;
+    private final long waitTimeoutNanos;
+    private final int maxCoalesced;
+    private final long lingerNanos;
+    private final long hotWindowNanos;
+
+    @Autowired
+    public ContainerMutationQueueImpl(ContainerService containerService,
+                                      ContainerItemShardService containerItemShardService,
+                                      @Value("${boh.mutations.stripes:64}") int stripeCount,
+                                      @Value("${boh.mutations.fair:true}") boolean fair,
+                                      @Value("${boh.mutations.wait-timeout-ms:5000}") long waitTimeoutMs,
+                                      @Value("${boh.mutations.max-coalesced:25}") int maxCoalesced,
+                                      @Value("${boh.mutations.linger-ms:10}") long lingerMs,
+                                      @Value("${boh.mutations.hot-window-ms:2000}") long hotWindowMs) {
+        this.containerService = containerService;
+        this.containerItemShardService = containerItemShardService;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(fair);
+        }
+        this.waitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        this.maxCoalesced = maxCoalesced;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.hotWindowNanos = TimeUnit.MILLISECONDS.toNanos(hotWindowMs);
+    }
+
+    @Override
+    public ServiceResponse<ContainerSummaryDto> addItem(AddItemRequestDto addDto, Owner actor, Owner principal) {
+        BatchOperationDto operation = new BatchOperationDto();
+        operation.setType(BatchOperationType.ADD);
+        operation.setAdd(addDto);
+        return submit(operation, actor, principal,
+                () -> containerService.addItemToActiveContainer(addDto, actor, principal));
+    }
+
+    @Override
+    public ServiceResponse<ContainerSummaryDto> dropItem(Long id, String name, Integer quantity, Boolean dropChildren, Owner actor, Owner principal) {
+        DropItemRequestDto dropDto = new DropItemRequestDto();
+        dropDto.setContainerItemId(id);
+        dropDto.setContainerItemName(name);
+        dropDto.setQuantity(quantity);
+        dropDto.setDropChildren(dropChildren);
+        BatchOperationDto operation = new BatchOperationDto();
+        operation.setType(BatchOperationType.DROP);
+        operation.setDrop(dropDto);
+        return submit(operation, actor, principal,
+                () -> containerService.dropItemFromActiveContainer(id, name, quantity, dropChildren, actor));
+    }
+
+    @Override
+    public ServiceResponse<ContainerSummaryDto> modifyItem(ModifyItemRequestDto modifyDto, Owner actor, Owner principal) {
+        BatchOperationDto operation = new BatchOperationDto();
+        operation.setType(BatchOperationType.MODIFY);
+        operation.setModify(modifyDto);
+        return submit(operation, actor, principal,
+                () -> containerService.modifyItemInActiveContainer(modifyDto, actor));
+    }
+
+    @Override
+    public ServiceResponse<ContainerSummaryDto> shardItem(Long containerItemId, int shardCount, Owner actor) {
+        if (!(actor instanceof BohUser)) {
+            // Refused by the service with the usual message.
+            return containerService.shardItemInActiveContainer(containerItemId, shardCount, actor);
+        }
+        Long containerId = containerService.findActiveContainerVersionForUser(actor).getContainerId();
+        return runExclusive(containerId, () -> containerService.shardItemInActiveContainer(containerItemId, shardCount, actor))
+                .orElseThrow(() -> new ContainerBusyException("The container is busy with other changes, please try again."));
+    }
+
+    /**
+     * Folds the shards of a batch of containers' sharded stacks into the totals, each in its container's turn.
+     * A container that stays busy past the timeout is left for the next run.
+     * @return The number of folded stacks.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${boh.shards.consolidate-interval-ms:60000}",
+            fixedDelayString = "${boh.shards.consolidate-interval-ms:60000}")
+    public int consolidateShards() {
+        int consolidated = 0;
+        for (Long containerId : containerItemShardService.findContainerIdsToFold()) {
+            consolidated += runExclusive(containerId, () -> containerItemShardService.consolidateShards(containerId)).orElse(0);
+        }
+        return consolidated;
+    }
+
+    /**
+     * Runs something other than a queued mutation on a container while holding its stripe's lock, so no mutation of
+     * the container is applied meanwhile.
+     * @return What the action returned, or empty if the lock didn't come free within the timeout.
+     */
+    private <T> Optional<T> runExclusive(Long containerId, Supplier<T> action) {
+        Stripe stripe = stripeOf(containerId);
+        try {
+            if (!stripe.lock.tryLock(waitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return Optional.empty();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(action.get());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a mutation on the actor's active container and waits until it was applied, applying it (and whatever
+     * queued up behind it) itself once it holds the stripe's lock.
+     * @param operation The mutation in its batch form, used when it is merged with others.
+     * @param actor The user whose active container is changed.
+     * @param principal The guild the request came from, or the actor.
+     * @param alone Applies the mutation on its own.
+     * @return The container after the mutation, with the mutation's own message.
+     * @throws ContainerBusyException if the mutation didn't get its turn within the timeout.
+     */
+    private ServiceResponse<ContainerSummaryDto> submit(BatchOperationDto operation, Owner actor, Owner principal,
+                                                        Supplier<ServiceResponse<ContainerSummaryDto>> alone) {
+        if (!(actor instanceof BohUser)) {
+            // Refused by the service with the usual message.
+            return alone.get();
+        }
+        // Only the key for the queue: which container the mutation applies to is decided again once it runs.
+        Long containerId = containerService.findActiveContainerVersionForUser(actor).getContainerId();
+        PendingMutation mutation = new PendingMutation(new GroupKey(containerId, actor.getId(), principal.getId()),
+                operation, actor, principal, alone);
+        Stripe stripe = stripeOf(containerId);
+
+        stripe.pending.add(mutation);
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        if (lingerNanos > 0 && isQuantityChange(mutation.operation) && stripe.isHot(mutation.key, hotWindowNanos)) {
+            // A burst on this container is going on: let the rest of it queue up behind us.
+            LockSupport.parkNanos(lingerNanos);
+        }
+        try {
+            while (!mutation.result.isDone()) {
+                if (!stripe.lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    giveUp(stripe, mutation);
+                    break;
+                }
+                try {
+                    if (!mutation.result.isDone()) {
+                        applyNextGroup(stripe, mutation.key);
+                        stripe.applied(mutation.key);
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveUp(stripe, mutation);
+        }
+        return await(mutation);
+    }
+
+    private Stripe stripeOf(Long containerId) {
+        return stripes[Math.floorMod(Long.hashCode(containerId), stripes.length)];
+    }
+
+    /**
+     * Takes a mutation that ran out of time off the queue. If a running group already took it, its result is
+     * moments away and the caller waits for it instead.
+     */
+    private void giveUp(Stripe stripe, PendingMutation mutation) {
+        if (stripe.pending.remove(mutation)) {
+            mutation.result.completeExceptionally(new ContainerBusyException(
+                    "The container is busy with other changes, please try again."));
+        }
+    }
+
+    /**
+     * Takes the queued mutations with the given key, oldest first, and applies them. Must hold the stripe's lock.
+     * @param stripe The stripe to take the mutations from.
+     * @param key The container, actor and principal of the mutations to take.
+     */
+    private void applyNextGroup(Stripe stripe, GroupKey key) {
+        List<PendingMutation> group = new ArrayList<>();
+        for (PendingMutation pending : stripe.pending) {
+            if (group.size() == maxCoalesced) {
+                break;
+            }
+            // remove() claims the mutation: it fails if its request just gave up waiting.
+            if (pending.key.equals(key) && stripe.pending.remove(pending)) {
+                group.add(pending);
+            }
+        }
+        try {
+            if (group.size() == 1) {
+                applyAlone(group.get(0));
+            } else if (!group.isEmpty()) {
+                applyMerged(group);
+            }
+        } catch (Throwable t) {
+            // An Error got through: the claimed mutations are off the queue, so fail them or their requests wait forever.
+            group.forEach(pending -> pending.result.completeExceptionally(t));
+            throw t;
+        }
+    }
+
+    private void applyMerged(List<PendingMutation> group) {
+        PendingMutation first = group.get(0);
+        List<BatchOperationDto> operations = group.stream().map(pending -> pending.operation).toList();
+        ServiceResponse<BatchResultDto> response;
+        try {
+            Optional<ServiceResponse<BatchResultDto>> deltas = operations.stream().allMatch(ContainerMutationQueueImpl::isQuantityChange)
+                    ? containerService.applyQuantityDeltasToActiveContainer(operations, first.actor)
+                    : Optional.empty();
+            if (deltas.isPresent()) {
+                response = deltas.get();
+            } else {
+                BatchRequestDto batch = new BatchRequestDto();
+                batch.setOperations(operations);
+                response = containerService.applyBatchToActiveContainer(batch, first.actor, first.principal);
+            }
+        } catch (RuntimeException ex) {
+            logger.debug("Merged {} mutations of container {} failed ({}), applying them one by one.",
+                    group.size(), first.key.containerId(), ex.getMessage());
+            group.forEach(this::applyAlone);
+            return;
+        }
+        logger.debug("Applied {} queued mutations of container {} with one load and flush.", group.size(), first.key.containerId());
+        List<BatchOperationResultDto> results = response.data().getResults();
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).result.complete(new ServiceResponse<>(response.data().getContainer(), results.get(i).getMessage()));
+        }
+    }
+
+    private void applyAlone(PendingMutation mutation) {
+        try {
+            mutation.result.complete(mutation.alone.get());
+        } catch (RuntimeException ex) {
+            mutation.result.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Whether an operation may be no more than a change of a stack's quantity, the kind that arrives in bursts.
+     * The service has the final say once it sees the container.
+     */
+    private static boolean isQuantityChange(BatchOperationDto operation) {
+        return operation.getType() == BatchOperationType.ADD || operation.getType() == BatchOperationType.DROP;
+    }
+
+    private static ServiceResponse<ContainerSummaryDto> await(PendingMutation mutation) {
+        try {
+            return mutation.result.join();
+        } catch (CompletionException e) {
+            // Rethrow what the service threw, so the exception handlers see the usual exception types.
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record GroupKey(Long containerId, Long actorId, Long principalId) {}
+
+    private static final class PendingMutation {
+        private final GroupKey key;
+        private final BatchOperationDto operation;
+        private final Owner actor;
+        private final Owner principal;
+        private final Supplier<ServiceResponse<ContainerSummaryDto>> alone;
+        private final CompletableFuture<ServiceResponse<ContainerSummaryDto>> result = new CompletableFuture<>();
+
+        private PendingMutation(GroupKey key, BatchOperationDto operation, Owner actor, Owner principal,
+                                Supplier<ServiceResponse<ContainerSummaryDto>> alone) {
+            this.key = key;
+            this.operation = operation;
+            this.actor = actor;
+            this.principal = principal;
+            this.alone = alone;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock;
+        private final ConcurrentLinkedQueue<PendingMutation> pending = new ConcurrentLinkedQueue<>();
+        // The last applied group, written while holding the lock and read before asking for it.
+        private volatile GroupKey lastKey;
+        private volatile long lastAppliedNanos;
+
+        private Stripe(boolean fair) {
+            this.lock = new ReentrantLock(fair);
+        }
+
+        private boolean isHot(GroupKey key, long windowNanos) {
+            return key.equals(lastKey) && System.nanoTime() - lastAppliedNanos < windowNanos;
+        }
+
+        private void applied(GroupKey key) {
+            lastKey = key;
+            lastAppliedNanos = System.nanoTime();
+        }
+    }
+}
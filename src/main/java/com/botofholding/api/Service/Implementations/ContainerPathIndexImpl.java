@@ -0,0 +1,237 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerChangeDto;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.Domain.Entity.Item;
+import com.botofholding.api.Domain.Enum.ContainerChangeType;
+import com.botofholding.api.Domain.Event.ContainerChangedEvent;
+import com.botofholding.api.Repository.ContainerItemRepository;
+import com.botofholding.api.Repository.ItemRepository;
+import com.botofholding.api.Service.Interfaces.ContainerPathIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * The paths of the items in recently searched containers ("Backpack > Pouch > Potion"), kept in memory so the
+ * active container item autocomplete doesn't rebuild them with a recursive query on every keystroke.
+ * <p>
+ * A container's index is loaded on its first search and then kept current from the container's change events:
+ * every change carries the item's full state, so adds, moves and updates are applied as upserts and removals as
+ * deletes, without going back to the database. The searchable rows are re-derived in memory on the next search.
+ * An index that can't be brought up to the searched version (a change missed or seen out of order, or a version
+ * bump without changes like an activation) is simply reloaded. Only {@code boh.autocomplete.index.max-containers}
+ * indexes are kept, the least recently searched one is dropped first.
+ */
+@Service
+public class ContainerPathIndexImpl implements ContainerPathIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerPathIndexImpl.class);
+
+    /** Case-insensitive first, like the SQL Server collation the recursive query sorted with. */
+    private static final Comparator<String> LABEL_ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final ContainerItemRepository containerItemRepository;
+    private final ItemRepository itemRepository;
+    private final int maxContainers;
+    // Access order, so the eldest entry is the least recently searched container. Guarded by itself.
+    private final LinkedHashMap<Long, Index> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public ContainerPathIndexImpl(ContainerItemRepository containerItemRepository, ItemRepository itemRepository,
+                                  @Value("${boh.autocomplete.index.max-containers:1000}") int maxContainers) {
+        this.containerItemRepository = containerItemRepository;
+        this.itemRepository = itemRepository;
+        this.maxContainers = maxContainers;
+    }
+
+    /**
+     * Finds the items whose full path contains the text, in path order.
+     * @param containerId The container to search.
+     * @param version The container's current version; an older index is reloaded.
+     * @param text The text to search for anywhere in the path, case-insensitive.
+     * @param parentsOnly Whether to only return items that can contain other items.
+     * @param limit The maximum number of results.
+     * @return The matching items as autocomplete DTOs, described like "[id:343] x5 A special potion".
+     */
+    @Override
+    public List<AutoCompleteDto> search(Long containerId, Long version, String text, boolean parentsOnly, int limit) {
+        Index index;
+        synchronized (indexes) {
+            index = indexes.get(containerId);
+        }
+        if (index == null || index.version() < version) {
+            index = load(containerId, version);
+        }
+        return index.search(text.toLowerCase(Locale.ROOT), parentsOnly, limit);
+    }
+
+    /**
+     * Applies a committed change to the container's index, if it has one.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContainerChanged(ContainerChangedEvent changedEvent) {
+        Index index;
+        synchronized (indexes) {
+            index = changedEvent.deleted() ? indexes.remove(changedEvent.containerId()) : indexes.get(changedEvent.containerId());
+        }
+        if (index == null || changedEvent.deleted()) {
+            return;
+        }
+        if (!index.apply(changedEvent.version(), changedEvent.changes(), this::isParent)) {
+            synchronized (indexes) {
+                indexes.remove(changedEvent.containerId(), index);
+            }
+        }
+    }
+
+    private Index load(Long containerId, Long version) {
+        // Loaded after the version was read, so the rows are at least that new; applying a change the rows
+        // already contain is harmless, every change carries the item's full state.
+        Index index = new Index(version);
+        containerItemRepository.findAllWithItemByContainerId(containerId).forEach(index::put);
+        logger.debug("Loaded the path index of container {} at version {}.", containerId, version);
+        synchronized (indexes) {
+            Index current = indexes.get(containerId);
+            if (current != null && current.version() >= version) {
+                return current;
+            }
+            indexes.put(containerId, index);
+            if (indexes.size() > maxContainers) {
+                indexes.remove(indexes.keySet().iterator().next());
+            }
+        }
+        return index;
+    }
+
+    private boolean isParent(Long itemId) {
+        // Items are in the second-level cache, this rarely reaches the database.
+        return itemRepository.findById(itemId).map(Item::isParent).orElse(false);
+    }
+
+    private record Node(Long itemId, String itemName, Long parentId, boolean parent, Integer quantity, String userNote) {
+    }
+
+    private record Row(String path, boolean parent, AutoCompleteDto dto) {
+    }
+
+    /**
+     * One container's items. Guarded by itself.
+     */
+    private static final class Index {
+
+        private final Map<Long, Node> nodes = new HashMap<>();
+        private long version;
+        /** Every reachable item by path, null until the next search after a change. */
+        private List<Row> rows;
+
+        Index(long version) {
+            this.version = version;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void put(ContainerItem containerItem) {
+            Item item = containerItem.getItem();
+            nodes.put(containerItem.getContainerItemId(), new Node(item.getItemId(), item.getItemName(),
+                    containerItem.getParent() != null ? containerItem.getParent().getContainerItemId() : null,
+                    item.isParent(), containerItem.getQuantity(), containerItem.getUserNote()));
+            rows = null;
+        }
+
+        /**
+         * @return False if the changes don't follow on from this index, which must then be reloaded.
+         */
+        synchronized boolean apply(Long changedVersion, List<ContainerChangeDto> changes, Predicate<Long> isParent) {
+            // A gap is a version bump without changes (an activation); an older version arrived out of order.
+            if (changedVersion == null || changedVersion <= version) {
+                return false;
+            }
+            for (ContainerChangeDto change : changes) {
+                if (ContainerChangeType.REMOVE.name().equals(change.getType())) {
+                    nodes.remove(change.getContainerItemId());
+                    continue;
+                }
+                Node known = nodes.get(change.getContainerItemId());
+                boolean parent = known != null && Objects.equals(known.itemId(), change.getItemId())
+                        ? known.parent()
+                        : isParent.test(change.getItemId());
+                nodes.put(change.getContainerItemId(), new Node(change.getItemId(), change.getItemName(),
+                        change.getParentId(), parent, change.getQuantity(), change.getUserNote()));
+            }
+            version = changedVersion;
+            rows = null;
+            return true;
+        }
+
+        synchronized List<AutoCompleteDto> search(String needle, boolean parentsOnly, int limit) {
+            if (rows == null) {
+                rows = buildRows();
+            }
+            // The rows are in path order, so the first matches are the result.
+            List<AutoCompleteDto> results = new ArrayList<>(Math.min(limit, rows.size()));
+            for (Row row : rows) {
+                if ((!parentsOnly || row.parent()) && row.path().contains(needle)) {
+                    results.add(row.dto());
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        }
+
+        /**
+         * Walks the tree from the root items, like the recursive query, so an item whose parent is gone isn't listed.
+         */
+        private List<Row> buildRows() {
+            Map<Long, List<Long>> childrenByParentId = new HashMap<>();
+            Deque<Long> pending = new ArrayDeque<>();
+            nodes.forEach((id, node) -> {
+                if (node.parentId() == null) {
+                    pending.add(id);
+                } else {
+                    childrenByParentId.computeIfAbsent(node.parentId(), ignored -> new ArrayList<>()).add(id);
+                }
+            });
+            Map<Long, String> pathsById = new HashMap<>(nodes.size() * 2);
+            List<Row> built = new ArrayList<>(nodes.size());
+            while (!pending.isEmpty()) {
+                Long id = pending.poll();
+                Node node = nodes.get(id);
+                String parentPath = node.parentId() == null ? null : pathsById.get(node.parentId());
+                String path = parentPath == null ? node.itemName() : parentPath + " > " + node.itemName();
+                pathsById.put(id, path);
+                built.add(new Row(path.toLowerCase(Locale.ROOT), node.parent(), new AutoCompleteDto(id, path, describe(id, node))));
+                pending.addAll(childrenByParentId.getOrDefault(id, List.of()));
+            }
+            built.sort(Comparator.comparing((Row row) -> row.dto().getLabel(), LABEL_ORDER));
+            return built;
+        }
+
+        /**
+         * Same format as the description column of the {@code ContainerItemRepository#AUTOCOMPLETE_CTE} queries.
+         */
+        private static String describe(Long id, Node node) {
+            StringBuilder description = new StringBuilder();
+            description.append("[id:").append(id).append("] ");
+            if (node.quantity() != null) {
+                description.append('x').append(node.quantity()).append(' ');
+            }
+            if (node.userNote() != null) {
+                description.append(node.userNote());
+            }
+            return description.toString();
+        }
+    }
+}
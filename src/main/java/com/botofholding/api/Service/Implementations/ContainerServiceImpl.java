@@ -1,30 +1,59 @@
 package com.botofholding.api.Service.Implementations;
 
+import com.botofholding.api.Domain.DTO.Request.ActivateContainerRequestDto;
 import com.botofholding.api.Domain.DTO.Request.AddItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.BatchOperationDto;
+import com.botofholding.api.Domain.DTO.Request.BatchRequestDto;
 import com.botofholding.api.Domain.DTO.Request.ContainerRequestDto;
+import com.botofholding.api.Domain.DTO.Request.DropItemRequestDto;
 import com.botofholding.api.Domain.DTO.Request.ModifyItemRequestDto;
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteProjection;
+import com.botofholding.api.Domain.DTO.Response.BatchOperationResultDto;
+import com.botofholding.api.Domain.DTO.Response.BatchResultDto;
+import com.botofholding.api.Domain.DTO.Response.ChildCountProjection;
+import com.botofholding.api.Domain.DTO.Response.ContainerItemSummaryDto;
 import com.botofholding.api.Domain.DTO.Response.ServiceResponse;
 import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerTransferDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
+import com.botofholding.api.Domain.DTO.Response.CursorPageDto;
 import com.botofholding.api.Domain.DTO.Response.DeletedEntityDto;
 import com.botofholding.api.Domain.Entity.*;
+import com.botofholding.api.Domain.Enum.BatchOperationType;
+import com.botofholding.api.Domain.Enum.ContainerChangeType;
+import com.botofholding.api.Domain.Enum.OwnerType;
 import com.botofholding.api.ExceptionHandling.*;
 import com.botofholding.api.Mapper.ContainerItemMapper;
 import com.botofholding.api.Mapper.ContainerMapper;
+import com.botofholding.api.Observability.RequestTimings;
 import com.botofholding.api.Repository.*;
+import com.botofholding.api.Service.Interfaces.ActivityTracker;
+import com.botofholding.api.Service.Interfaces.AutocompleteCache;
+import com.botofholding.api.Service.Interfaces.ContainerChangeService;
+import com.botofholding.api.Service.Interfaces.ContainerItemShardService;
+import com.botofholding.api.Service.Interfaces.ContainerPathIndex;
+import com.botofholding.api.Service.Interfaces.ItemUsageTracker;
 import com.botofholding.api.Service.Interfaces.ContainerService;
+import com.botofholding.api.Service.Interfaces.QueryCoalescer;
+import com.botofholding.api.Service.Interfaces.ContainerSummaryService;
+import com.botofholding.api.Utility.PageCursor;
+import com.botofholding.api.Utility.Rollup;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,6 +62,15 @@ import java.util.stream.Collectors;
 public class ContainerServiceImpl implements ContainerService {
 
     private static final Logger logger = LoggerFactory.getLogger(ContainerServiceImpl.class);
+    private static final int AUTOCOMPLETE_LIMIT = 25;
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    /**
+     * The outcome of one mutation applied to an already loaded container: the container to carry on with (a freshly
+     * loaded one if the mutation used bulk statements), the message for the caller and the change log entries to
+     * record once the container has been flushed and its version bumped.
+     */
+    private record AppliedOperation(Container container, String message, List<ContainerChange> changes) {}
 
     private final ContainerRepository containerRepository;
     private final ContainerMapper containerMapper;
@@ -41,11 +79,43 @@ public class ContainerServiceImpl implements ContainerService {
     private final ItemRepository itemRepository;
     private final ContainerItemMapper containerItemMapper;
     private final ContainerItemRepository containerItemRepository;
+    private final ContainerChangeService containerChangeService;
+    private final ContainerSummaryService containerSummaryService;
+    private final ContainerItemShardService containerItemShardService;
+    private final ActivityTracker activityTracker;
+    private final QueryCoalescer queryCoalescer;
+    private final AutocompleteCache autocompleteCache;
+    private final ContainerPathIndex containerPathIndex;
+    private final ItemUsageTracker itemUsageTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Whether the SQL Server recursive CTEs are used for item path searches. Disabled for databases without
+     * SQL Server's CTE dialect (e.g. the embedded database used by the load test).
+     */
+    @Value("${boh.jpa.native-recursive-queries:true}")
+    private boolean nativeRecursiveQueries = true;
+
+    /**
+     * Whether active container items are searched in the in-memory path index instead of the database.
+     */
+    @Value("${boh.autocomplete.index.enabled:true}")
+    private boolean pathIndexEnabled = true;
+
+    @Value("${boh.pagination.page-size:50}")
+    private int defaultPageSize = 50;
+    @Value("${boh.pagination.max-page-size:200}")
+    private int maxPageSize = 200;
 
     @Autowired
     public ContainerServiceImpl(ContainerRepository containerRepository, ContainerMapper containerMapper,
                                 OwnerRepository ownerRepository, BohUserRepository bohUserRepository,
-                                ItemRepository itemRepository, ContainerItemMapper containerItemMapper, ContainerItemRepository containerItemRepository) {
+                                ItemRepository itemRepository, ContainerItemMapper containerItemMapper, ContainerItemRepository containerItemRepository,
+                                ContainerChangeService containerChangeService, ContainerSummaryService containerSummaryService,
+                                ContainerItemShardService containerItemShardService, ActivityTracker activityTracker,
+                                QueryCoalescer queryCoalescer, AutocompleteCache autocompleteCache,
+                                ContainerPathIndex containerPathIndex, ItemUsageTracker itemUsageTracker,
+                                PlatformTransactionManager transactionManager) {
         this.containerRepository = containerRepository;
         this.containerMapper = containerMapper;
         this.ownerRepository = ownerRepository;
@@ -53,6 +123,15 @@ public class ContainerServiceImpl implements ContainerService {
         this.itemRepository = itemRepository;
         this.containerItemMapper = containerItemMapper;
         this.containerItemRepository = containerItemRepository;
+        this.containerChangeService = containerChangeService;
+        this.containerSummaryService = containerSummaryService;
+        this.containerItemShardService = containerItemShardService;
+        this.activityTracker = activityTracker;
+        this.queryCoalescer = queryCoalescer;
+        this.autocompleteCache = autocompleteCache;
+        this.containerPathIndex = containerPathIndex;
+        this.itemUsageTracker = itemUsageTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -88,62 +167,144 @@ public class ContainerServiceImpl implements ContainerService {
         }
 
         Container savedContainer = containerRepository.save(newContainer);
+        autocompleteCache.containersChanged(managedOwner.getId());
 
         ownerRepository.save(managedOwner);
         logger.info("Successfully created container '{}' for owner '{}'", savedContainer.getContainerName(), managedOwner.getDisplayName());
-        return containerMapper.toSummaryDto(savedContainer, userContext);
+        ContainerSummaryDto summaryDto = toSummaryDto(savedContainer, userContext);
+        containerSummaryService.createSummary(summaryDto);
+        return summaryDto;
     }
 
     /**
-     * Finds a container by its ID.
+     * Finds a container by its ID. Read from its stored summary when that is current; otherwise mapped from the
+     * tables without storing it, leaving the repair to the scheduled rebuild so the read takes no write locks.
      * @param id The ID of the container to find.
      * @param actor The user requesting the container.
      * @return A DTO of the found container.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public ContainerSummaryDto findContainerById(@NotNull @Min(1) Long id, Owner actor) {
         BohUser userContext = (actor instanceof BohUser) ? (BohUser) actor : null;
+        Optional<ContainerSummaryDto> stored = containerSummaryService.findCurrentSummary(id);
+        if (stored.isPresent()) {
+            ContainerSummaryDto summaryDto = stored.get();
+            Container primaryContainer = userContext != null ? userContext.getPrimaryContainer() : null;
+            summaryDto.setActive(primaryContainer != null && id.equals(primaryContainer.getContainerId()));
+            return summaryDto;
+        }
         return containerRepository.findByIdWithItems(id)
-                .map(container -> containerMapper.toSummaryDto(container, userContext))
+                .map(container -> toSummaryDto(fetchChildren(container), userContext))
                 .orElseThrow(() -> new ContainerNotFoundException("Container with id " + id + " not found."));
     }
 
     /**
-     * Finds a list of containers by name or owners.
+     * Reads just the version of a container, used to answer conditional GETs without loading its items.
+     * Accepts the same actors as {@link #findContainerById}, and works out the active flag the same way.
+     * @param id The ID of the container.
+     * @param actor The owner requesting the container.
+     * @return The container's id, version and whether it is the actor's active container.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ContainerVersionProjection findContainerVersionById(@NotNull @Min(1) Long id, Owner actor) {
+        Long version = containerRepository.findVersionById(id)
+                .orElseThrow(() -> new ContainerNotFoundException("Container with id " + id + " not found."));
+        Container primaryContainer = (actor instanceof BohUser user) ? user.getPrimaryContainer() : null;
+        return ContainerVersionProjection.of(id, version,
+                primaryContainer != null && id.equals(primaryContainer.getContainerId()));
+    }
+
+    /**
+     * Finds one page of containers by name or owners, most recently active first.
      * @param name The name of the container to find.
+     * @param cursor The cursor of the previous page, null for the first page.
+     * @param limit The page size, null for the default.
      * @param actor The user requesting the container and one of the owners to filter by.
      * @param principal One of the owners to filter by if it's a GUILD otherwise the requesting user.
-     * @return A list of DTOs of the found containers.
+     * @return The page of DTOs of the found containers and the cursor of the next one.
      */
     @Override
     @Transactional
-    public List<ContainerSummaryDto> findContainersForPrincipalAndActor(String name, Owner actor, Owner principal) {
+    public CursorPageDto<ContainerSummaryDto> findContainersForPrincipalAndActor(String name, String cursor, Integer limit, Owner actor, Owner principal) {
         // Treat a blank name as a null filter, which the repository query understands.
         String effectiveName = (name != null && name.isBlank()) ? null : name;
-        // [IMPROVEMENT] Always provide a sort order for predictable API results.
-        Pageable sortByLastActive = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "lastActiveDateTime"));
-        List<Container> containers =  containerRepository.findContainersForOwnersByName(effectiveName, actor, principal, sortByLastActive);
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(limit, defaultPageSize, maxPageSize);
+        // The order is by the written stamps, at most boh.activity.flush-interval-ms behind; the rows show pending ones.
+        // One row more than the page tells whether there is a next page. The id breaks ties so the order is total.
+        List<Container> containers = after == null
+                ? containerRepository.findContainersForOwnersByName(effectiveName, actor, principal,
+                        PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.DESC, "lastActiveDateTime", "containerId")))
+                : containerRepository.findContainersForOwnersByNameAfter(effectiveName, actor, principal,
+                        after.keyAsDateTime(), after.id(), Pageable.ofSize(pageSize + 1));
 
         // The 'actor' is the user whose context we need for the 'active' flag.
         BohUser userContext = (actor instanceof BohUser) ? (BohUser) actor : null;
 
-        return containers.stream()
-                .map(container -> containerMapper.toSummaryDto(container, userContext))
+        List<ContainerSummaryDto> rows = containers.stream()
+                .map(container -> toSummaryDto(container, userContext))
                 .collect(Collectors.toList());
+        return PageCursor.page(rows, pageSize, container -> PageCursor.of(container.getLastActiveDateTime(), container.getContainerId()));
+    }
+
+    /**
+     * Reads one page of one level of a container's tree, without the levels below it, so even a huge container
+     * can be walked a page at a time.
+     * @param id The ID of the container.
+     * @param parentId The containerItem whose children to list, null for the container root.
+     * @param cursor The cursor of the previous page, null for the first page.
+     * @param limit The page size, null for the default.
+     * @return The page of containerItems, oldest first, and the cursor of the next one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ContainerItemSummaryDto> findContainerItemsPage(@NotNull @Min(1) Long id, Long parentId, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        long afterId = after == null ? 0L : after.id();
+        int pageSize = PageCursor.pageSize(limit, defaultPageSize, maxPageSize);
+        Pageable pageable = Pageable.ofSize(pageSize + 1);
+        List<ContainerItem> containerItems = parentId == null
+                ? containerItemRepository.findRootPage(id, afterId, pageable)
+                : containerItemRepository.findChildPage(id, parentId, afterId, pageable);
+
+        // Only parent-type items can have children; count theirs with one grouped query on PARENT_ID.
+        List<Long> parentIds = containerItems.stream()
+                .filter(ci -> ci.getItem().isParent())
+                .map(ContainerItem::getContainerItemId)
+                .toList();
+        Map<Long, Long> childCounts = parentIds.isEmpty() ? Map.of() : containerItemRepository.countChildren(parentIds).stream()
+                .collect(Collectors.toMap(ChildCountProjection::getParentId, ChildCountProjection::getChildCount));
+
+        List<ContainerItemSummaryDto> rows;
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.MAP)) {
+            rows = containerItems.stream().map(containerItemMapper::toFlatSummaryDto).toList();
+        }
+        rows.forEach(row -> row.setChildCount(childCounts.getOrDefault(row.getContainerItemId(), 0L)));
+        return PageCursor.page(rows, pageSize, containerItem -> PageCursor.of(containerItem.getContainerItemId()));
     }
 
     /**
      * provides autocomplete result set of containers for the given prefix and owners.
+     * Answered from the autocomplete cache when possible. Identical lookups missing it at the same time share one
+     * query, whose transaction only the executing call opens.
      * @param prefix The search string to filter by.
      * @param actor The user requesting the autocomplete and one of the owners to filter by.
      * @param principal One of the owners to filter by if it's a GUILD otherwise the requesting user.
      * @return A list of DTOs of the found containers.
      */
     @Override
-    @Transactional
     public List<AutoCompleteDto> autocompleteContainersForPrincipalAndActor(String prefix, Owner actor, Owner principal) {
         logger.info("Attempting to find containers with name prefix: {}*", prefix);
+        return autocompleteCache.containers(actor, principal, prefix, normalized -> queryCoalescer.coalesce("container-autocomplete",
+                Arrays.asList(actor.getId(), principal.getId(), normalized),
+                () -> transactionTemplate.execute(status -> autocompleteContainers(normalized, actor, principal))));
+    }
+
+    private List<AutoCompleteDto> autocompleteContainers(String prefix, Owner actor, Owner principal) {
+        // Ordered by the written stamps, which may lag the latest activations by one flush interval. Writing them
+        // moves the owner's generation, so a cached result doesn't keep the old order any longer than that.
         Pageable top25ByLastActive = PageRequest.of(0,25, Sort.by(Sort.Direction.DESC, "lastActiveDateTime"));
         List<Container> containers = containerRepository.autocompleteForOwnersByPrefix(prefix, actor, principal, top25ByLastActive);
 
@@ -151,9 +312,12 @@ public class ContainerServiceImpl implements ContainerService {
             logger.info("No containers found for autocomplete with prefix '{}'.", prefix);
         }
 
-        return containers.stream()
-                .map(containerMapper::toAutoCompleteDto)
-                .collect(Collectors.toList());
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.MAP)) {
+            // Shared by every coalesced caller.
+            return containers.stream()
+                    .map(containerMapper::toAutoCompleteDto)
+                    .toList();
+        }
     }
 
 
@@ -191,48 +355,116 @@ public class ContainerServiceImpl implements ContainerService {
             throw new UnsupportedOperationException("Only users can activate containers.");
         }
 
+        return activate(user, findContainerToActivateByName(name, ownerPriority, actor, principal));
+    }
+
+    /**
+     * Finds the container a by-name activation refers to, looking at both the actor's and the principal's containers.
+     * @param name The name of the container to activate.
+     * @param ownerPriority used to prioritize a container owner if multiple containers returned for actor and principal
+     * @param actor The requesting user, one of the owners to filter by.
+     * @param principal One of the owners to filter by if it's a GUILD otherwise the requesting user.
+     * @return The container to activate.
+     * @throws ContainerNotFoundException if neither owner has a container with that name.
+     */
+    private Container findContainerToActivateByName(String name, String ownerPriority, Owner actor, Owner principal) {
         Optional<Container> userContainer = containerRepository.findByOwnerAndContainerName(actor, name);
         if (actor == principal && userContainer.isPresent()) {
-            return activate(user, userContainer.get());
+            return userContainer.get();
         }
         Optional<Container> guildContainer = containerRepository.findByOwnerAndContainerName(principal, name);
 
-        Container containerToActivate;
         if ("GUILD".equalsIgnoreCase(ownerPriority)) {
-            containerToActivate = guildContainer.or(() -> userContainer)
+            return guildContainer.or(() -> userContainer)
                     .orElseThrow(() -> new ContainerNotFoundException("Container with name '" + name + "' not found for user or their guild."));
         } else { // Default to USER priority
-            containerToActivate = userContainer.or(() -> guildContainer)
+            return userContainer.or(() -> guildContainer)
                     .orElseThrow(() -> new ContainerNotFoundException("Container with name '" + name + "' not found for user or their guild."));
         }
-
-        return activate(user, containerToActivate);
     }
 
     /**
-     * Finds the active container for a given owner.
+     * Finds the active container for a given owner. Like {@link #findContainerById}, a stale summary is not
+     * stored back by the read.
      * @param actor The owner for whom to find the active container.
      * @return A DTO of the found container.
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public ContainerSummaryDto findActiveContainerForUser(Owner actor) {
         if (!(actor instanceof BohUser user)) {
             throw new UnsupportedOperationException("Only users can activate containers.");
         }
 
-        // Step 1: Fetch the container and all its associated items in a single query.
-        // This avoids the MultipleBagFetchException and Cartesian product issues.
-        Container activeContainer = containerRepository.findActiveContainerWithItemsForUser(user)
+        Optional<ContainerSummaryDto> stored = containerSummaryService.findCurrentActiveSummary(user);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        Container activeContainer = loadActiveContainerGraph(user);
+        return toSummaryDto(activeContainer, user);
+    }
+
+    /**
+     * Reads just the version of the actor's active container, used to answer conditional GETs without loading its items.
+     * @param actor The owner for whom to find the active container.
+     * @return The active container's id and version.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ContainerVersionProjection findActiveContainerVersionForUser(Owner actor) {
+        if (!(actor instanceof BohUser user)) {
+            throw new UnsupportedOperationException("Only users can activate containers.");
+        }
+        return containerRepository.findActiveContainerVersionForUser(user)
                 .orElseThrow(() -> new ContainerNotFoundException("No active container found for user " + user.getDisplayName()));
+    }
 
-        // Step 2: If there are items, fetch all their direct children and the children's associated item data
-        // in a second, efficient query.
-        if (!activeContainer.getContainerItems().isEmpty()) {
-            containerItemRepository.fetchChildrenForContainerItems(activeContainer.getContainerItems());
+    /**
+     * Finds the actor's active container with only its first page of root items, each with its number of children,
+     * so a huge container can be shown without loading its tree. Deeper levels are read on demand, see
+     * {@link #findChildrenInActiveContainer}, further root pages from {@link #findContainerItemsPage}.
+     * @param actor The owner for whom to find the active container.
+     * @param limit The number of root items, null for the default page size.
+     * @return A DTO of the active container with just its root level.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ContainerSummaryDto findActiveContainerRootLevelForUser(Owner actor, Integer limit) {
+        if (!(actor instanceof BohUser user)) {
+            throw new UnsupportedOperationException("Only users can activate containers.");
         }
 
-        return containerMapper.toSummaryDto(activeContainer, user);
+        Container activeContainer = containerRepository.findActiveContainerForUser(user)
+                .orElseThrow(() -> new ContainerNotFoundException("No active container found for user " + user.getDisplayName()));
+        ContainerSummaryDto summaryDto;
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.MAP)) {
+            summaryDto = containerMapper.toSummaryDtoWithoutItems(activeContainer, user);
+        }
+        CursorPageDto<ContainerItemSummaryDto> rootLevel = findContainerItemsPage(activeContainer.getContainerId(), null, null, limit);
+        summaryDto.setItems(rootLevel.getItems());
+        summaryDto.setItemsNextCursor(rootLevel.getNextCursor());
+        return summaryDto;
+    }
+
+    /**
+     * Reads one page of the direct children of a ContainerItem in the actor's active container, each with its
+     * number of children. An item that isn't in the active container has no children here.
+     * @param containerItemId The ContainerItem to expand.
+     * @param cursor The cursor of the previous page, null for the first page.
+     * @param limit The page size, null for the default.
+     * @param actor The owner for whom the container is active.
+     * @return The page of children, oldest first, and the cursor of the next one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ContainerItemSummaryDto> findChildrenInActiveContainer(@NotNull @Min(1) Long containerItemId, String cursor, Integer limit, Owner actor) {
+        if (!(actor instanceof BohUser user)) {
+            throw new UnsupportedOperationException("Only users can activate containers.");
+        }
+        Long containerId = containerRepository.findActiveContainerVersionForUser(user)
+                .map(ContainerVersionProjection::getContainerId)
+                .orElseThrow(() -> new ContainerNotFoundException("No active container found for user " + user.getDisplayName()));
+        return findContainerItemsPage(containerId, containerItemId, cursor, limit);
     }
 
     /**
@@ -250,12 +482,28 @@ public class ContainerServiceImpl implements ContainerService {
         }
 
         // 1. Find the active container for the user.
-        Container activeContainer = containerRepository.findActiveContainerWithItemsForUser(user)
-                .orElseThrow(() -> new ContainerNotFoundException("No active container found for user " + user.getDisplayName()));
+        Container activeContainer = loadActiveContainerGraph(user);
 
-        if (!activeContainer.getContainerItems().isEmpty()) {
-            containerItemRepository.fetchChildrenForContainerItems(activeContainer.getContainerItems());
-        }
+        AppliedOperation applied = applyAddItem(activeContainer, addDto, actor, principal);
+        // We must explicitly save and flush the container here.
+        // This forces JPA to execute the SQL INSERT/UPDATE and trigger the auditing listeners (@PrePersist/@PreUpdate).
+        // Without this, the lastModifiedDateTime on the ContainerItem would not be set before the mapping occurs,
+        // resulting in a null value in the response DTO.
+        Container savedContainer = commitMutation(applied.container(), applied.changes());
+
+        ContainerSummaryDto summaryDto = toStoredSummaryDto(savedContainer, user);
+        return new ServiceResponse<>(summaryDto, applied.message());
+    }
+
+    /**
+     * Adds an item to an already loaded container, without flushing it.
+     * @param activeContainer The container to add to, with its items and their children loaded.
+     * @param addDto The details of the item to add.
+     * @param actor One of the item owners to filter by.
+     * @param principal One of the item's owners to filter by if it's a GUILD otherwise the requesting user.
+     * @return The success message and the change log entries for the added or updated items.
+     */
+    private AppliedOperation applyAddItem(Container activeContainer, AddItemRequestDto addDto, Owner actor, Owner principal) {
         // 2. Find the item to be added. Prefer the ID if provided, as it's unambiguous.
         Optional<Item> itemById = Optional.ofNullable(addDto.getItemId())
                 .flatMap(itemRepository::findById);
@@ -286,22 +534,14 @@ public class ContainerServiceImpl implements ContainerService {
         logger.info("The item is {} with name '{}'.", itemToAdd.getItemId(), itemToAdd.getItemName());
 
         // 3. Check if the item already exists in the container to update its quantity.
-        // Find the parent item if specified. This helper "soft-fails" by returning an empty Optional
-        // if no parent is specified.
-        Optional<ContainerItem> parentOpt;
-        try {
-            // This will "hard-fail" if an invalid or ambiguous parent is specified...
-            parentOpt = findOptionalParentItem(addDto.getInsideId(), addDto.getInsideName(), activeContainer);
-            // ...and this will "hard-fail" if the found parent is not a valid parent type.
-            parentOpt.ifPresent(p -> validateParentage(null, p));
-        } catch (ValidationException | ItemNotFoundException | AmbiguousResourceException e) {
-            // [SOFT FAIL] Catch the failure, log it, and treat the parent as non-existent.
-            logger.warn("Invalid parent specified when adding item. Defaulting to container root. Reason: {}", e.getMessage());
-            parentOpt = Optional.empty();
-        }
-        ContainerItem parent = parentOpt.orElse(null);
+        // Find the parent item if specified. An invalid or ambiguous parent is a soft failure: it is logged
+        // and the item goes to the container root instead.
+        ContainerItem parent = resolveParentOrRoot(addDto.getInsideId(), addDto.getInsideName(), activeContainer);
 
         String message;
+        // New items only get their ids once persisted, so the change log entries are built afterwards.
+        ContainerItem updatedStack = null;
+        List<ContainerItem> addedItems = new ArrayList<>();
 
         // Correctly handle stackable vs. non-stackable (parent) items.
         if (!itemToAdd.isParent()) {
@@ -312,7 +552,8 @@ public class ContainerServiceImpl implements ContainerService {
             ContainerItem containerItem;
             if (existingStackOpt.isPresent()) {
                 containerItem = existingStackOpt.get();
-                containerItem.setQuantity(containerItem.getQuantity() + addDto.getQuantity());
+                changeStackQuantity(activeContainer, containerItem, addDto.getQuantity());
+                updatedStack = containerItem;
                 message = String.format("Increased '%s' by %d.", itemToAdd.getItemName(), addDto.getQuantity());
             } else {
                 containerItem = new ContainerItem();
@@ -323,6 +564,7 @@ public class ContainerServiceImpl implements ContainerService {
                     parent.addChild(containerItem);
                 }
                 activeContainer.getContainerItems().add(containerItem);
+                addedItems.add(containerItem);
                 String location = (parent != null) ? containerItemMapper.mapItemName(parent) : activeContainer.getContainerName();
                 message = String.format("Added %dx '%s' inside '%s'.", addDto.getQuantity(), itemToAdd.getItemName(), location);
             }
@@ -342,19 +584,32 @@ public class ContainerServiceImpl implements ContainerService {
                     newContainerItem.setUserNote(addDto.getUserNote());
                 }
                 activeContainer.getContainerItems().add(newContainerItem);
+                addedItems.add(newContainerItem);
                 if (parent != null) {
                     parent.addChild(newContainerItem);
                 }
             }
         }
-        // We must explicitly save and flush the container here.
-        // This forces JPA to execute the SQL INSERT/UPDATE and trigger the auditing listeners (@PrePersist/@PreUpdate).
-        // Without this, the lastModifiedDateTime on the ContainerItem would not be set before the mapping occurs,
-        // resulting in a null value in the response DTO.
-        Container savedContainer = containerRepository.saveAndFlush(activeContainer);
-
-        ContainerSummaryDto summaryDto = containerMapper.toSummaryDto(savedContainer, user);
-        return new ServiceResponse<>(summaryDto, message);
+        // New rows are inserted with their own totals, existing rows only ever get a delta.
+        for (ContainerItem ci : addedItems) {
+            Rollup own = Rollup.of(itemToAdd, ci.getQuantity());
+            ci.setTotalWeight(own.weight());
+            ci.setTotalValue(own.value());
+        }
+        // Persist the new items themselves: merging the container would only store managed copies of them,
+        // leaving these instances without the ids the change log needs.
+        containerItemRepository.saveAll(addedItems);
+        if (updatedStack == null) {
+            applyRollup(activeContainer, parent, Rollup.of(itemToAdd, addDto.getQuantity()));
+        }
+        // Feeds the autocomplete ranking; counted in memory once the add committed.
+        itemUsageTracker.recordAdd(actor, principal, itemToAdd);
+        List<ContainerChange> changes = new ArrayList<>(addedItems.size() + 1);
+        if (updatedStack != null) {
+            changes.add(ContainerChange.of(ContainerChangeType.UPDATE, updatedStack));
+        }
+        addedItems.forEach(ci -> changes.add(ContainerChange.of(ContainerChangeType.ADD, ci)));
+        return new AppliedOperation(activeContainer, message, changes);
     }
 
     /**
@@ -374,12 +629,26 @@ public class ContainerServiceImpl implements ContainerService {
         }
 
         logger.debug("Id: {}, name: {}, quantity: {}, dropChildren: {}", id, name, quantity, dropChildren);
-        Container activeContainer = containerRepository.findActiveContainerWithItemsForUser(user)
-                .orElseThrow(() -> new ContainerNotFoundException("No active container found for user " + user.getDisplayName()));
+        Container activeContainer = loadActiveContainerGraph(user);
 
-        if (!activeContainer.getContainerItems().isEmpty()) {
-            containerItemRepository.fetchChildrenForContainerItems(activeContainer.getContainerItems());
-        }
+        AppliedOperation applied = applyDropItem(activeContainer, id, name, quantity, dropChildren);
+        // We must explicitly save and flush the container here to ensure the Auditable framework is triggered
+        // and that any deletions (from orphanRemoval) are executed.
+        Container savedContainer = commitMutation(applied.container(), applied.changes());
+        ContainerSummaryDto summaryDto = toStoredSummaryDto(savedContainer, user);
+        return new ServiceResponse<>(summaryDto, applied.message());
+    }
+
+    /**
+     * Drops an item from an already loaded container, without flushing it.
+     * @param activeContainer The container to drop from, with its items and their children loaded.
+     * @param id The ID of the item to drop, nullable
+     * @param name The name of the item to drop, a fallback if the id is null
+     * @param quantity The quantity of the item to drop
+     * @param dropChildren Indicates if any children should be dropped as well
+     * @return The success message and the change log entries for the removed, moved or updated items.
+     */
+    private AppliedOperation applyDropItem(Container activeContainer, Long id, String name, Integer quantity, Boolean dropChildren) {
         // Find the specific ContainerItem to drop. Using the unique containerItemId is the most reliable way.
         ContainerItem foundContainerItem = findContainerItem(id, name, activeContainer);
 
@@ -389,31 +658,60 @@ public class ContainerServiceImpl implements ContainerService {
         }
 
 
-        if (foundContainerItem.getQuantity().equals(quantity)) {
-            // If the quantity matches exactly, remove the item from the container.
-            if(foundContainerItem.getItem().isParent()) {
-                List<ContainerItem> childrenItems = new ArrayList<>(foundContainerItem.getChildren());
-                if (Boolean.TRUE.equals(dropChildren)) {
-                    activeContainer.getContainerItems().removeAll(childrenItems);
-                } else {
-                    childrenItems.forEach(foundContainerItem::removeChild);
-                }
-            }
+        String itemName = foundContainerItem.getItem().getItemName();
+        List<ContainerChange> changes = new ArrayList<>();
+        if (!foundContainerItem.getQuantity().equals(quantity)) {
+            changeStackQuantity(activeContainer, foundContainerItem, -quantity);
+            changes.add(ContainerChange.of(ContainerChangeType.UPDATE, foundContainerItem));
+            logger.info("Decreased quantity of item '{}' by {} in container '{}'. New quantity: {}",
+                    itemName, quantity, activeContainer.getContainerName(), foundContainerItem.getQuantity());
+            return new AppliedOperation(activeContainer, "Removed " + quantity + "x '" + itemName + "'.", changes);
+        }
 
+        // If the quantity matches exactly, remove the item from the container.
+        if (!foundContainerItem.getItem().isParent()) {
+            applyRollup(activeContainer, foundContainerItem.getParent(), Rollup.totalsOf(foundContainerItem).negate());
             activeContainer.getContainerItems().remove(foundContainerItem);
-            logger.info("Removed all of item '{}' from container '{}'", foundContainerItem.getItem().getItemName(), activeContainer.getContainerName());
-        } else {
-           foundContainerItem.setQuantity(foundContainerItem.getQuantity() - quantity);
-           logger.info("Decreased quantity of item '{}' by {} in container '{}'. New quantity: {}",
-                    foundContainerItem.getItem().getItemName(), quantity, activeContainer.getContainerName(), foundContainerItem.getQuantity());
+            changes.add(ContainerChange.of(ContainerChangeType.REMOVE, foundContainerItem));
+            logger.info("Removed all of item '{}' from container '{}'", itemName, activeContainer.getContainerName());
+            return new AppliedOperation(activeContainer, "Removed " + quantity + "x '" + itemName + "'.", changes);
         }
-        // We must explicitly save and flush the container here to ensure the Auditable framework is triggered
-        // and that any deletions (from orphanRemoval) are executed.
 
-        String message = "Removed " + quantity + "x '" + foundContainerItem.getItem().getItemName() + "'" + (dropChildren ? " and any children." : ".");
-        Container savedContainer = containerRepository.saveAndFlush(activeContainer);
-        ContainerSummaryDto summaryDto = containerMapper.toSummaryDto(savedContainer, user);
-        return new ServiceResponse<>(summaryDto, message);
+        // A parent item takes its whole subtree along, or hands its children to the container root. Either way the rows
+        // are changed with a fixed number of bulk statements instead of one per item, then the graph is reloaded.
+        String message;
+        if (Boolean.TRUE.equals(dropChildren)) {
+            List<ContainerItem> subtree = collectSubtree(foundContainerItem, activeContainer.getContainerItems());
+            subtree.forEach(ci -> changes.add(ContainerChange.of(ContainerChangeType.REMOVE, ci)));
+            applyRollup(activeContainer, foundContainerItem.getParent(), Rollup.totalsOf(foundContainerItem).negate());
+            int deleted = deleteContainerItems(subtree.stream().map(ContainerItem::getContainerItemId).toList());
+            logger.info("Removed item '{}' and {} item(s) inside it from container '{}'", itemName, deleted - 1, activeContainer.getContainerName());
+            message = deleted > 1
+                    ? String.format("Removed %dx '%s' and the %d item(s) inside it.", quantity, itemName, deleted - 1)
+                    : String.format("Removed %dx '%s'.", quantity, itemName);
+        } else {
+            changes.add(ContainerChange.of(ContainerChangeType.REMOVE, foundContainerItem));
+            Long parentId = foundContainerItem.getContainerItemId();
+            List<ContainerItem> children = activeContainer.getContainerItems().stream()
+                    .filter(ci -> ci.getParent() != null && parentId.equals(ci.getParent().getContainerItemId()))
+                    .toList();
+            for (ContainerItem child : children) {
+                ContainerChange change = ContainerChange.of(ContainerChangeType.MOVE, child);
+                change.setParentId(null);
+                changes.add(change);
+            }
+            // The ancestors lose the whole subtree, the container only the dropped item itself: its children stay.
+            applyRollup(activeContainer, foundContainerItem.getParent(), Rollup.totalsOf(foundContainerItem).negate(),
+                    Rollup.of(foundContainerItem.getItem(), quantity).negate());
+            int moved = containerItemRepository.moveChildrenToRoot(parentId, LocalDateTime.now());
+            deleteContainerItems(List.of(parentId));
+            logger.info("Removed item '{}' from container '{}', moved {} item(s) to the root", itemName, activeContainer.getContainerName(), moved);
+            message = moved > 0
+                    ? String.format("Removed %dx '%s', the %d item(s) inside it were moved to the container root.", quantity, itemName, moved)
+                    : String.format("Removed %dx '%s'.", quantity, itemName);
+        }
+        // The bulk statements cleared the persistence context, continue with a freshly loaded graph.
+        return new AppliedOperation(loadContainerGraph(activeContainer.getContainerId()), message, changes);
     }
 
     // TODO - update so guild owned container items can be deleted
@@ -459,6 +757,9 @@ public class ContainerServiceImpl implements ContainerService {
 
         // 5. Delete the container.
         containerRepository.delete(containerToDelete);
+        autocompleteCache.containersChanged(containerToDelete.getOwner().getId());
+        containerChangeService.deleteChangeLog(id);
+        containerSummaryService.deleteSummary(id);
         logger.info("Successfully deleted container '{}' (ID: {})", responseDto.getName(), responseDto.getId());
         return responseDto;
     }
@@ -477,22 +778,48 @@ public class ContainerServiceImpl implements ContainerService {
         }
 
         // 1. Validate DTO to prevent ambiguous requests
-        if ((modifyDto.getNewParentId() != null || modifyDto.getNewParentName() != null) && Boolean.TRUE.equals(modifyDto.getMoveToRoot())) {
-            throw new ValidationException("Cannot specify both a new parent and move to root. Please choose one.");
-        }
+        validateModifyRequest(modifyDto);
 
         // 2. Get active container
-        Container activeContainer = containerRepository.findActiveContainerWithItemsForUser(user)
-                .orElseThrow(() -> new ContainerNotFoundException("No active container found for user " + user.getDisplayName()));
+        Container activeContainer = loadActiveContainerGraph(user);
 
-        if (!activeContainer.getContainerItems().isEmpty()) {
-            containerItemRepository.fetchChildrenForContainerItems(activeContainer.getContainerItems());
+        AppliedOperation applied = applyModifyItem(activeContainer, modifyDto);
+        if (applied.changes().isEmpty()) {
+            // No need to save if no changes were made, just return the current state
+            ContainerSummaryDto summaryDto = toSummaryDto(activeContainer, user);
+            return new ServiceResponse<>(summaryDto, applied.message());
         }
+
+        // 6. Save the container to persist all changes and return the updated state
+        Container savedContainer = commitMutation(applied.container(), applied.changes());
+        ContainerSummaryDto summaryDto = toStoredSummaryDto(savedContainer, user);
+        return new ServiceResponse<>(summaryDto, applied.message());
+    }
+
+    /**
+     * Rejects modify requests that ask for both a new parent and a move to the root.
+     * @param modifyDto The details of the item to modify
+     * @throws ValidationException if the request is ambiguous.
+     */
+    private void validateModifyRequest(ModifyItemRequestDto modifyDto) {
+        if ((modifyDto.getNewParentId() != null || modifyDto.getNewParentName() != null) && Boolean.TRUE.equals(modifyDto.getMoveToRoot())) {
+            throw new ValidationException("Cannot specify both a new parent and move to root. Please choose one.");
+        }
+    }
+
+    /**
+     * Modifies an item in an already loaded container, without flushing it.
+     * @param activeContainer The container holding the item, with its items and their children loaded.
+     * @param modifyDto The details of the item to modify, already checked by {@link #validateModifyRequest}.
+     * @return The success message and the change log entry for the item, or no entries if nothing was changed.
+     */
+    private AppliedOperation applyModifyItem(Container activeContainer, ModifyItemRequestDto modifyDto) {
         // 3. Find the item to modify using the resilient finder.
         // This uses the ID if present, otherwise falls back to the name.
         ContainerItem itemToModify = findContainerItem(modifyDto.getContainerItemId(), modifyDto.getContainerItemName(), activeContainer);
 
         boolean modified = false;
+        boolean moved = false;
         StringBuilder sb = new StringBuilder();
         sb.append("Modified field(s) [");
 
@@ -514,22 +841,28 @@ public class ContainerServiceImpl implements ContainerService {
             validateParentage(itemToModify, newParent);
 
             // If there's an old parent, correctly sever the bidirectional link
+            Rollup subtreeTotals = Rollup.totalsOf(itemToModify);
             if (itemToModify.getParent() != null) {
+                applyRollup(activeContainer, itemToModify.getParent(), subtreeTotals.negate(), Rollup.ZERO);
                 itemToModify.getParent().removeChild(itemToModify);
             }
             newParent.addChild(itemToModify);
+            applyRollup(activeContainer, newParent, subtreeTotals, Rollup.ZERO);
             logger.info("Moved item '{}' into parent '{}'", containerItemMapper.mapItemName(itemToModify), containerItemMapper.mapItemName(newParent));
             sb.append(modified ? ", location" : "location");
             modified = true;
+            moved = true;
 
         } else if (Boolean.TRUE.equals(modifyDto.getMoveToRoot())) {
             if (itemToModify.getParent() != null) {
                 // Move to root by severing the link with the current parent
+                applyRollup(activeContainer, itemToModify.getParent(), Rollup.totalsOf(itemToModify).negate(), Rollup.ZERO);
                 itemToModify.getParent().removeChild(itemToModify);
                 logger.info("Moved item '{}' to the container root.", containerItemMapper.mapItemName(itemToModify));
 
                 sb.append(modified ? ", location" : "location");
                 modified = true;
+                moved = true;
             } else {
                 logger.info("Item '{}' is already at the root. No move performed.", containerItemMapper.mapItemName(itemToModify));
             }
@@ -542,22 +875,560 @@ public class ContainerServiceImpl implements ContainerService {
                 throw new ValidationException("New quantity must be greater than 0.");
             }
             logger.info("Updated quantity of item '{}' to {}.", containerItemMapper.mapItemName(itemToModify), modifyDto.getNewQuantity());
-            itemToModify.setQuantity(modifyDto.getNewQuantity());
+            if (itemToModify.isSharded()) {
+                changeStackQuantity(activeContainer, itemToModify, modifyDto.getNewQuantity() - itemToModify.getQuantity());
+            } else {
+                Item item = itemToModify.getItem();
+                applyRollup(activeContainer, itemToModify,
+                        Rollup.of(item, modifyDto.getNewQuantity()).minus(Rollup.of(item, itemToModify.getQuantity())));
+                itemToModify.setQuantity(modifyDto.getNewQuantity());
+            }
             sb.append(modified ? ", quantity" : "quantity");
             modified = true;
         }
         sb.append("] for item: ").append(itemToModify.getItem().getItemName()).append(".");
         if (!modified) {
             logger.warn("Modify item request received for item ID {}, but no changes were specified in the request body.", itemToModify.getContainerItemId());
-            // No need to save if no changes were made, just return the current state
-            ContainerSummaryDto summaryDto = containerMapper.toSummaryDto(activeContainer, user);
-            return new ServiceResponse<>(summaryDto, "No changes were made to the item.");
+            return new AppliedOperation(activeContainer, "No changes were made to the item.", List.of());
         }
 
-        // 6. Save the container to persist all changes and return the updated state
-        Container savedContainer = containerRepository.saveAndFlush(activeContainer);
-        ContainerSummaryDto summaryDto = containerMapper.toSummaryDto(activeContainer, user);
-        return new ServiceResponse<>(summaryDto, sb.toString());
+        // Every change record carries the item's full state, so one record covers a combined move and update.
+        ContainerChangeType changeType = moved ? ContainerChangeType.MOVE : ContainerChangeType.UPDATE;
+        return new AppliedOperation(activeContainer, sb.toString(), List.of(ContainerChange.of(changeType, itemToModify)));
+    }
+
+    /**
+     * Applies an ordered list of operations in one transaction. The active container is loaded once and every
+     * operation works on that graph; an ACTIVATE switches the graph for the operations after it. Everything is
+     * flushed once at the end, and each changed container gets a single version bump covering all its changes.
+     * If any operation fails the whole batch is rolled back.
+     * @param batchDto The operations to apply, in order.
+     * @param actor The requesting user for whom the container is active for, one of the owners to filter by.
+     * @param principal One of the owners to filter by if it's a GUILD otherwise the requesting user.
+     * @return The container the last operation ran against and the result of every operation.
+     * @throws BatchOperationException if an operation fails, carrying the per-operation results.
+     */
+    @Override
+    @Transactional
+    public ServiceResponse<BatchResultDto> applyBatchToActiveContainer(BatchRequestDto batchDto, Owner actor, Owner principal) {
+        if (!(actor instanceof BohUser user)) {
+            throw new UnsupportedOperationException("Only users can have an active container to run a batch against.");
+        }
+
+        List<BatchOperationDto> operations = batchDto.getOperations();
+        List<BatchOperationResultDto> results = new ArrayList<>(operations.size());
+        // The ids of the containers that need a new version, with the change log entries to record under it.
+        // Kept by id: an operation using bulk statements leaves earlier container instances detached.
+        Map<Long, List<ContainerChange>> changesByContainer = new LinkedHashMap<>();
+        BohUser userContext = user;
+        Container current = null;
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDto operation = operations.get(i);
+            try {
+                AppliedOperation applied;
+                if (operation.getType() == BatchOperationType.ACTIVATE) {
+                    current = findContainerToActivate(requireDetails(operation.getActivate(), operation), actor, principal);
+                    userContext = markActive(user, current);
+                    applied = new AppliedOperation(current, "Activated '" + current.getContainerName() + "'.", List.of());
+                } else {
+                    if (current == null) {
+                        current = loadActiveContainerGraph(user);
+                    }
+                    applied = switch (operation.getType()) {
+                        case ADD -> applyAddItem(current, requireDetails(operation.getAdd(), operation), actor, principal);
+                        case DROP -> {
+                            DropItemRequestDto drop = requireDetails(operation.getDrop(), operation);
+                            yield applyDropItem(current, drop.getContainerItemId(), drop.getContainerItemName(),
+                                    drop.getQuantity(), drop.getDropChildren());
+                        }
+                        case MODIFY -> {
+                            ModifyItemRequestDto modify = requireDetails(operation.getModify(), operation);
+                            validateModifyRequest(modify);
+                            yield applyModifyItem(current, modify);
+                        }
+                        default -> throw new IllegalStateException("Unhandled batch operation type " + operation.getType());
+                    };
+                }
+                current = applied.container();
+                if (operation.getType() == BatchOperationType.ACTIVATE || !applied.changes().isEmpty()) {
+                    changesByContainer.computeIfAbsent(current.getContainerId(), id -> new ArrayList<>()).addAll(applied.changes());
+                }
+                results.add(new BatchOperationResultDto(i, operation.getType(), true, applied.message()));
+            } catch (DomainException | UnsupportedOperationException ex) {
+                results.add(new BatchOperationResultDto(i, operation.getType(), false, ex.getMessage()));
+                for (int j = i + 1; j < operations.size(); j++) {
+                    results.add(new BatchOperationResultDto(j, operations.get(j).getType(), false, "Skipped because an earlier operation failed."));
+                }
+                // Thrown out of the transaction, so whatever the earlier operations did is rolled back.
+                throw new BatchOperationException(String.format("Operation %d (%s) failed, no changes were saved: %s",
+                        i + 1, operation.getType(), ex.getMessage()), results);
+            }
+        }
+
+        // One flush for the whole batch, then one new version per changed container.
+        containerRepository.flush();
+        for (Map.Entry<Long, List<ContainerChange>> entry : changesByContainer.entrySet()) {
+            Long version = bumpVersion(entry.getKey());
+            containerChangeService.recordChanges(entry.getKey(), version, entry.getValue());
+            if (entry.getKey().equals(current.getContainerId())) {
+                current.setVersion(version);
+            }
+        }
+
+        // Only the container the batch ended on is mapped; any other one it changed is left to the summary rebuild.
+        ContainerSummaryDto summaryDto = changesByContainer.containsKey(current.getContainerId())
+                ? toStoredSummaryDto(current, userContext)
+                : toSummaryDto(current, userContext);
+        String message = String.format("Applied %d operation(s) to '%s'.", operations.size(), current.getContainerName());
+        return new ServiceResponse<>(new BatchResultDto(summaryDto, results), message);
+    }
+
+    /**
+     * Flags a stack in the active container for concurrent updates by giving it shards, changes its number of shards,
+     * or turns it back into a plain stack. Its quantity stays the same; the container only gets a new version if the
+     * stack's shards held something, which the totals take in now.
+     * @param containerItemId The stack to (re)shard.
+     * @param shardCount The number of shards, 0 for a plain stack.
+     * @param actor The user whose active container holds the stack.
+     * @return A DTO of the container.
+     * @throws ValidationException if the item isn't stackable or the number of shards is out of range.
+     */
+    @Override
+    @Transactional
+    public ServiceResponse<ContainerSummaryDto> shardItemInActiveContainer(Long containerItemId, int shardCount, Owner actor) {
+        if (!(actor instanceof BohUser user)) {
+            throw new UnsupportedOperationException("Only users can have an active container to change items in.");
+        }
+        Container activeContainer = loadActiveContainerGraph(user);
+        ContainerItem stack = findContainerItem(containerItemId, null, activeContainer);
+        String itemName = stack.getItem().getItemName();
+        if (stack.getItem().isParent()) {
+            throw new ValidationException("Only stacks can be sharded, '" + itemName + "' is a container item.");
+        }
+        int folded = containerItemShardService.reshard(stack, shardCount);
+        // Resharding cleared the persistence context.
+        Long containerId = activeContainer.getContainerId();
+        if (folded != 0) {
+            // The quantity stays the same, but the totals just took in what the shards held.
+            bumpVersion(containerId);
+        }
+        Container reloaded = loadContainerGraph(containerId);
+        String message = shardCount == 0
+                ? String.format("'%s' is a plain stack again.", itemName)
+                : String.format("'%s' now takes concurrent changes on %d shards.", itemName, shardCount);
+        return new ServiceResponse<>(folded != 0 ? toStoredSummaryDto(reloaded, user) : toSummaryDto(reloaded, user), message);
+    }
+
+    /**
+     * Applies a run of plain quantity changes (adds onto an existing stack at the root, drops that leave some behind)
+     * with one in-place {@code ITM_QTY = ITM_QTY + ?} update per stack, carrying the net delta of all operations on it.
+     * Used by the mutation queue for requests it merged, so a burst of "+1 arrow" costs one write per stack.
+     * @param operations ADD and DROP operations on the actor's active container, in request order.
+     * @param actor The user whose active container to change.
+     * @return The container after the operations and each operation's message, or empty if any operation is more
+     *         than a quantity change (a new stack, a parent item, a note, a drop that empties its stack); nothing
+     *         is written then and the operations have to go the regular way.
+     * @throws ValidationException if a stack changed underneath or the container's weight limit is hit.
+     */
+    @Override
+    @Transactional
+    public Optional<ServiceResponse<BatchResultDto>> applyQuantityDeltasToActiveContainer(List<BatchOperationDto> operations, Owner actor) {
+        if (!(actor instanceof BohUser user)) {
+            return Optional.empty();
+        }
+        Container activeContainer = loadActiveContainerGraph(user);
+
+        // The net delta per stack, in the order the stacks were first touched.
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        Map<Long, ContainerItem> stacks = new HashMap<>();
+        List<BatchOperationResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDto operation = operations.get(i);
+            ContainerItem stack = findStackForQuantityChange(operation, activeContainer);
+            if (stack == null) {
+                return Optional.empty();
+            }
+            int delta = operation.getType() == BatchOperationType.ADD
+                    ? operation.getAdd().getQuantity()
+                    : -operation.getDrop().getQuantity();
+            Long stackId = stack.getContainerItemId();
+            if (stack.getQuantity() + deltas.getOrDefault(stackId, 0) + delta < 1) {
+                // Emptying a stack removes it, and over-dropping needs its own error message.
+                return Optional.empty();
+            }
+            deltas.merge(stackId, delta, Integer::sum);
+            stacks.put(stackId, stack);
+            String itemName = stack.getItem().getItemName();
+            String message = delta > 0
+                    ? String.format("Increased '%s' by %d.", itemName, delta)
+                    : "Removed " + -delta + "x '" + itemName + "'.";
+            results.add(new BatchOperationResultDto(i, operation.getType(), true, message));
+        }
+
+        // Rollups first: the quantity updates clear the persistence context. The deltas of sharded stacks are only
+        // checked against the weight limit; the totals pick them up when the shards are folded.
+        Rollup shardedDelta = Rollup.ZERO;
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            ContainerItem stack = stacks.get(entry.getKey());
+            int delta = entry.getValue();
+            Rollup rollup = Rollup.of(stack.getItem(), Math.abs(delta));
+            if (delta < 0) {
+                rollup = rollup.negate();
+            }
+            if (stack.isSharded()) {
+                shardedDelta = shardedDelta.plus(rollup);
+            } else {
+                applyRollup(activeContainer, stack, rollup);
+            }
+        }
+        checkCapacity(activeContainer, shardedDelta);
+        LocalDateTime now = LocalDateTime.now();
+        List<ContainerChange> changes = new ArrayList<>(deltas.size());
+        deltas.forEach((stackId, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            ContainerItem stack = stacks.get(stackId);
+            if (stack.isSharded()) {
+                containerItemShardService.addToShard(stack, delta);
+            } else {
+                if (containerItemRepository.addToQuantity(stackId, delta, user, now) == 0) {
+                    throw new ValidationException("'" + stack.getItem().getItemName() + "' was changed by another request, please try again.");
+                }
+                // Detached by now, so this only feeds the change log entry.
+                stack.setQuantity(stack.getQuantity() + delta);
+            }
+            changes.add(ContainerChange.of(ContainerChangeType.UPDATE, stack));
+        });
+
+        Long containerId = activeContainer.getContainerId();
+        ContainerSummaryDto summaryDto;
+        if (changes.isEmpty()) {
+            summaryDto = toSummaryDto(activeContainer, user);
+        } else {
+            Long version = bumpVersion(containerId);
+            containerChangeService.recordChanges(containerId, version, changes);
+            summaryDto = toStoredSummaryDto(loadContainerGraph(containerId), user);
+        }
+        String message = String.format("Applied %d quantity change(s) to '%s'.", operations.size(), summaryDto.getContainerName());
+        return Optional.of(new ServiceResponse<>(new BatchResultDto(summaryDto, results), message));
+    }
+
+    /**
+     * Finds the stack an operation changes, if the operation is nothing but a quantity change of an existing stack.
+     * @param operation An operation of a merged run.
+     * @param container The container, with its items loaded.
+     * @return The stack, or null if the operation does more than change a quantity.
+     */
+    private ContainerItem findStackForQuantityChange(BatchOperationDto operation, Container container) {
+        if (operation.getType() == BatchOperationType.ADD) {
+            AddItemRequestDto add = operation.getAdd();
+            if (add == null || add.getItemId() == null || add.getQuantity() == null || add.getInsideId() != null
+                    || (add.getInsideName() != null && !add.getInsideName().isBlank())
+                    || (add.getUserNote() != null && !add.getUserNote().isBlank())) {
+                return null;
+            }
+            return container.getContainerItems().stream()
+                    .filter(ci -> ci.getParent() == null && !ci.getItem().isParent()
+                            && ci.getItem().getItemId().equals(add.getItemId()))
+                    .findFirst()
+                    .orElse(null);
+        }
+        if (operation.getType() == BatchOperationType.DROP) {
+            DropItemRequestDto drop = operation.getDrop();
+            if (drop == null || drop.getContainerItemId() == null || drop.getQuantity() == null) {
+                return null;
+            }
+            return container.getContainerItems().stream()
+                    .filter(ci -> ci.getContainerItemId().equals(drop.getContainerItemId()) && !ci.getItem().isParent())
+                    .findFirst()
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    /**
+     * Finds and loads the container a batch ACTIVATE refers to. By ID the same ownership rules as the
+     * activate endpoint apply: the user's own containers, or the guild's when the request comes from that guild.
+     */
+    private Container findContainerToActivate(ActivateContainerRequestDto activateDto, Owner actor, Owner principal) {
+        if (activateDto.getContainerId() != null) {
+            Container container = loadContainerGraph(activateDto.getContainerId());
+            Owner owner = container.getOwner();
+            boolean allowed = owner.getId().equals(actor.getId())
+                    || (owner.getOwnerType() == OwnerType.GUILD && owner.getId().equals(principal.getId()));
+            if (!allowed) {
+                // Don't reveal containers of other owners.
+                throw new ContainerNotFoundException("Container with id " + activateDto.getContainerId() + " not found.");
+            }
+            return container;
+        }
+        if (activateDto.getContainerName() == null || activateDto.getContainerName().isBlank()) {
+            throw new ValidationException("A container ID or name must be provided to activate a container.");
+        }
+        Container container = findContainerToActivateByName(activateDto.getContainerName(), activateDto.getOwnerPriority(), actor, principal);
+        return loadContainerGraph(container.getContainerId());
+    }
+
+    private static <T> T requireDetails(T details, BatchOperationDto operation) {
+        if (details == null) {
+            throw new ValidationException("Operation type " + operation.getType() + " needs its '"
+                    + operation.getType().name().toLowerCase(Locale.ROOT) + "' details.");
+        }
+        return details;
+    }
+
+    /**
+     * Moves a ContainerItem and everything inside it to the root of another container in one transaction.
+     * The rows are updated in place with two bulk updates, so neither container graph is loaded or merged and the
+     * item is never missing from both. Both containers get a new version, the source logs a REMOVE and the target
+     * an ADD for every moved item. The security layer has already confirmed the actor may change both containers.
+     * @param sourceContainerId The container the item is in.
+     * @param containerItemId The ContainerItem to move.
+     * @param targetContainerId The container to move it to.
+     * @return The moved item and the new version of both containers.
+     */
+    @Override
+    @Transactional
+    public ServiceResponse<ContainerTransferDto> transferContainerItem(Long sourceContainerId, Long containerItemId, Long targetContainerId) {
+        if (sourceContainerId.equals(targetContainerId)) {
+            throw new ValidationException("The item is already in that container. Use modify to move it inside the container.");
+        }
+
+        // 1. Read the source container's rows once, flat, to find the subtree and capture the state for the change log.
+        List<ContainerItem> containerItems = containerItemRepository.findAllWithItemByContainerId(sourceContainerId);
+        ContainerItem root = containerItems.stream()
+                .filter(ci -> ci.getContainerItemId().equals(containerItemId))
+                .findFirst()
+                .orElseThrow(() -> new ItemNotFoundException("Item with ID " + containerItemId + " not found in container with ID " + sourceContainerId + "."));
+        List<ContainerItem> subtree = collectSubtree(root, containerItems);
+
+        List<ContainerChange> removed = new ArrayList<>(subtree.size());
+        List<ContainerChange> added = new ArrayList<>(subtree.size());
+        for (ContainerItem ci : subtree) {
+            removed.add(ContainerChange.of(ContainerChangeType.REMOVE, ci));
+            added.add(ContainerChange.of(ContainerChangeType.ADD, ci));
+        }
+        // The moved item lands at the target's root, its descendants keep their parents.
+        added.get(0).setParentId(null);
+        List<Long> ids = subtree.stream().map(ContainerItem::getContainerItemId).toList();
+
+        // 2. Shift the totals: the target first, so a full target refuses the item before anything is moved.
+        Rollup movedTotals = Rollup.totalsOf(root);
+        // What the target's sharded stacks and the moved ones hold in their shards counts against its limit too.
+        List<ContainerItem> unfolded = new ArrayList<>(subtree);
+        if (movedTotals.addsWeight()) {
+            unfolded.addAll(containerItemRepository.findShardedWithItemByContainerId(targetContainerId));
+        }
+        addToContainerTotals(targetContainerId, movedTotals, unfolded);
+        addToContainerTotals(sourceContainerId, movedTotals.negate(), List.of());
+        if (root.getParent() != null) {
+            Map<Long, ContainerItem> itemsById = containerItems.stream()
+                    .collect(Collectors.toMap(ContainerItem::getContainerItemId, ci -> ci));
+            List<Long> ancestorIds = new ArrayList<>();
+            for (ContainerItem ci = root; ci.getParent() != null; ) {
+                ci = itemsById.get(ci.getParent().getContainerItemId());
+                ancestorIds.add(ci.getContainerItemId());
+            }
+            for (List<Long> chunk : chunked(ancestorIds)) {
+                containerItemRepository.addToTotals(chunk, movedTotals.weight().negate(), movedTotals.value().negate());
+            }
+        }
+
+        // 3. Move the rows in place.
+        Container target = containerRepository.getReferenceById(targetContainerId);
+        LocalDateTime now = LocalDateTime.now();
+        int moved = 0;
+        for (List<Long> chunk : chunked(ids)) {
+            moved += containerItemRepository.moveToContainer(chunk, sourceContainerId, target, now);
+        }
+        if (moved != ids.size()) {
+            // Another request moved or dropped part of the subtree since we read it; let the client retry.
+            throw new DataMismatchException("The item changed while it was being transferred, please try again.");
+        }
+        if (root.getParent() != null) {
+            containerItemRepository.detachFromParents(List.of(root.getContainerItemId()), now);
+        }
+
+        // 4. One new version per container, with the log entries recorded under it.
+        Long sourceVersion = bumpVersion(sourceContainerId);
+        Long targetVersion = bumpVersion(targetContainerId);
+        containerChangeService.recordChanges(sourceContainerId, sourceVersion, removed);
+        containerChangeService.recordChanges(targetContainerId, targetVersion, added);
+
+        String itemName = root.getItem().getItemName();
+        logger.info("Transferred item '{}' (ID: {}) and {} item(s) inside it from container {} to container {}.",
+                itemName, containerItemId, subtree.size() - 1, sourceContainerId, targetContainerId);
+        String message = subtree.size() == 1
+                ? String.format("Transferred %dx '%s'.", root.getQuantity(), itemName)
+                : String.format("Transferred '%s' and the %d item(s) inside it.", itemName, subtree.size() - 1);
+        ContainerTransferDto transferDto = new ContainerTransferDto(containerItemId, itemName, subtree.size(),
+                sourceContainerId, sourceVersion, targetContainerId, targetVersion);
+        return new ServiceResponse<>(transferDto, message);
+    }
+
+    /**
+     * Adds a weight/value delta to an item, its ancestors and their container, see {@link #applyRollup(Container, ContainerItem, Rollup, Rollup)}.
+     */
+    private void applyRollup(Container container, ContainerItem from, Rollup delta) {
+        applyRollup(container, from, delta, delta);
+    }
+
+    /**
+     * Keeps the maintained totals in step with a change: one update for the item and all its ancestors, one for the
+     * container. Only the path above the change is touched, never the rest of the tree.
+     * Mirrors the new totals on the loaded graph, since the entities never write the columns themselves.
+     * @param container The container the change is in.
+     * @param from The lowest item whose subtree changed, null for a change at the container root.
+     * @param itemDelta The delta for {@code from} and its ancestors.
+     * @param containerDelta The delta for the container.
+     * @throws ValidationException if the change would put the container over the weight limit of its type.
+     */
+    private void applyRollup(Container container, ContainerItem from, Rollup itemDelta, Rollup containerDelta) {
+        if (!itemDelta.isZero()) {
+            List<Long> path = new ArrayList<>();
+            for (ContainerItem ci = from; ci != null; ci = ci.getParent()) {
+                ci.setTotalWeight(ci.getTotalWeight().add(itemDelta.weight()));
+                ci.setTotalValue(ci.getTotalValue().add(itemDelta.value()));
+                path.add(ci.getContainerItemId());
+            }
+            for (List<Long> chunk : chunked(path)) {
+                containerItemRepository.addToTotals(chunk, itemDelta.weight(), itemDelta.value());
+            }
+        }
+        if (!containerDelta.isZero()) {
+            addToContainerTotals(container.getContainerId(), containerDelta, container.getContainerItems());
+            container.setTotalWeight(container.getTotalWeight().add(containerDelta.weight()));
+            container.setTotalValue(container.getTotalValue().add(containerDelta.value()));
+        }
+    }
+
+    /**
+     * Adds a delta to the quantity of a stack of a stackable item, with its rollup. A sharded stack only takes the
+     * delta in one of its shards: its own, its ancestors' and the container's totals pick it up when the shards are
+     * folded, so concurrent changes of the stack don't all write the same rows.
+     * @param container The container the stack is in.
+     * @param stack The stack to change.
+     * @param delta The quantity to add, may be negative. The caller makes sure the stack isn't emptied.
+     * @throws ValidationException if the change would put the container over the weight limit of its type.
+     */
+    private void changeStackQuantity(Container container, ContainerItem stack, int delta) {
+        Rollup rollup = Rollup.of(stack.getItem(), Math.abs(delta));
+        if (delta < 0) {
+            rollup = rollup.negate();
+        }
+        if (stack.isSharded()) {
+            checkCapacity(container, rollup);
+            containerItemShardService.addToShard(stack, delta);
+        } else {
+            applyRollup(container, stack, rollup);
+            stack.setQuantity(stack.getQuantity() + delta);
+        }
+    }
+
+    /**
+     * Adds a delta to a container's totals. Anything that makes the container heavier goes through the guarded
+     * update, which checks the weight limit against the current total in the same statement.
+     * @param containerItems Items of the container whose unfolded shards count against the weight limit.
+     * @throws ValidationException if the delta would put the container over the weight limit of its type.
+     */
+    private void addToContainerTotals(Long containerId, Rollup delta, Collection<ContainerItem> containerItems) {
+        if (!delta.addsWeight()) {
+            containerRepository.addToTotals(containerId, delta.weight(), delta.value());
+            return;
+        }
+        BigDecimal unfolded = unfoldedWeight(containerItems);
+        if (containerRepository.addToTotalsWithinCapacity(containerId, delta.weight(), delta.value(), unfolded) == 0) {
+            Container container = containerRepository.findById(containerId)
+                    .orElseThrow(() -> new ContainerNotFoundException("Container with ID " + containerId + " not found."));
+            throw overCapacity(container, container.getTotalWeight().add(unfolded), delta);
+        }
+    }
+
+    /**
+     * Checks a delta that only goes into a shard against the weight limit, without writing the container's totals.
+     * Unlike the guarded update this is no atomic check: the container's mutations are serialized by the mutation
+     * queue, but a transfer into the container at the same moment can still overfill it.
+     * @param container The loaded container, with its items.
+     * @throws ValidationException if the delta would put the container over the weight limit of its type.
+     */
+    private void checkCapacity(Container container, Rollup delta) {
+        BigDecimal maxWeight = container.getContainerType() != null ? container.getContainerType().getMaxWeight() : null;
+        if (!delta.addsWeight() || maxWeight == null) {
+            return;
+        }
+        BigDecimal held = container.getTotalWeight().add(unfoldedWeight(container.getContainerItems()));
+        if (held.add(delta.weight()).compareTo(maxWeight) > 0) {
+            throw overCapacity(container, held, delta);
+        }
+    }
+
+    private static BigDecimal unfoldedWeight(Collection<ContainerItem> containerItems) {
+        BigDecimal weight = BigDecimal.ZERO;
+        for (ContainerItem ci : containerItems) {
+            if (ci.getShardedQuantity() != 0) {
+                weight = weight.add(Rollup.unfoldedOf(ci).weight());
+            }
+        }
+        return weight;
+    }
+
+    private static ValidationException overCapacity(Container container, BigDecimal held, Rollup delta) {
+        BigDecimal maxWeight = container.getContainerType().getMaxWeight();
+        return new ValidationException(String.format("'%s' can hold at most %s lb, it already holds %s lb and this would add %s lb.",
+                container.getContainerName(), maxWeight.stripTrailingZeros().toPlainString(),
+                held.stripTrailingZeros().toPlainString(),
+                delta.weight().stripTrailingZeros().toPlainString()));
+    }
+
+    /**
+     * Deletes the given container items with bulk statements: their parent links are cut first so no row is ever
+     * left pointing at a deleted one, whatever order the database works through the rows in.
+     * Clears the persistence context, the caller has to reload any graph it keeps working on.
+     * @param ids The ids of the items, typically a whole subtree.
+     * @return The number of deleted rows.
+     */
+    private int deleteContainerItems(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = 0;
+        for (List<Long> chunk : chunked(ids)) {
+            containerItemRepository.detachFromParents(chunk, now);
+        }
+        for (List<Long> chunk : chunked(ids)) {
+            deleted += containerItemRepository.deleteByIds(chunk);
+        }
+        return deleted;
+    }
+
+    /**
+     * Splits ids for IN lists, keeping each statement well below SQL Server's limit of 2100 parameters.
+     */
+    private static List<List<Long>> chunked(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>((ids.size() + MAX_IDS_PER_STATEMENT - 1) / MAX_IDS_PER_STATEMENT);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_STATEMENT)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Collects an item and all its descendants from the flat list of its container's items, root first.
+     * Only reads the parents' ids, so uninitialized parent proxies stay untouched.
+     */
+    private List<ContainerItem> collectSubtree(ContainerItem root, List<ContainerItem> containerItems) {
+        Map<Long, List<ContainerItem>> childrenByParentId = new HashMap<>();
+        for (ContainerItem ci : containerItems) {
+            if (ci.getParent() != null) {
+                childrenByParentId.computeIfAbsent(ci.getParent().getContainerItemId(), id -> new ArrayList<>()).add(ci);
+            }
+        }
+        List<ContainerItem> subtree = new ArrayList<>();
+        subtree.add(root);
+        for (int i = 0; i < subtree.size(); i++) {
+            subtree.addAll(childrenByParentId.getOrDefault(subtree.get(i).getContainerItemId(), List.of()));
+        }
+        return subtree;
     }
 
     /**
@@ -574,15 +1445,15 @@ public class ContainerServiceImpl implements ContainerService {
         }
         logger.info("Searching for items with prefix '{}' for actor: {}", prefix, actor.getDisplayName());
 
-        List<AutoCompleteProjection> projections = containerItemRepository.findItemsForAutocomplete(prefix, user.getId());
+        ContainerVersionProjection activeContainer = findActiveContainerVersion(user);
+        List<AutoCompleteDto> results = autocompleteCache.containerItems(user.getId(), activeContainer, false,
+                prefix, normalized -> autocompleteByPath(normalized, user, activeContainer, false));
 
-        if (projections.isEmpty()) {
+        if (results.isEmpty()) {
             logger.info("No items found for autocomplete with prefix '{}'.", prefix);
         }
 
-        return projections.stream()
-                .map(p -> new AutoCompleteDto(p.getId(), p.getLabel(), p.getDescription()))
-                .collect(Collectors.toList());
+        return results;
     }
 
     /**
@@ -599,17 +1470,101 @@ public class ContainerServiceImpl implements ContainerService {
         }
         logger.info("Searching for parent items with prefix '{}' for actor: {}", prefix, actor.getDisplayName());
 
-        List<AutoCompleteProjection> projections = containerItemRepository.findParentItemsForAutocomplete(prefix, user.getId());
+        ContainerVersionProjection activeContainer = findActiveContainerVersion(user);
+        List<AutoCompleteDto> results = autocompleteCache.containerItems(user.getId(), activeContainer, true,
+                prefix, normalized -> autocompleteByPath(normalized, user, activeContainer, true));
 
-        if (projections.isEmpty()) {
+        if (results.isEmpty()) {
             logger.info("No parent items found for autocomplete with prefix '{}'.", prefix);
         }
 
-        return projections.stream()
-                .map(p -> new AutoCompleteDto(p.getId(), p.getLabel(), p.getDescription()))
+        return results;
+    }
+
+    /**
+     * The id and version of the user's active container, which scope its cached autocomplete results.
+     * @return The version info, or null if the user has no active container.
+     */
+    private ContainerVersionProjection findActiveContainerVersion(BohUser user) {
+        return containerRepository.findActiveContainerVersionForUser(user).orElse(null);
+    }
+
+    /**
+     * Finds the items in the user's active container whose full path (e.g. "Backpack > Pouch > Potion") contains
+     * the given text. Searches the container's in-memory path index; with the index disabled uses the recursive CTE
+     * on SQL Server, otherwise loads the container's items once and builds the paths in memory. All return at most
+     * {@link #AUTOCOMPLETE_LIMIT} results ordered by path.
+     * @param prefix The text to search for anywhere in the path, case-insensitive.
+     * @param user The user whose active container is searched.
+     * @param activeContainer The id and version of the user's active container, null if there is none.
+     * @param parentsOnly Whether to only return items that can contain other items.
+     * @return The matching items as autocomplete DTOs.
+     */
+    private List<AutoCompleteDto> autocompleteByPath(String prefix, BohUser user, ContainerVersionProjection activeContainer,
+                                                     boolean parentsOnly) {
+        if (pathIndexEnabled) {
+            return activeContainer == null
+                    ? List.of()
+                    : containerPathIndex.search(activeContainer.getContainerId(), activeContainer.getVersion(),
+                            prefix, parentsOnly, AUTOCOMPLETE_LIMIT);
+        }
+        if (nativeRecursiveQueries) {
+            List<AutoCompleteProjection> projections = parentsOnly
+                    ? containerItemRepository.findParentItemsForAutocomplete(prefix, user.getId())
+                    : containerItemRepository.findItemsForAutocomplete(prefix, user.getId());
+            return projections.stream()
+                    .map(p -> new AutoCompleteDto(p.getId(), p.getLabel(), p.getDescription()))
+                    .collect(Collectors.toList());
+        }
+
+        List<ContainerItem> containerItems = containerItemRepository.findAllWithItemInActiveContainer(user);
+        Map<Long, ContainerItem> itemsById = new HashMap<>(containerItems.size() * 2);
+        containerItems.forEach(ci -> itemsById.put(ci.getContainerItemId(), ci));
+        Map<Long, String> pathsById = new HashMap<>(containerItems.size() * 2);
+        String needle = prefix.toLowerCase(Locale.ROOT);
+
+        return containerItems.stream()
+                .filter(ci -> !parentsOnly || ci.getItem().isParent())
+                .map(ci -> new AutoCompleteDto(ci.getContainerItemId(), buildPath(ci, itemsById, pathsById), describeForAutocomplete(ci)))
+                .filter(dto -> dto.getLabel().toLowerCase(Locale.ROOT).contains(needle))
+                .sorted(Comparator.comparing(AutoCompleteDto::getLabel))
+                .limit(AUTOCOMPLETE_LIMIT)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Builds the full path of an item from the already loaded items of its container, memoizing every path on the way
+     * so each ancestor is only resolved once. Only reads the parent's id, so uninitialized parent proxies stay untouched.
+     */
+    private String buildPath(ContainerItem containerItem, Map<Long, ContainerItem> itemsById, Map<Long, String> pathsById) {
+        String cached = pathsById.get(containerItem.getContainerItemId());
+        if (cached != null) {
+            return cached;
+        }
+        ContainerItem parent = containerItem.getParent() != null ? itemsById.get(containerItem.getParent().getContainerItemId()) : null;
+        String path = parent == null
+                ? containerItem.getItem().getItemName()
+                : buildPath(parent, itemsById, pathsById) + " > " + containerItem.getItem().getItemName();
+        pathsById.put(containerItem.getContainerItemId(), path);
+        return path;
+    }
+
+    /**
+     * Same format as the description column of {@link ContainerItemRepository#AUTOCOMPLETE_CTE} queries,
+     * e.g. "[id:343] x5 A special potion".
+     */
+    private String describeForAutocomplete(ContainerItem containerItem) {
+        StringBuilder description = new StringBuilder();
+        description.append("[id:").append(containerItem.getContainerItemId()).append("] ");
+        if (containerItem.getQuantity() != null) {
+            description.append('x').append(containerItem.getQuantity()).append(' ');
+        }
+        if (containerItem.getUserNote() != null) {
+            description.append(containerItem.getUserNote());
+        }
+        return description.toString();
+    }
+
     /**
      * Activates a container for a given owner, setting it as the primary container.
      *
@@ -618,18 +1573,135 @@ public class ContainerServiceImpl implements ContainerService {
      * @return A DTO of the newly activated container.
      */
     private ContainerSummaryDto activate(BohUser user, Container containerToActivate) {
+        BohUser managedUser = markActive(user, containerToActivate);
+        // lastActiveDateTime is part of the view, so activating counts as a change.
+        bumpVersion(containerToActivate);
+
+        return toStoredSummaryDto(containerToActivate, managedUser);
+    }
+
+    /**
+     * Sets the container as the user's primary container, leaving the version bump to the caller.
+     * @param user The user for whom to activate the container.
+     * @param containerToActivate The container to make active.
+     * @return The managed user, whose primary container is now the given one.
+     */
+    private BohUser markActive(BohUser user, Container containerToActivate) {
         BohUser managedUser = bohUserRepository.findByIdWithPrimaryContainer(user.getId())
                 .orElseThrow(() -> new OwnerNotFoundException("User with ID " + user.getId() + " not found."));
 
         logger.info("Setting container '{}' as primary for user '{}'",
                 containerToActivate.getContainerName(), managedUser.getDisplayName());
 
-        containerToActivate.setLastActiveDateTime(LocalDateTime.now());
+        // Only the loaded copy; the stamp itself is written behind once the activation committed.
+        LocalDateTime now = LocalDateTime.now();
+        containerToActivate.setLastActiveDateTime(now);
+        activityTracker.recordContainerActivity(containerToActivate.getContainerId(), now);
+        // The autocomplete lists the owner's containers by last activity.
+        autocompleteCache.containersChanged(containerToActivate.getOwner().getId());
         managedUser.setPrimaryContainer(containerToActivate);
         ownerRepository.save(managedUser);
+        return managedUser;
+    }
+
+    /**
+     * Loads the user's active container with its items and their children, the graph every item operation works on.
+     * @param user The user whose active container to load.
+     * @return The active container.
+     * @throws ContainerNotFoundException if the user has no active container.
+     */
+    private Container loadActiveContainerGraph(BohUser user) {
+        // Step 1: Fetch the container and all its associated items in a single query.
+        // This avoids the MultipleBagFetchException and Cartesian product issues.
+        Container activeContainer = containerRepository.findActiveContainerWithItemsForUser(user)
+                .orElseThrow(() -> new ContainerNotFoundException("No active container found for user " + user.getDisplayName()));
+        return fetchChildren(activeContainer);
+    }
+
+    /**
+     * Loads a container with its items and their children.
+     * @param id The ID of the container to load.
+     * @return The container.
+     * @throws ContainerNotFoundException if the container does not exist.
+     */
+    private Container loadContainerGraph(Long id) {
+        Container container = containerRepository.findByIdWithItems(id)
+                .orElseThrow(() -> new ContainerNotFoundException("Container with id " + id + " not found."));
+        return fetchChildren(container);
+    }
+
+    private Container fetchChildren(Container container) {
+        // Step 2: If there are items, fetch all their direct children and the children's associated item data
+        // in a second, efficient query.
+        if (!container.getContainerItems().isEmpty()) {
+            containerItemRepository.fetchChildrenForContainerItems(container.getContainerItems());
+        }
+        return container;
+    }
+
+    /**
+     * Flushes a mutated container, then bumps its version and records the changes under the new version.
+     * @param container The container that was changed.
+     * @param changes The change log entries for the mutation.
+     * @return The saved container.
+     */
+    private Container commitMutation(Container container, List<ContainerChange> changes) {
+        Container savedContainer = containerRepository.saveAndFlush(container);
+        bumpVersion(savedContainer);
+        containerChangeService.recordChanges(savedContainer, changes);
+        return savedContainer;
+    }
+
+    /**
+     * Marks the container as changed after its new state has been flushed, and copies the new version onto the
+     * managed instance so the returned DTO (and its ETag) matches what a following GET will see.
+     * @param container The container that changed.
+     */
+    private void bumpVersion(Container container) {
+        container.setVersion(bumpVersion(container.getContainerId()));
+    }
 
+    /**
+     * Marks a container that was changed through bulk updates as changed.
+     * @param containerId The container that changed.
+     * @return The container's new version.
+     */
+    private Long bumpVersion(Long containerId) {
+        containerRepository.incrementVersion(containerId);
+        return containerRepository.findVersionById(containerId)
+                .orElseThrow(() -> new ContainerNotFoundException("Container with id " + containerId + " not found."));
+    }
 
-        return containerMapper.toSummaryDto(containerToActivate, managedUser);
+    /**
+     * Maps a container to its summary DTO, charging the time (including any lazy loading it triggers)
+     * to the mapping phase of the request timings.
+     * @param container The container to map.
+     * @param userContext The user whose active container decides the 'active' flag, may be null.
+     * @return The mapped DTO.
+     */
+    private ContainerSummaryDto toSummaryDto(Container container, BohUser userContext) {
+        ContainerSummaryDto summaryDto;
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.MAP)) {
+            summaryDto = containerMapper.toSummaryDto(container, userContext);
+        }
+        // A container loaded before its activation stamp was written shows the pending one.
+        activityTracker.pendingContainerActivity(container.getContainerId())
+                .filter(pending -> summaryDto.getLastActiveDateTime() == null || pending.isAfter(summaryDto.getLastActiveDateTime()))
+                .ifPresent(summaryDto::setLastActiveDateTime);
+        return summaryDto;
+    }
+
+    /**
+     * Maps a container whose items are all loaded and stores the result as its summary, see
+     * {@link ContainerSummaryService#storeSummary}.
+     * @param container The container to map, at its current version.
+     * @param userContext The user whose active container decides the 'active' flag, may be null.
+     * @return The mapped DTO.
+     */
+    private ContainerSummaryDto toStoredSummaryDto(Container container, BohUser userContext) {
+        ContainerSummaryDto summaryDto = toSummaryDto(container, userContext);
+        containerSummaryService.storeSummary(summaryDto);
+        return summaryDto;
     }
 
     /**
@@ -644,16 +1716,25 @@ public class ContainerServiceImpl implements ContainerService {
      * @throws AmbiguousResourceException if the specified ContainerItem name matches multiple items.
      * @throws ValidationException if neither an ID nor a name is provided.
      */
-    private ContainerItem findContainerItem(Long id, String name, Container container) {
+    ContainerItem findContainerItem(Long id, String name, Container container) {
+        return lookupContainerItem(id, name, container).orElseThrow();
+    }
+
+    /**
+     * Looks up a specific ContainerItem within a given container without throwing.
+     * Same rules as {@link #findContainerItem}, but failures are returned as an outcome and message.
+     */
+    ContainerItemLookup lookupContainerItem(Long id, String name, Container container) {
         if (id == null && (name == null || name.isBlank())) {
-            throw new ValidationException("An item ID or name must be provided to identify the item.");
+            return ContainerItemLookup.invalid("An item ID or name must be provided to identify the item.");
         }
 
         if (id != null) {
             return container.getContainerItems().stream()
                     .filter(ci -> id.equals(ci.getContainerItemId()))
                     .findFirst()
-                    .orElseThrow(() -> new ItemNotFoundException("Item with ID " + id + " not found in container '" + container.getContainerName() + "'."));
+                    .map(ContainerItemLookup::found)
+                    .orElseGet(() -> ContainerItemLookup.notFound("Item with ID " + id + " not found in container '" + container.getContainerName() + "'."));
         } else { // TODO fix find by name to check both item's name and item's fully qualified location name (mapItemName)
                 //   because if no id, then autocomplete failed and might have just typed base name
             List<ContainerItem> potentialItems = container.getContainerItems().stream()
@@ -661,26 +1742,33 @@ public class ContainerServiceImpl implements ContainerService {
                     .toList();
 
             if (potentialItems.isEmpty()) {
-                throw new ItemNotFoundException("Item named '" + name + "' not found in container '" + container.getContainerName() + "'.");
+                return ContainerItemLookup.notFound("Item named '" + name + "' not found in container '" + container.getContainerName() + "'.");
             }
             if (potentialItems.size() > 1) {
-                throw new AmbiguousResourceException("Multiple items found with the name '" + name + "'. Please be more specific or use the item's unique ID.");
+                return ContainerItemLookup.ambiguous("Multiple items found with the name '" + name + "'. Please be more specific or use the item's unique ID.");
             }
-            return potentialItems.get(0);
+            return ContainerItemLookup.found(potentialItems.get(0));
         }
     }
 
     /**
-     * Finds a potential parent ContainerItem. This is a "soft-failing" method for optional parents.
-     * It returns an empty Optional if no parent is specified.
-     * It "hard-fails" by throwing an exception if an *invalid* or *ambiguous* parent is specified.
+     * Resolves an optional parent for a new item. This is a "soft-failing" method: it returns null (the container root)
+     * when no parent is specified, and also when the specified parent is missing, ambiguous or cannot hold items,
+     * logging the reason in that case. Nothing is thrown, so a bad parent costs no more than a good one.
      */
-    private Optional<ContainerItem> findOptionalParentItem(Long id, String name, Container container) {
+    ContainerItem resolveParentOrRoot(Long id, String name, Container container) {
         if (id == null && (name == null || name.isBlank())) {
-            return Optional.empty(); // No parent was specified, which is valid.
+            return null; // No parent was specified, which is valid.
+        }
+        ContainerItemLookup lookup = lookupContainerItem(id, name, container);
+        String reason = lookup.isFound()
+                ? parentageViolation(null, lookup.getItem()).orElse(null)
+                : lookup.getMessage();
+        if (reason != null) {
+            logger.warn("Invalid parent specified when adding item. Defaulting to container root. Reason: {}", reason);
+            return null;
         }
-        // A parent was specified, so use the hard-failing finder to locate it.
-        return Optional.of(findContainerItem(id, name, container));
+        return lookup.getItem();
     }
 
     /**
@@ -689,22 +1777,34 @@ public class ContainerServiceImpl implements ContainerService {
      * @param newParent The potential new parent for the item.
      * @throws ValidationException if any parenting rule is violated.
      */
-    private void validateParentage(ContainerItem itemToMove, ContainerItem newParent) {
+    void validateParentage(ContainerItem itemToMove, ContainerItem newParent) {
+        Optional<String> violation = parentageViolation(itemToMove, newParent);
+        if (violation.isPresent()) {
+            throw new ValidationException(violation.get());
+        }
+    }
+
+    /**
+     * The parenting rules behind {@link #validateParentage}, returning the first broken rule instead of throwing.
+     * @return A message describing the violated rule, or empty if the move is allowed.
+     */
+    Optional<String> parentageViolation(ContainerItem itemToMove, ContainerItem newParent) {
         // Rule 1: A new parent must be a parent-type item.
         if (!newParent.getItem().isParent()) {
-            throw new ValidationException("Item '" + containerItemMapper.mapItemName(newParent) + "' cannot contain other items.");
+            return Optional.of("Item '" + containerItemMapper.mapItemName(newParent) + "' cannot contain other items.");
         }
         // Rule 2: An item cannot be its own parent.
         if (itemToMove != null && newParent.getContainerItemId().equals(itemToMove.getContainerItemId())) {
-            throw new ValidationException("An item cannot be its own parent.");
+            return Optional.of("An item cannot be its own parent.");
         }
         // Rule 3: An item cannot be moved into one of its own descendants (circular dependency).
         ContainerItem current = newParent;
         while (current != null) {
             if (itemToMove != null && current.getContainerItemId().equals(itemToMove.getContainerItemId())) {
-                throw new ValidationException("Cannot move item into one of its own descendants, as this would create a circular reference.");
+                return Optional.of("Cannot move item into one of its own descendants, as this would create a circular reference.");
             }
             current = current.getParent();
         }
+        return Optional.empty();
     }
 }
@@ -0,0 +1,279 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerChangesDto;
+import com.botofholding.api.Domain.Event.ContainerChangedEvent;
+import com.botofholding.api.ExceptionHandling.ContainerNotFoundException;
+import com.botofholding.api.ExceptionHandling.SubscriptionLimitException;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Service.Interfaces.ContainerChangeService;
+import com.botofholding.api.Service.Interfaces.ContainerSubscriptionService;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed container changes to Server-Sent Events subscribers.
+ * <p>
+ * Changes are fanned out in-process after the changing transaction committed. Each subscriber has a small bounded
+ * queue drained by a shared sender pool, so a slow client never blocks the request that changed the container or
+ * the other subscribers. When a subscriber's queue overflows its pending events are dropped and replaced by a
+ * single {@code reset} event: the client reloads the container (or catches up from the change log) instead.
+ */
+@Service
+public class ContainerSubscriptionServiceImpl implements ContainerSubscriptionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerSubscriptionServiceImpl.class);
+
+    static final String CHANGES_EVENT = "changes";
+    static final String RESET_EVENT = "reset";
+    static final String DELETED_EVENT = "deleted";
+
+    private final ContainerRepository containerRepository;
+    private final ContainerChangeService containerChangeService;
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final ExecutorService sender;
+
+    private final Map<Long, Set<Subscriber>> subscribersByContainer = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Autowired
+    public ContainerSubscriptionServiceImpl(ContainerRepository containerRepository,
+                                            ContainerChangeService containerChangeService,
+                                            @Value("${boh.sse.timeout-ms:1800000}") long timeoutMs,
+                                            @Value("${boh.sse.buffer-size:64}") int bufferSize,
+                                            @Value("${boh.sse.max-subscribers:1000}") int maxSubscribers,
+                                            @Value("${boh.sse.sender-threads:4}") int senderThreads) {
+        this.containerRepository = containerRepository;
+        this.containerChangeService = containerChangeService;
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a change stream for a container. The first event tells the client where it stands: the changes since
+     * {@code lastSeenVersion} when given (e.g. from the {@code Last-Event-ID} of a reconnect), otherwise a
+     * {@code reset} carrying the current version. Event ids are container versions. Because the subscriber is
+     * registered before that first event is built, a change may arrive twice; clients skip versions they already have.
+     * @param containerId The container to follow.
+     * @param lastSeenVersion The version the client already has, may be null.
+     * @return The emitter the controller hands back to Spring MVC.
+     */
+    @Override
+    public SseEmitter subscribe(@NotNull @Min(1) Long containerId, Long lastSeenVersion) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriptionLimitException("Too many open container streams, poll GET /api/containers/" + containerId + "/changes instead.");
+        }
+        Long version;
+        try {
+            version = containerRepository.findVersionById(containerId)
+                    .orElseThrow(() -> new ContainerNotFoundException("Container with id " + containerId + " not found."));
+        } catch (RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(containerId, emitter);
+        // Register and unregister inside compute() so a closing subscriber can't drop the set another one just joined.
+        subscribersByContainer.compute(containerId, (id, subscribers) -> {
+            Set<Subscriber> joined = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            joined.add(subscriber);
+            return joined;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.close());
+
+        try {
+            ContainerChangesDto initial = lastSeenVersion != null
+                    ? containerChangeService.findChangesSince(containerId, lastSeenVersion)
+                    : new ContainerChangesDto(containerId, version, true, List.of());
+            subscriber.offer(initial.isResetRequired()
+                    ? event(RESET_EVENT, initial.getVersion(), initial)
+                    : event(CHANGES_EVENT, initial.getVersion(), initial));
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        logger.info("Opened change stream for container {} ({} open streams).", containerId, subscriberCount.get());
+        return emitter;
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Fans a change out to the container's subscribers once the changing transaction has committed.
+     * Only enqueues, the sender pool does the writing.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContainerChanged(ContainerChangedEvent changedEvent) {
+        Set<Subscriber> subscribers = subscribersByContainer.get(changedEvent.containerId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        SseEmitter.SseEventBuilder event = changedEvent.deleted()
+                ? SseEmitter.event().name(DELETED_EVENT).data(changedEvent.containerId())
+                : event(CHANGES_EVENT, changedEvent.version(),
+                        new ContainerChangesDto(changedEvent.containerId(), changedEvent.version(), false, changedEvent.changes()));
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+            if (changedEvent.deleted()) {
+                subscriber.completeAfterDrain();
+            }
+        }
+    }
+
+    /**
+     * Sends a comment line to every subscriber so proxies keep the connection open and dead clients are noticed.
+     */
+    @Scheduled(initialDelayString = "${boh.sse.heartbeat-interval-ms:15000}",
+            fixedDelayString = "${boh.sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        SseEmitter.SseEventBuilder heartbeat = SseEmitter.event().comment("keep-alive");
+        subscribersByContainer.values().forEach(subscribers -> subscribers.forEach(s -> s.offer(heartbeat)));
+    }
+
+    /**
+     * Ends every stream as soon as shutdown begins. Open streams count as active requests, so the web server's
+     * graceful shutdown would otherwise wait for its full timeout; clients reconnect elsewhere with Last-Event-ID.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        subscribersByContainer.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, Long version, ContainerChangesDto data) {
+        return SseEmitter.event()
+                .name(name)
+                .id(String.valueOf(version))
+                .data(data, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * One open stream: a bounded queue of pending events, drained by at most one sender task at a time.
+     */
+    private final class Subscriber {
+        private final Long containerId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile boolean completeAfterDrain;
+
+        private Subscriber(Long containerId, SseEmitter emitter) {
+            this.containerId = containerId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!pending.offer(event)) {
+                // The client can't keep up: drop what it hasn't received yet and tell it to resync instead.
+                overflowed = true;
+                pending.clear();
+            }
+            scheduleDrain();
+        }
+
+        void completeAfterDrain() {
+            completeAfterDrain = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false); // Shutting down.
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                if (overflowed) {
+                    overflowed = false;
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data(containerId));
+                }
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    emitter.send(event);
+                }
+                if (completeAfterDrain) {
+                    emitter.complete();
+                    close();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away (or the emitter already completed).
+                logger.debug("Dropping change stream for container {}: {}", containerId, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && (!pending.isEmpty() || overflowed)) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                pending.clear();
+                subscribersByContainer.computeIfPresent(containerId, (id, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.Container;
+import com.botofholding.api.Domain.Entity.ContainerSummary;
+import com.botofholding.api.Mapper.ContainerMapper;
+import com.botofholding.api.Repository.ContainerItemRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Repository.ContainerSummaryRepository;
+import com.botofholding.api.Service.Interfaces.ContainerSummaryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps one serialized {@link ContainerSummaryDto} per container, so the container GETs read a single row instead of
+ * rebuilding the DTO from the container, item, catalog and owner tables.
+ * Mutations store the DTO they already return in their own transaction. Anything that changes a container without
+ * producing its DTO (transfers, multi-container batches, owner renames) leaves the row behind the container's
+ * version, which makes readers fall back to the tables, and the scheduled rebuild repairs it.
+ */
+@Service
+public class ContainerSummaryServiceImpl implements ContainerSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerSummaryServiceImpl.class);
+
+    private final ContainerSummaryRepository containerSummaryRepository;
+    private final ContainerRepository containerRepository;
+    private final ContainerItemRepository containerItemRepository;
+    private final ContainerMapper containerMapper;
+    private final ObjectMapper objectMapper;
+    private final int rebuildBatchSize;
+    private final long maxAgeHours;
+
+    @Autowired
+    public ContainerSummaryServiceImpl(ContainerSummaryRepository containerSummaryRepository,
+                                       ContainerRepository containerRepository,
+                                       ContainerItemRepository containerItemRepository,
+                                       ContainerMapper containerMapper,
+                                       ObjectMapper objectMapper,
+                                       @Value("${boh.summary.rebuild-batch-size:100}") int rebuildBatchSize,
+                                       @Value("${boh.summary.max-age-hours:24}") long maxAgeHours) {
+        this.containerSummaryRepository = containerSummaryRepository;
+        this.containerRepository = containerRepository;
+        this.containerItemRepository = containerItemRepository;
+        this.containerMapper = containerMapper;
+        this.objectMapper = objectMapper;
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.maxAgeHours = maxAgeHours;
+    }
+
+    /**
+     * Reads a container's summary, if the stored one is still current. The 'active' flag is left for the caller.
+     * @param containerId The container to read.
+     * @return The summary, or empty if the caller has to build it from the tables.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ContainerSummaryDto> findCurrentSummary(Long containerId) {
+        return containerSummaryRepository.findCurrentJsonById(containerId).flatMap(this::fromJson);
+    }
+
+    /**
+     * Reads the summary of the user's active container, if the stored one is still current.
+     * @param user The user whose active container to read.
+     * @return The summary, already marked active, or empty if the caller has to build it from the tables.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ContainerSummaryDto> findCurrentActiveSummary(BohUser user) {
+        Optional<ContainerSummaryDto> summary = containerSummaryRepository.findCurrentJsonForActiveContainer(user).flatMap(this::fromJson);
+        summary.ifPresent(dto -> dto.setActive(true));
+        return summary;
+    }
+
+    /**
+     * Creates the summary row of a new container. Joins the caller's transaction.
+     * @param summaryDto The new container's DTO.
+     */
+    @Override
+    @Transactional
+    public void createSummary(ContainerSummaryDto summaryDto) {
+        ContainerSummary summary = new ContainerSummary();
+        summary.setContainerId(summaryDto.getContainerId());
+        summary.setVersion(summaryDto.getVersion());
+        summary.setSummaryJson(toJson(summaryDto));
+        summary.setRefreshedDateTime(LocalDateTime.now());
+        containerSummaryRepository.save(summary);
+    }
+
+    /**
+     * Replaces a container's summary with the DTO a mutation produced. Joins the caller's transaction, so the
+     * summary commits or rolls back together with the mutation. A summary already holding a newer version is kept.
+     * @param summaryDto The container's DTO, mapped after its version was bumped.
+     */
+    @Override
+    @Transactional
+    public void storeSummary(ContainerSummaryDto summaryDto) {
+        int updated = containerSummaryRepository.updateIfNotNewer(summaryDto.getContainerId(), summaryDto.getVersion(),
+                toJson(summaryDto), LocalDateTime.now());
+        if (updated == 0) {
+            logger.debug("No summary row of container {} at or below version {}, leaving it to the rebuild.",
+                    summaryDto.getContainerId(), summaryDto.getVersion());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deleteSummary(Long containerId) {
+        containerSummaryRepository.deleteById(containerId);
+    }
+
+    /**
+     * Expires the summaries of all of an owner's containers, for owner changes (e.g. a new display name) that are part
+     * of the summaries but don't bump the containers' versions.
+     * @param ownerId The owner whose containers changed.
+     */
+    @Override
+    @Transactional
+    public void expireSummariesForOwner(Long ownerId) {
+        containerSummaryRepository.expireByOwnerId(ownerId);
+    }
+
+    /**
+     * Rebuilds one batch of missing, out of date and expired summaries from the tables, and drops the summaries of
+     * deleted containers. The age limit catches changes that bump no version, like catalog edits.
+     * @return The number of rebuilt summaries.
+     */
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${boh.summary.rebuild-interval-ms:300000}",
+            fixedDelayString = "${boh.summary.rebuild-interval-ms:300000}")
+    public int rebuildStaleSummaries() {
+        int orphans = containerSummaryRepository.deleteOrphans();
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(maxAgeHours);
+        List<Long> ids = containerSummaryRepository.findContainerIdsNeedingRebuild(cutoff, PageRequest.of(0, rebuildBatchSize));
+
+        int rebuilt = 0;
+        for (Long id : ids) {
+            Optional<Container> container = containerRepository.findByIdWithItems(id);
+            if (container.isEmpty()) {
+                continue;
+            }
+            if (!container.get().getContainerItems().isEmpty()) {
+                containerItemRepository.fetchChildrenForContainerItems(container.get().getContainerItems());
+            }
+            ContainerSummaryDto summaryDto = containerMapper.toSummaryDto(container.get(), null);
+            if (containerSummaryRepository.existsById(id)) {
+                storeSummary(summaryDto);
+            } else {
+                createSummary(summaryDto);
+            }
+            rebuilt++;
+        }
+        if (rebuilt > 0 || orphans > 0) {
+            logger.info("Rebuilt {} container summaries, dropped {} orphaned ones.", rebuilt, orphans);
+        }
+        return rebuilt;
+    }
+
+    private String toJson(ContainerSummaryDto summaryDto) {
+        try {
+            return objectMapper.writeValueAsString(summaryDto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the summary of container " + summaryDto.getContainerId(), e);
+        }
+    }
+
+    private Optional<ContainerSummaryDto> fromJson(String json) {
+        try {
+            return Optional.of(objectMapper.readValue(json, ContainerSummaryDto.class));
+        } catch (JsonProcessingException e) {
+            // Written by an older DTO shape, say. Read from the tables and let the rebuild replace it.
+            logger.warn("Could not read a stored container summary, falling back to the tables: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.DTO.Response.StandardApiResponse;
+import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.ExceptionHandling.DuplicateResourceException;
+import com.botofholding.api.ExceptionHandling.ValidationException;
+import com.botofholding.api.Service.Interfaces.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Answers retried mutations from memory. The bot sends the Discord interaction id as {@code Idempotency-Key} and
+ * resends the same request when it times out; the first request runs, every retry with the same key gets the
+ * response the first one produced, without going near the container.
+ * <p>
+ * Keys are scoped to the actor and the endpoint, and remembered for a limited time in a bounded store, oldest first
+ * out. Only successful responses are remembered: a request that failed ran nothing, so its retry runs again.
+ * A retry arriving while the first request is still running waits for its response.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long waitTimeoutMs;
+    // Insertion order is expiry order, since every entry lives equally long. Guarded by itself.
+    private final LinkedHashMap<StoreKey, Entry> entries = new LinkedHashMap<>();
+
+    @Autowired
+    public IdempotencyServiceImpl(@Value("${boh.idempotency.max-entries:10000}") int maxEntries,
+                                  @Value("${boh.idempotency.ttl-seconds:900}") long ttlSeconds,
+                                  @Value("${boh.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * Runs a mutation once per idempotency key.
+     * @param key The client's Idempotency-Key header, null to simply run the action.
+     * @param actor The user sending the request; keys of different users never collide.
+     * @param operation The endpoint, e.g. "POST /api/containers/active/items".
+     * @param action Runs the mutation and builds its response.
+     * @return The action's response, or for a retry the response of the first request with the key, marked with
+     *         an Idempotent-Replayed header.
+     * @throws ValidationException if the key is blank or too long.
+     * @throws DuplicateResourceException if the first request with the key is still running after the wait timeout.
+     */
+    @Override
+    public <T> ResponseEntity<StandardApiResponse<T>> execute(String key, Owner actor, String operation,
+                                                              Supplier<ResponseEntity<StandardApiResponse<T>>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("The Idempotency-Key header must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        StoreKey storeKey = new StoreKey(actor.getId(), operation, key);
+        Entry entry = new Entry(System.nanoTime());
+        Entry existing;
+        synchronized (entries) {
+            evictExpired(entry.createdNanos);
+            existing = entries.putIfAbsent(storeKey, entry);
+            if (existing == null && entries.size() > maxEntries) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        if (existing != null) {
+            logger.info("Replaying {} for idempotency key '{}' of owner {}.", operation, key, actor.getId());
+            return replay(existing);
+        }
+
+        ResponseEntity<StandardApiResponse<T>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            forget(storeKey, entry);
+            entry.response.completeExceptionally(ex);
+            throw ex;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            forget(storeKey, entry);
+        }
+        entry.response.complete(response);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<StandardApiResponse<T>> replay(Entry entry) {
+        ResponseEntity<?> original;
+        try {
+            original = entry.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException("A request with this Idempotency-Key is still being processed, please try again.");
+        } catch (ExecutionException e) {
+            // The first request failed and its key was dropped; fail the same way it did.
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the first request with the same Idempotency-Key.", e);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(original.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>((StandardApiResponse<T>) original.getBody(), headers, original.getStatusCode());
+    }
+
+    private void forget(StoreKey storeKey, Entry entry) {
+        synchronized (entries) {
+            entries.remove(storeKey, entry);
+        }
+    }
+
+    /**
+     * Drops the entries older than the time to live. Must hold the lock on {@link #entries}.
+     */
+    private void evictExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry oldest = it.next();
+            if (now - oldest.createdNanos < ttlNanos) {
+                return;
+            }
+            it.remove();
+        }
+    }
+
+    private record StoreKey(Long actorId, String operation, String key) {}
+
+    private static final class Entry {
+        private final long createdNanos;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Entry(long createdNanos) {
+            this.createdNanos = createdNanos;
+        }
+    }
+}
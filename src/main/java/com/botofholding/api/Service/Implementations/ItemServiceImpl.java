@@ -1,25 +1,41 @@
 package com.botofholding.api.Service.Implementations;
 
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.CursorPageDto;
 import com.botofholding.api.Domain.DTO.Response.ItemSummaryDto;
 import com.botofholding.api.Domain.Entity.BohUser;
 import com.botofholding.api.Domain.Entity.Item;
 import com.botofholding.api.Domain.Entity.Owner;
 import com.botofholding.api.ExceptionHandling.ItemNotFoundException;
 import com.botofholding.api.Mapper.ItemMapper;
+import com.botofholding.api.Observability.RequestTimings;
 import com.botofholding.api.Repository.ItemRepository;
+import com.botofholding.api.Service.Interfaces.AutocompleteCache;
 import com.botofholding.api.Service.Interfaces.ItemService;
+import com.botofholding.api.Service.Interfaces.ItemUsageTracker;
+import com.botofholding.api.Service.Interfaces.QueryCoalescer;
+import com.botofholding.api.Utility.PageCursor;
 import com.botofholding.api.Utility.ResponseBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -28,13 +44,40 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemServiceImpl.class);
+
+    /** The row limit of the item autocomplete. */
+    private static final int RESULT_LIMIT = 25;
+
+    // Weights of the autocomplete ranking. A better kind of match (3 exact, 2 name prefix, 1 word prefix, 0 anywhere)
+    // outweighs a closer owner (2 user, 1 guild, 0 system); popularity counts by powers of two of decayed adds.
+    private static final double MATCH_WEIGHT = 4;
+    private static final double OWNER_WEIGHT = 1;
+    private static final double POPULARITY_WEIGHT = 1;
+
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final QueryCoalescer queryCoalescer;
+    private final AutocompleteCache autocompleteCache;
+    private final ItemUsageTracker itemUsageTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${boh.pagination.page-size:50}")
+    private int defaultPageSize = 50;
+    @Value("${boh.pagination.max-page-size:200}")
+    private int maxPageSize = 200;
 
     @Autowired
-    public ItemServiceImpl(ItemRepository itemRepository, ItemMapper itemMapper) {
+    public ItemServiceImpl(ItemRepository itemRepository, ItemMapper itemMapper, EntityManagerFactory entityManagerFactory,
+                           QueryCoalescer queryCoalescer, AutocompleteCache autocompleteCache,
+                           ItemUsageTracker itemUsageTracker, PlatformTransactionManager transactionManager) {
         this.itemRepository = itemRepository;
         this.itemMapper = itemMapper;
+        this.entityManagerFactory = entityManagerFactory;
+        this.queryCoalescer = queryCoalescer;
+        this.autocompleteCache = autocompleteCache;
+        this.itemUsageTracker = itemUsageTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -45,28 +88,106 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new ItemNotFoundException("Item with id " + id + " not found."));
     }
 
+    /**
+     * Finds one page of the items accessible to the owners, ordered by name.
+     * @param name The exact (case-insensitive) name to filter by, null or blank for all items.
+     * @param cursor The cursor of the previous page, null for the first page.
+     * @param limit The page size, null for the default.
+     * @param actor The user making the request.
+     * @param principal The guild the request was made in or the actor if not in a guild.
+     * @return The page and the cursor of the next one.
+     */
     @Override
     @Transactional
-    public List<ItemSummaryDto> findItemsForPrincipalAndActor(String name, Owner actor, Owner principal) {
+    public CursorPageDto<ItemSummaryDto> findItemsForPrincipalAndActor(String name, String cursor, Integer limit, Owner actor, Owner principal) {
         logger.info("Searching for items with name '{}' for owners: {} & {}", name, actor.getDisplayName(), principal.getDisplayName());
-        Pageable top50 = Pageable.ofSize(50);
-        
-        return searchAndMapItems(
-                () -> itemRepository.findAllByNameForOwners(name, actor, principal, top50),
+        String effectiveName = (name != null && name.isBlank()) ? null : name;
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(limit, defaultPageSize, maxPageSize);
+        // One row more than the page tells whether there is a next page.
+        Pageable pageable = Pageable.ofSize(pageSize + 1);
+
+        List<ItemSummaryDto> rows = searchAndMapItems(
+                () -> after == null
+                        ? itemRepository.findPageForOwners(effectiveName, actor, principal, pageable)
+                        : itemRepository.findPageForOwnersAfter(effectiveName, actor, principal, after.key(), after.id(), pageable),
                 name,
                 itemMapper::toSummaryDto);
+        return PageCursor.page(rows, pageSize, item -> new PageCursor(item.getItemName(), item.getItemId()));
     }
 
+    /**
+     * Answered from the autocomplete cache when possible. Identical lookups missing it at the same time (a guild
+     * typing the same prefix) share one query. The transaction is only opened by the call that runs it, so the
+     * waiting ones don't hold a connection.
+     * <p>
+     * The matches, together with the items the owners use most, are ranked by how well they match, whose they are
+     * and how often the actor and principal added them lately, see {@link #rank}. The ranking runs after the cache,
+     * so it always uses the current usage.
+     */
     @Override
-    @Transactional
     public List<AutoCompleteDto> autocompleteItemsForPrincipalAndActor(String prefix, Owner actor, Owner principal) {
         logger.info("Searching for items with prefix '{}' for owners: {} & {}", prefix, actor.getDisplayName(), principal.getDisplayName());
-        Pageable top25 = Pageable.ofSize(25);
+        Pageable top25 = Pageable.ofSize(RESULT_LIMIT);
+
+        List<ItemMatch> matches = autocompleteCache.items(actor, principal, prefix, match -> match.dto().getLabel(),
+                normalized -> queryCoalescer.coalesce("item-autocomplete",
+                        Arrays.asList(actor.getId(), principal.getId(), normalized),
+                        () -> transactionTemplate.execute(status -> List.copyOf(searchAndMapItems(
+                                () -> itemRepository.findAllByNameLikeForOwners(normalized, actor, principal, top25),
+                                normalized,
+                                item -> new ItemMatch(itemMapper.toAutoCompleteDto(item),
+                                        ItemUsageTracker.creatorRank(item.getCreatedBy())))))));
+        String normalizedPrefix = prefix.toLowerCase(Locale.ROOT);
+        return rank(normalizedPrefix, matches, itemUsageTracker.findUsed(actor, principal, normalizedPrefix));
+    }
+
+    /**
+     * Blends the query matches and the used items into the top results. Ties go by name, then owner, then id.
+     * @param normalizedPrefix The lower-cased prefix.
+     * @param matches The matches of the query, alphabetical and limited, so they can miss popular items.
+     * @param used The used items matching the prefix, by id.
+     */
+    private List<AutoCompleteDto> rank(String normalizedPrefix, List<ItemMatch> matches, Map<Long, ItemUsageTracker.UsedItem> used) {
+        Map<Long, Ranked> candidates = new HashMap<>();
+        for (ItemMatch match : matches) {
+            ItemUsageTracker.UsedItem usage = used.get(match.dto().getId());
+            candidates.put(match.dto().getId(), new Ranked(match.dto(), match.creatorRank(),
+                    score(normalizedPrefix, match.dto().getLabel(), match.creatorRank(), usage == null ? 0 : usage.popularity())));
+        }
+        used.values().forEach(usage -> candidates.computeIfAbsent(usage.itemId(), id -> new Ranked(
+                new AutoCompleteDto(id, usage.itemName(), usage.creatorName()), usage.creatorRank(),
+                score(normalizedPrefix, usage.itemName(), usage.creatorRank(), usage.popularity()))));
 
-        return searchAndMapItems(
-                () -> itemRepository.findAllByNameLikeForOwners(prefix, actor, principal, top25),
-                prefix,
-                itemMapper::toAutoCompleteDto);
+        return candidates.values().stream()
+                .sorted(Comparator.comparingDouble(Ranked::score).reversed()
+                        .thenComparing(ranked -> ranked.dto().getLabel(), String.CASE_INSENSITIVE_ORDER)
+                        .thenComparingInt(Ranked::creatorRank)
+                        .thenComparing(ranked -> ranked.dto().getId()))
+                .limit(RESULT_LIMIT)
+                .map(Ranked::dto)
+                .toList();
+    }
+
+    private static double score(String normalizedPrefix, String name, int creatorRank, double popularity) {
+        return MATCH_WEIGHT * matchQuality(normalizedPrefix, name.toLowerCase(Locale.ROOT))
+                + OWNER_WEIGHT * (3 - creatorRank)
+                + POPULARITY_WEIGHT * Math.log1p(popularity) / Math.log(2);
+    }
+
+    private static int matchQuality(String normalizedPrefix, String normalizedName) {
+        if (normalizedName.equals(normalizedPrefix)) {
+            return 3;
+        }
+        if (normalizedName.startsWith(normalizedPrefix)) {
+            return 2;
+        }
+        for (int at = normalizedName.indexOf(normalizedPrefix); at > 0; at = normalizedName.indexOf(normalizedPrefix, at + 1)) {
+            if (!Character.isLetterOrDigit(normalizedName.charAt(at - 1))) {
+                return 1;
+            }
+        }
+        return 0;
     }
 
 
@@ -86,8 +207,31 @@ public class ItemServiceImpl implements ItemService {
             logger.info("No items found for search term '{}'.", searchTerm);
         }
 
-        return items.stream()
-                .map(mapper)
-                .collect(Collectors.toList());
+        try (RequestTimings ignored = RequestTimings.phase(RequestTimings.Phase.MAP)) {
+            return items.stream()
+                    .map(mapper)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Drops every cached item and cached item query result. Writes through Hibernate keep the second-level cache
+     * current on their own; this is for catalog syncs that rewrite the ITEM table, so no request keeps serving
+     * the old catalog until the entries expire.
+     */
+    @Override
+    public void evictCatalogCache() {
+        entityManagerFactory.getCache().evict(Item.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion("item-query");
+        autocompleteCache.catalogChanged();
+        itemUsageTracker.catalogChanged();
+        logger.info("Evicted the item catalog from the second-level cache.");
+    }
+
+    /** A query match, with where its creator ranks for the ordering. */
+    private record ItemMatch(AutoCompleteDto dto, int creatorRank) {
+    }
+
+    private record Ranked(AutoCompleteDto dto, int creatorRank, double score) {
     }
 }
@@ -0,0 +1,289 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Domain.Entity.Item;
+import com.botofholding.api.Domain.Entity.ItemUsage;
+import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.Repository.ItemRepository;
+import com.botofholding.api.Repository.ItemUsageRepository;
+import com.botofholding.api.Service.Interfaces.ItemUsageTracker;
+import com.botofholding.api.Utility.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Counts how often each user and guild adds each item, for the item autocomplete ranking. Every add counts for the
+ * actor and, in a guild, for the guild too. Counts decay exponentially: an add weighs half as much after
+ * {@code boh.usage.half-life-hours}.
+ * <p>
+ * Recording an add only touches lock-free adders, once the adding transaction committed. The scores are written
+ * to {@code ITEM_USG} every {@code boh.usage.flush-interval-ms}, so a restart loses at most that much. An owner's
+ * scores are read back the first time the owner autocompletes or flushes, and dropped again after
+ * {@code boh.usage.idle-minutes} without use.
+ * <p>
+ * To keep decaying cheap, weights are kept relative to the start of the application: an add made {@code t} after it
+ * weighs {@code 2^(t / half-life)}, and a score is its weight divided by that growth at the time it is read. The flush
+ * writes the whole score rather than an increment, which assumes a single API instance, as do the other in-memory
+ * caches.
+ */
+@Service
+public class ItemUsageTrackerImpl implements ItemUsageTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemUsageTrackerImpl.class);
+
+    private final ItemUsageRepository itemUsageRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double halfLifeMillis;
+    private final long idleNanos;
+    private final LocalDateTime epoch = LocalDateTime.now();
+    private final ConcurrentHashMap<Long, Scope> scopes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ItemUsageTrackerImpl(ItemUsageRepository itemUsageRepository, ItemRepository itemRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${boh.usage.half-life-hours:168}") long halfLifeHours,
+                                @Value("${boh.usage.idle-minutes:60}") long idleMinutes) {
+        this.itemUsageRepository = itemUsageRepository;
+        this.itemRepository = itemRepository;
+        // Its own transaction, also when called after a commit while the committed one is still bound.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.halfLifeMillis = TimeUnit.HOURS.toMillis(halfLifeHours);
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+    }
+
+    /**
+     * Counts one add of the item. Must be called while the item is still attached, its creator is read here.
+     */
+    @Override
+    public void recordAdd(Owner actor, Owner principal, Item item) {
+        Owner creator = (Owner) Hibernate.unproxy(item.getCreatedBy());
+        Meta meta = new Meta(item.getItemId(), item.getItemName(), creator.getId(), creator.getDisplayName(),
+                ItemUsageTracker.creatorRank(creator));
+        Long actorId = actor.getId();
+        Long principalId = principal.getId();
+        AfterCommit.run(() -> {
+            double weight = growth(LocalDateTime.now());
+            add(actorId, meta, weight);
+            if (!principalId.equals(actorId)) {
+                add(principalId, meta, weight);
+            }
+        });
+    }
+
+    /**
+     * The used items visible to the actor and principal whose name contains the prefix, by id.
+     * @param normalizedPrefix The lower-cased prefix.
+     */
+    @Override
+    public Map<Long, UsedItem> findUsed(Owner actor, Owner principal, String normalizedPrefix) {
+        double decay = 1 / growth(LocalDateTime.now());
+        Map<Long, UsedItem> used = new HashMap<>();
+        List<Long> ownerIds = actor.getId().equals(principal.getId())
+                ? List.of(actor.getId()) : List.of(actor.getId(), principal.getId());
+        for (Long ownerId : ownerIds) {
+            for (Usage usage : loaded(ownerId).usages.values()) {
+                Meta meta = usage.meta;
+                boolean visible = meta.creatorRank() == 3
+                        || meta.creatorId().equals(actor.getId()) || meta.creatorId().equals(principal.getId());
+                if (!visible || !meta.itemName().toLowerCase(Locale.ROOT).contains(normalizedPrefix)) {
+                    continue;
+                }
+                used.merge(meta.itemId(),
+                        new UsedItem(meta.itemId(), meta.itemName(), meta.creatorName(), meta.creatorRank(),
+                                usage.weight.sum() * decay),
+                        (a, b) -> new UsedItem(a.itemId(), a.itemName(), a.creatorName(), a.creatorRank(),
+                                a.popularity() + b.popularity()));
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Writes the scores of all items added since the last flush, then drops the scopes that were idle too long.
+     * An add recorded while the flush runs is written by the next one.
+     * @return The number of written scores.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${boh.usage.flush-interval-ms:60000}",
+            fixedDelayString = "${boh.usage.flush-interval-ms:60000}")
+    public int flush() {
+        LocalDateTime now = LocalDateTime.now();
+        int written = 0;
+        for (Scope scope : scopes.values()) {
+            written += flush(scope, now);
+        }
+        long idleSince = System.nanoTime() - idleNanos;
+        scopes.values().removeIf(scope -> scope.lastUsedNanos - idleSince < 0 && scope.unsaved() == 0);
+        if (written > 0) {
+            logger.debug("Wrote {} item usage score(s).", written);
+        }
+        return written;
+    }
+
+    /**
+     * The item catalog was rewritten. Once the current transaction, if any, commits, the scopes are written and
+     * dropped, so they are read back with the new names and without deleted items.
+     */
+    @Override
+    public void catalogChanged() {
+        AfterCommit.run(() -> {
+            flush();
+            scopes.values().removeIf(scope -> scope.unsaved() == 0);
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void add(Long ownerId, Meta meta, double weight) {
+        Scope scope = scopes.computeIfAbsent(ownerId, Scope::new);
+        scope.lastUsedNanos = System.nanoTime();
+        Usage usage = scope.usages.computeIfAbsent(meta.itemId(), id -> new Usage(meta));
+        usage.meta = meta;
+        usage.weight.add(weight);
+        usage.unsaved.increment();
+    }
+
+    private Scope loaded(Long ownerId) {
+        Scope scope = scopes.computeIfAbsent(ownerId, Scope::new);
+        scope.lastUsedNanos = System.nanoTime();
+        if (!scope.loaded) {
+            load(scope);
+        }
+        return scope;
+    }
+
+    /**
+     * Adds the stored scores to what was recorded before. From then on an item's weight is its stored score plus
+     * its unsaved adds.
+     */
+    private void load(Scope scope) {
+        synchronized (scope) {
+            if (scope.loaded) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                List<ItemUsage> rows = itemUsageRepository.findAllByOwnerId(scope.ownerId);
+                if (rows.isEmpty()) {
+                    return;
+                }
+                Map<Long, Item> items = itemRepository.findAllWithCreatorByIdIn(
+                                rows.stream().map(ItemUsage::getItemId).toList()).stream()
+                        .collect(Collectors.toMap(Item::getItemId, Function.identity()));
+                for (ItemUsage row : rows) {
+                    Item item = items.get(row.getItemId());
+                    if (item == null) {
+                        continue;
+                    }
+                    Owner creator = (Owner) Hibernate.unproxy(item.getCreatedBy());
+                    Meta meta = new Meta(item.getItemId(), item.getItemName(), creator.getId(),
+                            creator.getDisplayName(), ItemUsageTracker.creatorRank(creator));
+                    scope.usages.computeIfAbsent(meta.itemId(), id -> new Usage(meta))
+                            .weight.add(row.getScore() * growth(row.getUpdatedAt()));
+                }
+            });
+            scope.loaded = true;
+        }
+    }
+
+    private int flush(Scope scope, LocalDateTime now) {
+        synchronized (scope) {
+            Map<Usage, Long> dirty = new HashMap<>();
+            scope.usages.values().forEach(usage -> {
+                long unsaved = usage.unsaved.sum();
+                if (unsaved > 0) {
+                    dirty.put(usage, unsaved);
+                }
+            });
+            if (dirty.isEmpty()) {
+                return 0;
+            }
+            double decay = 1 / growth(now);
+            try {
+                // The written score is the whole weight, so it must include what was stored before.
+                load(scope);
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<Long, ItemUsage> rows = itemUsageRepository.findAllById(dirty.keySet().stream()
+                                    .map(usage -> new ItemUsage.Key(scope.ownerId, usage.meta.itemId())).toList())
+                            .stream()
+                            .collect(Collectors.toMap(ItemUsage::getItemId, Function.identity()));
+                    for (Usage usage : dirty.keySet()) {
+                        ItemUsage row = rows.computeIfAbsent(usage.meta.itemId(),
+                                itemId -> new ItemUsage(scope.ownerId, itemId));
+                        row.setScore(usage.weight.sum() * decay);
+                        row.setUpdatedAt(now);
+                    }
+                    itemUsageRepository.saveAll(rows.values());
+                });
+            } catch (RuntimeException e) {
+                // Most likely an item deleted since; the scope is read back from what was stored.
+                logger.warn("Could not write the item usage of owner {}, dropping its unsaved adds.", scope.ownerId, e);
+                scopes.remove(scope.ownerId, scope);
+                return 0;
+            }
+            dirty.forEach((usage, unsaved) -> usage.unsaved.add(-unsaved));
+            return dirty.size();
+        }
+    }
+
+    private double growth(LocalDateTime at) {
+        return Math.pow(2, Duration.between(epoch, at).toMillis() / halfLifeMillis);
+    }
+
+    /** What the ranking shows of an item, as of its last add or load. */
+    private record Meta(Long itemId, String itemName, Long creatorId, String creatorName, int creatorRank) {
+    }
+
+    private static final class Usage {
+        private volatile Meta meta;
+        /** All adds, stored or not, relative to the epoch. */
+        private final DoubleAdder weight = new DoubleAdder();
+        /** Adds not yet written. */
+        private final LongAdder unsaved = new LongAdder();
+
+        private Usage(Meta meta) {
+            this.meta = meta;
+        }
+    }
+
+    /** The usage of one user or guild. Loading and flushing lock it; recording adds doesn't. */
+    private static final class Scope {
+        private final Long ownerId;
+        private final ConcurrentHashMap<Long, Usage> usages = new ConcurrentHashMap<>();
+        private volatile boolean loaded;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private Scope(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        private long unsaved() {
+            return usages.values().stream().mapToLong(usage -> usage.unsaved.sum()).sum();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.botofholding.api.Service.Implementations;
+
+import com.botofholding.api.Service.Interfaces.QueryCoalescer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for read queries: concurrent calls with the same query name and key share one execution and its
+ * result. The first caller runs the loader on its own thread, the others wait for it. Nothing is kept once the
+ * execution finishes, so a call arriving after that runs the query again.
+ * <p>
+ * Every call is counted in {@code boh.query.coalescing}, tagged with the query and whether it {@code executed}
+ * or was {@code coalesced} into another call.
+ */
+@Service
+public class QueryCoalescerImpl implements QueryCoalescer {
+
+    private static final String METRIC = "boh.query.coalescing";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QueryCoalescerImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the loader, or joins the execution already running for the same query and key.
+     * @param query The name of the query, also the metric tag.
+     * @param key Everything the result depends on (owners, prefix, ...).
+     * @param loader The query itself. Its result is shared, so it must not be modified by the callers.
+     * @return The result of the loader, or the exception it threw.
+     * @param <T> The type of the result.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String query, List<?> key, Supplier<T> loader) {
+        Flight flight = new Flight(query, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            counter(query, "coalesced").increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                // The exception of the executing call, so the caller sees what it would have seen itself.
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        counter(query, "executed").increment();
+        try {
+            T result = loader.get();
+            inFlight.remove(flight, mine);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(flight, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Counter counter(String query, String outcome) {
+        return counters.computeIfAbsent(query + '|' + outcome, ignored -> Counter.builder(METRIC)
+                .description("Read queries executed, or coalesced into an identical one already running")
+                .tag("query", query)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private record Flight(String query, List<?> key) {
+    }
+}
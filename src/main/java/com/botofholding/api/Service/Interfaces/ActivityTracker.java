@@ -0,0 +1,15 @@
+package com.botofholding.api.Service.Interfaces;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ActivityTracker {
+
+    void recordContainerActivity(Long containerId, LocalDateTime at);
+
+    void recordUserActivity(Long userId, LocalDateTime at);
+
+    Optional<LocalDateTime> pendingContainerActivity(Long containerId);
+
+    int flush();
+}
@@ -0,0 +1,23 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
+import com.botofholding.api.Domain.Entity.Owner;
+
+import java.util.List;
+import java.util.function.Function;
+
+public interface AutocompleteCache {
+
+    <T> List<T> items(Owner actor, Owner principal, String prefix, Function<T, String> label,
+                      Function<String, List<T>> loader);
+
+    List<AutoCompleteDto> containers(Owner actor, Owner principal, String prefix, Function<String, List<AutoCompleteDto>> loader);
+
+    List<AutoCompleteDto> containerItems(Long userId, ContainerVersionProjection activeContainer, boolean parentsOnly,
+                                         String prefix, Function<String, List<AutoCompleteDto>> loader);
+
+    void containersChanged(Long ownerId);
+
+    void catalogChanged();
+}
@@ -0,0 +1,22 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerChangesDto;
+import com.botofholding.api.Domain.Entity.Container;
+import com.botofholding.api.Domain.Entity.ContainerChange;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public interface ContainerChangeService {
+
+    void recordChanges(Container container, List<ContainerChange> changes);
+
+    void recordChanges(Long containerId, Long version, List<ContainerChange> changes);
+
+    ContainerChangesDto findChangesSince(@NotNull @Min(1) Long containerId, @NotNull @Min(0) Long since);
+
+    int compactChangeLog();
+
+    void deleteChangeLog(Long containerId);
+}
@@ -0,0 +1,16 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.Entity.ContainerItem;
+
+import java.util.List;
+
+public interface ContainerItemShardService {
+
+    void addToShard(ContainerItem stack, int delta);
+
+    int reshard(ContainerItem stack, int shardCount);
+
+    List<Long> findContainerIdsToFold();
+
+    int consolidateShards(Long containerId);
+}
@@ -0,0 +1,20 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.DTO.Request.AddItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.ModifyItemRequestDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ServiceResponse;
+import com.botofholding.api.Domain.Entity.Owner;
+
+public interface ContainerMutationQueue {
+
+    ServiceResponse<ContainerSummaryDto> addItem(AddItemRequestDto addDto, Owner actor, Owner principal);
+
+    ServiceResponse<ContainerSummaryDto> dropItem(Long id, String name, Integer quantity, Boolean dropChildren, Owner actor, Owner principal);
+
+    ServiceResponse<ContainerSummaryDto> modifyItem(ModifyItemRequestDto modifyDto, Owner actor, Owner principal);
+
+    ServiceResponse<ContainerSummaryDto> shardItem(Long containerItemId, int shardCount, Owner actor);
+
+    int consolidateShards();
+}
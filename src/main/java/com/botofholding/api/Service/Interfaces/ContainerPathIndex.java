@@ -0,0 +1,10 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+
+import java.util.List;
+
+public interface ContainerPathIndex {
+
+    List<AutoCompleteDto> search(Long containerId, Long version, String text, boolean parentsOnly, int limit);
+}
@@ -1,10 +1,17 @@
 package com.botofholding.api.Service.Interfaces;
 
 import com.botofholding.api.Domain.DTO.Request.AddItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.BatchOperationDto;
+import com.botofholding.api.Domain.DTO.Request.BatchRequestDto;
 import com.botofholding.api.Domain.DTO.Request.ContainerRequestDto;
 import com.botofholding.api.Domain.DTO.Request.ModifyItemRequestDto;
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.BatchResultDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerItemSummaryDto;
 import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerTransferDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
+import com.botofholding.api.Domain.DTO.Response.CursorPageDto;
 import com.botofholding.api.Domain.DTO.Response.ServiceResponse;
 import com.botofholding.api.Domain.DTO.Response.DeletedEntityDto;
 import com.botofholding.api.Domain.Entity.Owner;
@@ -12,23 +19,34 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ContainerService {
 
     ContainerSummaryDto addContainer(Owner principal, ContainerRequestDto containerRequestDto);
 
-    List<ContainerSummaryDto> findContainersForPrincipalAndActor(String name, Owner actor, Owner principal);
+    CursorPageDto<ContainerSummaryDto> findContainersForPrincipalAndActor(String name, String cursor, Integer limit, Owner actor, Owner principal);
 
     List<AutoCompleteDto> autocompleteContainersForPrincipalAndActor(@NotNull String prefix, Owner actor, Owner principal);
 
     ContainerSummaryDto findContainerById(@NotNull @Min(1) Long id, Owner actor);
 
+    ContainerVersionProjection findContainerVersionById(@NotNull @Min(1) Long id, Owner actor);
+
+    CursorPageDto<ContainerItemSummaryDto> findContainerItemsPage(@NotNull @Min(1) Long id, Long parentId, String cursor, Integer limit);
+
     ContainerSummaryDto activateContainerById(@NotNull @Min(1) Long id, Owner actor);
 
     ContainerSummaryDto activateContainerByName(String name, String ownerPriority, Owner actor, Owner principal);
 
     ContainerSummaryDto findActiveContainerForUser(Owner actor);
 
+    ContainerVersionProjection findActiveContainerVersionForUser(Owner actor);
+
+    ContainerSummaryDto findActiveContainerRootLevelForUser(Owner actor, Integer limit);
+
+    CursorPageDto<ContainerItemSummaryDto> findChildrenInActiveContainer(@NotNull @Min(1) Long containerItemId, String cursor, Integer limit, Owner actor);
+
     ServiceResponse<ContainerSummaryDto> addItemToActiveContainer(AddItemRequestDto addDto, Owner actor, Owner principal);
 
     ServiceResponse<ContainerSummaryDto> dropItemFromActiveContainer(Long id, String name, Integer quantity, Boolean dropChildren, Owner actor);
@@ -40,4 +58,13 @@ public interface ContainerService {
     DeletedEntityDto deleteContainerByIdAndName(@NotNull @Min(1) Long id, @NotNull String name, Owner actor);
 
     ServiceResponse<ContainerSummaryDto> modifyItemInActiveContainer(ModifyItemRequestDto modifyItemRequestDto, Owner actor);
+
+    ServiceResponse<BatchResultDto> applyBatchToActiveContainer(BatchRequestDto batchRequestDto, Owner actor, Owner principal);
+
+    Optional<ServiceResponse<BatchResultDto>> applyQuantityDeltasToActiveContainer(List<BatchOperationDto> operations, Owner actor);
+
+    ServiceResponse<ContainerSummaryDto> shardItemInActiveContainer(Long containerItemId, int shardCount, Owner actor);
+
+    ServiceResponse<ContainerTransferDto> transferContainerItem(@NotNull @Min(1) Long sourceContainerId, @NotNull @Min(1) Long containerItemId,
+                                                                @NotNull @Min(1) Long targetContainerId);
 }
@@ -0,0 +1,12 @@
+package com.botofholding.api.Service.Interfaces;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ContainerSubscriptionService {
+
+    SseEmitter subscribe(@NotNull @Min(1) Long containerId, Long lastSeenVersion);
+
+    int getSubscriberCount();
+}
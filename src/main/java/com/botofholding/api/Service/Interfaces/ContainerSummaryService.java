@@ -0,0 +1,23 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.Entity.BohUser;
+
+import java.util.Optional;
+
+public interface ContainerSummaryService {
+
+    Optional<ContainerSummaryDto> findCurrentSummary(Long containerId);
+
+    Optional<ContainerSummaryDto> findCurrentActiveSummary(BohUser user);
+
+    void createSummary(ContainerSummaryDto summaryDto);
+
+    void storeSummary(ContainerSummaryDto summaryDto);
+
+    void deleteSummary(Long containerId);
+
+    void expireSummariesForOwner(Long ownerId);
+
+    int rebuildStaleSummaries();
+}
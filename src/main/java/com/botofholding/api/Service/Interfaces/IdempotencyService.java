@@ -0,0 +1,15 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.DTO.Response.StandardApiResponse;
+import com.botofholding.api.Domain.Entity.Owner;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    <T> ResponseEntity<StandardApiResponse<T>> execute(String key, Owner actor, String operation,
+                                                       Supplier<ResponseEntity<StandardApiResponse<T>>> action);
+}
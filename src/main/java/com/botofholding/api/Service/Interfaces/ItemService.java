@@ -1,6 +1,7 @@
 package com.botofholding.api.Service.Interfaces;
 
 import com.botofholding.api.Domain.DTO.Response.AutoCompleteDto;
+import com.botofholding.api.Domain.DTO.Response.CursorPageDto;
 import com.botofholding.api.Domain.DTO.Response.ItemSummaryDto;
 import com.botofholding.api.Domain.Entity.Owner;
 
@@ -9,6 +10,7 @@ import java.util.List;
 public interface ItemService {
 
     ItemSummaryDto findItemById(Long id);
-    List<ItemSummaryDto> findItemsForPrincipalAndActor(String name, Owner actor, Owner principal);
+    CursorPageDto<ItemSummaryDto> findItemsForPrincipalAndActor(String name, String cursor, Integer limit, Owner actor, Owner principal);
     List<AutoCompleteDto> autocompleteItemsForPrincipalAndActor(String prefix, Owner actor, Owner principal);
+    void evictCatalogCache();
 }
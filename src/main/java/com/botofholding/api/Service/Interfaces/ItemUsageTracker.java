@@ -0,0 +1,38 @@
+package com.botofholding.api.Service.Interfaces;
+
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.Guild;
+import com.botofholding.api.Domain.Entity.Item;
+import com.botofholding.api.Domain.Entity.Owner;
+import org.hibernate.Hibernate;
+
+import java.util.Map;
+
+public interface ItemUsageTracker {
+
+    void recordAdd(Owner actor, Owner principal, Item item);
+
+    Map<Long, UsedItem> findUsed(Owner actor, Owner principal, String normalizedPrefix);
+
+    int flush();
+
+    void catalogChanged();
+
+    /**
+     * An item the actor or principal added to containers, with its decayed usage score summed over both.
+     * @param creatorRank see {@link #creatorRank(Owner)}
+     */
+    record UsedItem(Long itemId, String itemName, String creatorName, int creatorRank, double popularity) {
+    }
+
+    /**
+     * Where an item's creator ranks, in the order of the item queries: users 1, guilds 2, the system 3.
+     */
+    static int creatorRank(Owner creator) {
+        Owner owner = (Owner) Hibernate.unproxy(creator);
+        if (owner instanceof BohUser) {
+            return 1;
+        }
+        return owner instanceof Guild ? 2 : 3;
+    }
+}
@@ -0,0 +1,9 @@
+package com.botofholding.api.Service.Interfaces;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface QueryCoalescer {
+
+    <T> T coalesce(String query, List<?> key, Supplier<T> loader);
+}
@@ -0,0 +1,37 @@
+package com.botofholding.api.Utility;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
+
+/**
+ * Builds the ETag of a container view. The tag only depends on the container's version and whether it is the
+ * requesting user's active container, so a conditional GET can be answered from those columns alone.
+ */
+public final class ContainerETag {
+
+    private ContainerETag() {
+    }
+
+    public static String of(ContainerSummaryDto container) {
+        return of(container.getContainerId(), container.getVersion(), container.isActive(), false);
+    }
+
+    public static String of(ContainerVersionProjection version) {
+        return of(version.getContainerId(), version.getVersion(), Boolean.TRUE.equals(version.getActive()), false);
+    }
+
+    /**
+     * The tag of the shallow view (root level only), which must never match a cached copy of the full tree.
+     */
+    public static String ofShallow(ContainerSummaryDto container) {
+        return of(container.getContainerId(), container.getVersion(), container.isActive(), true);
+    }
+
+    public static String ofShallow(ContainerVersionProjection version) {
+        return of(version.getContainerId(), version.getVersion(), Boolean.TRUE.equals(version.getActive()), true);
+    }
+
+    private static String of(Long containerId, Long version, boolean active, boolean shallow) {
+        return "\"" + containerId + "-" + version + (active ? "-a" : "") + (shallow ? "-s" : "") + "\"";
+    }
+}
@@ -0,0 +1,89 @@
+package com.botofholding.api.Utility;
+
+import com.botofholding.api.Domain.DTO.Response.CursorPageDto;
+import com.botofholding.api.ExceptionHandling.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The position after the last row of a page: the sort key and id of that row. Clients get it as an opaque string
+ * and send it back for the next page, which is then read with a keyset condition instead of an offset, so a page
+ * deep into the results costs the same as the first one.
+ * @param key The sort key of the last row, empty when the rows are ordered by id alone.
+ * @param id The id of the last row, the tie-breaker for equal keys.
+ */
+public record PageCursor(String key, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static PageCursor of(LocalDateTime key, long id) {
+        return new PageCursor(key.toString(), id);
+    }
+
+    public static PageCursor of(long id) {
+        return new PageCursor("", id);
+    }
+
+    /**
+     * The page size to read: the requested one if any, capped at the maximum.
+     */
+    public static int pageSize(Integer requested, int defaultSize, int maxSize) {
+        return Math.min(requested != null ? requested : defaultSize, maxSize);
+    }
+
+    /**
+     * Turns the rows of a page read with one extra row into the page itself. The extra row only shows that
+     * there is a next page, whose cursor points at the last row kept.
+     * @param rows The rows read with a limit of {@code pageSize + 1}.
+     * @param pageSize The size of the page.
+     * @param cursorOf The position of a row.
+     */
+    public static <T> CursorPageDto<T> page(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPageDto<>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((id + ":" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime keyAsDateTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid page cursor.");
+        }
+    }
+
+    /**
+     * Reads a cursor sent back by a client.
+     * @param cursor The cursor of the previous page, null or blank for the first page.
+     * @return The decoded cursor, or null for the first page.
+     * @throws ValidationException if the cursor wasn't issued by this API.
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(DECODER.decode(cursor.strip()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator < 1) {
+                throw new ValidationException("Invalid page cursor.");
+            }
+            return new PageCursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            // Covers malformed Base64 as well as a non-numeric id.
+            throw new ValidationException("Invalid page cursor.");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.botofholding.api.Utility;
+
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.Domain.Entity.Item;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A weight and value total, normalized to pounds and gold pieces so items entered in different units add up.
+ * Amounts are kept at four decimals, so maintaining totals incrementally never drifts from a full recount.
+ * A missing unit counts as the base unit; an unknown unit can't be converted and contributes nothing.
+ */
+public record Rollup(BigDecimal weight, BigDecimal value) {
+
+    public static final Rollup ZERO = new Rollup(BigDecimal.ZERO, BigDecimal.ZERO);
+
+    private static final int SCALE = 4;
+
+    private static final Pattern UNIT_WORD = Pattern.compile("[a-z]+");
+
+    private static final Map<String, BigDecimal> POUNDS_PER_UNIT = Map.of(
+            "lb", BigDecimal.ONE, "lbs", BigDecimal.ONE, "pound", BigDecimal.ONE, "pounds", BigDecimal.ONE,
+            "oz", new BigDecimal("0.0625"), "ounce", new BigDecimal("0.0625"), "ounces", new BigDecimal("0.0625"),
+            "kg", new BigDecimal("2.20462"), "g", new BigDecimal("0.00220462"));
+
+    private static final Map<String, BigDecimal> GOLD_PER_UNIT = Map.of(
+            "cp", new BigDecimal("0.01"), "sp", new BigDecimal("0.1"), "ep", new BigDecimal("0.5"),
+            "gp", BigDecimal.ONE, "gold", BigDecimal.ONE, "pp", BigDecimal.TEN);
+
+    /**
+     * The weight and value of a stack of an item, not counting anything inside it.
+     */
+    public static Rollup of(Item item, int quantity) {
+        return new Rollup(
+                normalize(item.getWeight(), item.getWeightUnit(), "lb", POUNDS_PER_UNIT, quantity),
+                normalize(item.getValue(), item.getValueUnit(), "gp", GOLD_PER_UNIT, quantity));
+    }
+
+    /**
+     * The maintained totals of a container item, which include everything inside it.
+     */
+    public static Rollup totalsOf(ContainerItem containerItem) {
+        return new Rollup(containerItem.getTotalWeight(), containerItem.getTotalValue());
+    }
+
+    /**
+     * The weight and value of what a sharded stack still holds in its shards, which no totals include until folded.
+     */
+    public static Rollup unfoldedOf(ContainerItem containerItem) {
+        int quantity = containerItem.getShardedQuantity();
+        return quantity == 0 ? ZERO : of(containerItem.getItem(), quantity);
+    }
+
+    public Rollup plus(Rollup other) {
+        return new Rollup(weight.add(other.weight), value.add(other.value));
+    }
+
+    public Rollup minus(Rollup other) {
+        return new Rollup(weight.subtract(other.weight), value.subtract(other.value));
+    }
+
+    public Rollup negate() {
+        return new Rollup(weight.negate(), value.negate());
+    }
+
+    public boolean isZero() {
+        return weight.signum() == 0 && value.signum() == 0;
+    }
+
+    /**
+     * Whether this change makes a container heavier, the only direction a capacity limit has to be checked for.
+     */
+    public boolean addsWeight() {
+        return weight.signum() > 0;
+    }
+
+    /**
+     * The unit's leading word, so the catalog's "lb.", "oz." and "lb. (full)" resolve like "lb" and "oz".
+     */
+    private static String unitKey(String unit, String baseUnit) {
+        if (unit == null || unit.isBlank()) {
+            return baseUnit;
+        }
+        Matcher matcher = UNIT_WORD.matcher(unit.strip().toLowerCase(Locale.ROOT));
+        return matcher.lookingAt() ? matcher.group() : "";
+    }
+
+    private static BigDecimal normalize(Float amount, String unit, String baseUnit, Map<String, BigDecimal> factors, int quantity) {
+        if (amount == null || amount == 0f) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal factor = factors.get(unitKey(unit, baseUnit));
+        if (factor == null) {
+            return BigDecimal.ZERO;
+        }
+        // Float.toString gives the decimal the user typed (0.1f -> "0.1") rather than the binary approximation.
+        return new BigDecimal(Float.toString(amount))
+                .multiply(factor)
+                .multiply(BigDecimal.valueOf(quantity))
+                .setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,22 @@
+-- Per-container change log behind GET /api/containers/{id}/changes.
+-- Existing containers start with their floor at the current version: there is no log for what came before.
+ALTER TABLE CNTNR ADD CNTNR_CHNG_FLOOR BIGINT NOT NULL CONSTRAINT DF_CNTNR_CHNG_FLOOR DEFAULT 0;
+GO
+UPDATE CNTNR SET CNTNR_CHNG_FLOOR = CNTNR_VRSN;
+
+CREATE TABLE CNTNR_CHNG (
+    CHNG_ID       BIGINT IDENTITY(1,1) NOT NULL CONSTRAINT PK_CNTNR_CHNG PRIMARY KEY,
+    CNTNR_ID      BIGINT        NOT NULL,
+    CNTNR_VRSN    BIGINT        NOT NULL,
+    CHNG_TYP      VARCHAR(10)   NOT NULL,
+    CNTNR_ITEM_ID BIGINT        NOT NULL,
+    ITEM_ID       BIGINT        NULL CONSTRAINT FK_CNTNR_CHNG_ITEM REFERENCES ITEM (ITEM_ID),
+    PARENT_ID     BIGINT        NULL,
+    ITM_QTY       INT           NULL,
+    USER_NOTE     VARCHAR(4000) NULL,
+    CHNG_DTTM     DATETIME2     NOT NULL
+);
+
+-- The feed reads by container and version range, compaction by age.
+CREATE INDEX IX_CNTNR_CHNG_CNTNR_VRSN ON CNTNR_CHNG (CNTNR_ID, CNTNR_VRSN);
+CREATE INDEX IX_CNTNR_CHNG_DTTM ON CNTNR_CHNG (CHNG_DTTM);
@@ -0,0 +1,3 @@
+-- Children of one container item (GET /api/containers/active/items/{containerItemId}/children, child counts of
+-- the shallow active container view, loading the tree level by level) are looked up by PARENT_ID alone.
+CREATE INDEX IX_CNTNR_ITEM_PARENT ON CNTNR_ITEM (PARENT_ID);
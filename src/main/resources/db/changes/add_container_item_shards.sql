@@ -0,0 +1,15 @@
+-- Sharded quantity counters for stacks flagged for concurrent updates. A flagged stack has SHRD_CNT rows in
+-- CNTNR_ITEM_SHRD; its quantity is ITM_QTY plus their deltas. Plain stacks keep SHRD_CNT NULL and have no shards.
+ALTER TABLE CNTNR_ITEM ADD SHRD_CNT INT NULL;
+GO
+
+CREATE TABLE CNTNR_ITEM_SHRD (
+    CNTNR_ITEM_ID BIGINT NOT NULL CONSTRAINT FK_CNTNR_ITEM_SHRD_CNTNR_ITEM
+                      REFERENCES CNTNR_ITEM (CNTNR_ITEM_ID) ON DELETE CASCADE,
+    SHRD_NO       INT    NOT NULL,
+    QTY_DLTA      INT    NOT NULL CONSTRAINT DF_CNTNR_ITEM_SHRD_QTY_DLTA DEFAULT 0,
+    CONSTRAINT PK_CNTNR_ITEM_SHRD PRIMARY KEY (CNTNR_ITEM_ID, SHRD_NO)
+);
+
+-- The consolidation job looks for shards with something to fold.
+CREATE INDEX IX_CNTNR_ITEM_SHRD_DLTA ON CNTNR_ITEM_SHRD (QTY_DLTA) WHERE QTY_DLTA <> 0;
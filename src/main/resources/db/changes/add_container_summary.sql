@@ -0,0 +1,12 @@
+-- Stored container summaries read by GET /api/containers/{id} and GET /api/containers/active.
+-- Existing containers get an expired row (version -1): readers fall back to the tables until the first mutation
+-- or the rebuild job fills it in.
+CREATE TABLE CNTNR_SMRY (
+    CNTNR_ID   BIGINT        NOT NULL CONSTRAINT PK_CNTNR_SMRY PRIMARY KEY,
+    CNTNR_VRSN BIGINT        NOT NULL,
+    SMRY_JSON  VARCHAR(MAX)  NOT NULL,
+    RFRSH_DTTM DATETIME2     NOT NULL
+);
+GO
+INSERT INTO CNTNR_SMRY (CNTNR_ID, CNTNR_VRSN, SMRY_JSON, RFRSH_DTTM)
+SELECT CNTNR_ID, -1, '{}', SYSDATETIME() FROM CNTNR;
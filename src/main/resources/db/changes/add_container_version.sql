@@ -0,0 +1,2 @@
+-- Per-container version used for ETags on the container views. Existing rows start at 0.
+ALTER TABLE CNTNR ADD CNTNR_VRSN BIGINT NOT NULL CONSTRAINT DF_CNTNR_VRSN DEFAULT 0;
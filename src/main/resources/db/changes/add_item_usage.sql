@@ -0,0 +1,9 @@
+-- Decayed usage scores behind the item autocomplete ranking, one row per owner (user or guild) and item.
+-- USG_SCR is the score as of UPDT_DTTM; the API keeps the live counters in memory and writes them here now and then.
+CREATE TABLE ITEM_USG (
+    OWNER_ID  BIGINT    NOT NULL CONSTRAINT FK_ITEM_USG_OWNER REFERENCES OWNER (OWNER_ID),
+    ITEM_ID   BIGINT    NOT NULL CONSTRAINT FK_ITEM_USG_ITEM REFERENCES ITEM (ITEM_ID) ON DELETE CASCADE,
+    USG_SCR   FLOAT     NOT NULL,
+    UPDT_DTTM DATETIME2 NOT NULL,
+    CONSTRAINT PK_ITEM_USG PRIMARY KEY (OWNER_ID, ITEM_ID)
+);
@@ -0,0 +1,6 @@
+-- Keyset pagination (cursor parameter of GET /api/containers, GET /api/items and GET /api/containers/{id}/items):
+-- each page is a seek to the cursor followed by a short range scan, in the order of the listing.
+CREATE INDEX IX_CNTNR_OWNER_LST_ACTV ON CNTNR (OWNER_ID, LST_ACTV_DTTM DESC, CNTNR_ID DESC);
+CREATE INDEX IX_ITEM_NME_ID ON ITEM (ITEM_NME, ITEM_ID);
+-- One level of a container's tree: the root (PARENT_ID IS NULL) or the children of one item.
+CREATE INDEX IX_CNTNR_ITEM_CNTNR_PARENT ON CNTNR_ITEM (CNTNR_ID, PARENT_ID, CNTNR_ITEM_ID);
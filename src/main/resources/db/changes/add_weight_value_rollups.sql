@@ -0,0 +1,54 @@
+-- Maintained weight (lb) and value (gp) totals per container and per container item subtree,
+-- plus an optional weight limit per container type.
+ALTER TABLE CNTNR ADD TTL_WGHT DECIMAL(19, 4) NOT NULL CONSTRAINT DF_CNTNR_TTL_WGHT DEFAULT 0,
+                      TTL_VAL  DECIMAL(19, 4) NOT NULL CONSTRAINT DF_CNTNR_TTL_VAL DEFAULT 0;
+ALTER TABLE CNTNR_ITEM ADD TTL_WGHT DECIMAL(19, 4) NOT NULL CONSTRAINT DF_CNTNR_ITEM_TTL_WGHT DEFAULT 0,
+                           TTL_VAL  DECIMAL(19, 4) NOT NULL CONSTRAINT DF_CNTNR_ITEM_TTL_VAL DEFAULT 0;
+ALTER TABLE CNTNR_TYPE ADD MAX_WGHT DECIMAL(19, 4) NULL;
+GO
+
+-- Backfill. Unit factors match com.botofholding.api.Utility.Rollup: a missing unit is the base unit,
+-- an unknown unit contributes nothing.
+WITH Own AS (
+    SELECT ci.CNTNR_ITEM_ID, ci.PARENT_ID, ci.CNTNR_ID,
+           ROUND(COALESCE(ci.ITM_QTY, 0) * COALESCE(CAST(i.WEIGHT AS DECIMAL(19, 6)), 0) *
+                 CASE u.WEIGHT_KEY
+                     WHEN 'lb' THEN 1 WHEN 'lbs' THEN 1 WHEN 'pound' THEN 1 WHEN 'pounds' THEN 1
+                     WHEN 'oz' THEN 0.0625 WHEN 'ounce' THEN 0.0625 WHEN 'ounces' THEN 0.0625
+                     WHEN 'kg' THEN 2.20462 WHEN 'g' THEN 0.00220462
+                     ELSE 0 END, 4) AS OWN_WGHT,
+           ROUND(COALESCE(ci.ITM_QTY, 0) * COALESCE(CAST(i.VALUE AS DECIMAL(19, 6)), 0) *
+                 CASE u.VALUE_KEY
+                     WHEN 'cp' THEN 0.01 WHEN 'sp' THEN 0.1 WHEN 'ep' THEN 0.5
+                     WHEN 'gp' THEN 1 WHEN 'gold' THEN 1 WHEN 'pp' THEN 10
+                     ELSE 0 END, 4) AS OWN_VAL
+    FROM CNTNR_ITEM ci
+    JOIN ITEM i ON i.ITEM_ID = ci.ITEM_ID
+    -- The unit's leading word: 'lb.', 'oz.' and 'lb. (full)' count as 'lb' and 'oz'.
+    CROSS APPLY (SELECT LOWER(COALESCE(NULLIF(LTRIM(RTRIM(i.WEIGHT_UNIT)), ''), 'lb')) AS W,
+                        LOWER(COALESCE(NULLIF(LTRIM(RTRIM(i.VALUE_UNIT)), ''), 'gp')) AS V) raw
+    CROSS APPLY (SELECT LEFT(raw.W, PATINDEX('%[^a-z]%', raw.W + '.') - 1) AS WEIGHT_KEY,
+                        LEFT(raw.V, PATINDEX('%[^a-z]%', raw.V + '.') - 1) AS VALUE_KEY) u
+),
+-- Every (ancestor, descendant) pair, including each item paired with itself.
+Closure AS (
+    SELECT CNTNR_ITEM_ID AS ANCESTOR_ID, CNTNR_ITEM_ID AS DESCENDANT_ID FROM Own
+    UNION ALL
+    SELECT c.ANCESTOR_ID, o.CNTNR_ITEM_ID
+    FROM Closure c
+    JOIN Own o ON o.PARENT_ID = c.DESCENDANT_ID
+)
+UPDATE ci
+SET ci.TTL_WGHT = t.TTL_WGHT, ci.TTL_VAL = t.TTL_VAL
+FROM CNTNR_ITEM ci
+JOIN (SELECT c.ANCESTOR_ID, SUM(o.OWN_WGHT) AS TTL_WGHT, SUM(o.OWN_VAL) AS TTL_VAL
+      FROM Closure c JOIN Own o ON o.CNTNR_ITEM_ID = c.DESCENDANT_ID
+      GROUP BY c.ANCESTOR_ID) t ON t.ANCESTOR_ID = ci.CNTNR_ITEM_ID
+OPTION (MAXRECURSION 0);
+
+-- A container's totals are the totals of its root items.
+UPDATE c
+SET c.TTL_WGHT = t.TTL_WGHT, c.TTL_VAL = t.TTL_VAL
+FROM CNTNR c
+JOIN (SELECT CNTNR_ID, SUM(TTL_WGHT) AS TTL_WGHT, SUM(TTL_VAL) AS TTL_VAL
+      FROM CNTNR_ITEM WHERE PARENT_ID IS NULL GROUP BY CNTNR_ID) t ON t.CNTNR_ID = c.CNTNR_ID;
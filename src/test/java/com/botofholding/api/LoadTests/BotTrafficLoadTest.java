@@ -0,0 +1,518 @@
+package com.botofholding.api.LoadTests;
+
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.Container;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.Domain.Entity.Guild;
+import com.botofholding.api.Domain.Entity.Item;
+import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.Domain.Entity.SystemOwner;
+import com.botofholding.api.Repository.BohUserRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Repository.ItemRepository;
+import com.botofholding.api.Repository.OwnerRepository;
+import com.botofholding.api.Security.JwtService;
+import com.botofholding.api.Utility.Rollup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays a bot-like traffic mix against the full application (security filter chain included) running on an
+ * in-memory H2 database in SQL Server mode, and reports throughput, p50/p99 latency and error rates per endpoint.
+ * Every user's main container is also followed over its change stream, the way the bot keeps its embeds fresh.
+ * <p>
+ * Skipped unless {@code -Dboh.loadtest=true} is given. The shape of the run is controlled with
+ * {@code boh.loadtest.*} properties (see the fields below), e.g.
+ * <pre>{@code mvn test -Dtest=BotTrafficLoadTest -Dboh.loadtest=true -Dboh.loadtest.threads=32 -Dboh.loadtest.duration-seconds=120}</pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@EnabledIfSystemProperty(named = "boh.loadtest", matches = "true")
+public class BotTrafficLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BotTrafficLoadTest.class);
+
+    private static final long FIRST_USER_DISCORD_ID = 700_000_000_000_000_000L;
+    private static final long FIRST_GUILD_DISCORD_ID = 800_000_000_000_000_000L;
+    // Seeded stacks are large enough that a run never drops one to zero.
+    private static final int SEEDED_QUANTITY = 1_000_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private OwnerRepository ownerRepository;
+    @Autowired
+    private BohUserRepository bohUserRepository;
+    @Autowired
+    private ContainerRepository containerRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${boh.loadtest.users:40}")
+    private int userCount;
+    @Value("${boh.loadtest.guilds:8}")
+    private int guildCount;
+    @Value("${boh.loadtest.items-per-container:500}")
+    private int itemsPerContainer;
+    @Value("${boh.loadtest.max-depth:6}")
+    private int maxDepth;
+    @Value("${boh.loadtest.threads:16}")
+    private int threads;
+    @Value("${boh.loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+    @Value("${boh.loadtest.duration-seconds:60}")
+    private int durationSeconds;
+    @Value("${boh.loadtest.max-server-error-rate:0.0}")
+    private double maxServerErrorRate;
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> streamEvents = new ConcurrentHashMap<>();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private String botToken;
+    private List<String> catalogNames;
+    private long[] catalogIds;
+
+    /**
+     * A seeded Discord user as the bot sees it: two containers, the ids of their seeded stacks
+     * and which of the two is currently active, plus the last ETag seen for the active container.
+     */
+    private static class SimulatedUser {
+        private final long discordId;
+        private final String name;
+        private final Long guildDiscordId;
+        private final long[] containerIds = new long[2];
+        private final long[][] containerItemIds = new long[2][];
+        private int activeIndex;
+        private volatile String activeContainerETag;
+
+        SimulatedUser(long discordId, String name, Long guildDiscordId) {
+            this.discordId = discordId;
+            this.name = name;
+            this.guildDiscordId = guildDiscordId;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Replay bot traffic and report per-endpoint throughput, latency and errors")
+    void replayBotTraffic() throws Exception {
+        List<SimulatedUser> users = seed();
+        botToken = jwtService.generateBotToken();
+
+        logger.info("Warming up for {}s with {} threads...", warmupSeconds, threads);
+        runLoad(users, warmupSeconds, false);
+        stats.clear();
+
+        ExecutorService streamReaders = openChangeStreams(users);
+        logger.info("Measuring for {}s with {} threads...", durationSeconds, threads);
+        long started = System.nanoTime();
+        try {
+            runLoad(users, durationSeconds, true);
+        } finally {
+            streamReaders.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        int total = report(seconds);
+        logger.info("Change stream events received: {}", streamEvents);
+        if (stats.containsKey("POST /api/containers/active/items")) {
+            assertThat(streamEvents.getOrDefault("changes", new LongAdder()).sum())
+                    .as("change events pushed to the container streams")
+                    .isGreaterThan(0);
+        }
+        int serverErrors = stats.values().stream().mapToInt(EndpointStats::getServerErrors).sum();
+        assertThat(total).isGreaterThan(0);
+        assertThat((double) serverErrors / total)
+                .as("share of requests failing with 5xx or I/O errors")
+                .isLessThanOrEqualTo(maxServerErrorRate);
+    }
+
+    // ----------------------------------------------------------------------------------------------------------
+    // Seeding
+    // ----------------------------------------------------------------------------------------------------------
+
+    private List<SimulatedUser> seed() {
+        Owner systemOwner = ownerRepository.findByDiscordId(SystemOwner.SYSTEM_OWNER_DISCORD_ID).orElseThrow();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(systemOwner, null, systemOwner.getAuthorities()));
+
+        List<Item> catalog = itemRepository.findAll();
+        List<Item> parents = catalog.stream().filter(Item::isParent).toList();
+        List<Item> leaves = catalog.stream().filter(i -> !i.isParent()).toList();
+        catalogNames = catalog.stream().map(Item::getItemName).toList();
+        catalogIds = catalog.stream().mapToLong(Item::getItemId).toArray();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Random random = new Random(42);
+        long seedStart = System.nanoTime();
+
+        List<Long> guildIds = new ArrayList<>();
+        for (int g = 0; g < guildCount; g++) {
+            long discordId = FIRST_GUILD_DISCORD_ID + g;
+            String name = "Load Guild " + g;
+            tx.executeWithoutResult(status -> {
+                Guild guild = (Guild) ownerRepository.save(Guild.builder().discordId(discordId).guildName(name).build());
+                seedContainer(guild, "Guild Hoard", itemsPerContainer, parents, leaves, random);
+            });
+            guildIds.add(discordId);
+        }
+
+        List<SimulatedUser> users = new ArrayList<>(userCount);
+        for (int u = 0; u < userCount; u++) {
+            Long guildId = guildIds.isEmpty() ? null : guildIds.get(u % guildIds.size());
+            SimulatedUser simulated = new SimulatedUser(FIRST_USER_DISCORD_ID + u, "loaduser" + u, guildId);
+            tx.executeWithoutResult(status -> {
+                BohUser user = bohUserRepository.save(BohUser.builder()
+                        .discordId(simulated.discordId)
+                        .bohUserName(simulated.name)
+                        .bohGlobalUserName("Load User " + simulated.discordId)
+                        .build());
+                Container main = seedContainer(user, "Bag of Holding", itemsPerContainer, parents, leaves, random);
+                Container spare = seedContainer(user, "Belt Pouch", Math.max(1, itemsPerContainer / 10), parents, leaves, random);
+                user.setPrimaryContainer(main);
+                bohUserRepository.save(user);
+
+                simulated.containerIds[0] = main.getContainerId();
+                simulated.containerIds[1] = spare.getContainerId();
+                simulated.containerItemIds[0] = main.getContainerItems().stream().mapToLong(ContainerItem::getContainerItemId).toArray();
+                simulated.containerItemIds[1] = spare.getContainerItems().stream().mapToLong(ContainerItem::getContainerItemId).toArray();
+            });
+            users.add(simulated);
+        }
+
+        SecurityContextHolder.clearContext();
+        logger.info("Seeded {} users and {} guilds with {} items per main container in {} ms.",
+                userCount, guildCount, itemsPerContainer, (System.nanoTime() - seedStart) / 1_000_000L);
+        return users;
+    }
+
+    /**
+     * Creates a container with a random tree of stacks. Roughly a quarter of the stacks sit at the root, the rest
+     * are nested under earlier parent-type stacks, never deeper than {@code boh.loadtest.max-depth}.
+     */
+    private Container seedContainer(Owner owner, String name, int itemCount, List<Item> parents, List<Item> leaves, Random random) {
+        Container container = new Container();
+        container.setOwner(owner);
+        container.setContainerName(name);
+        container.setContainerDescription("Seeded by the load test");
+
+        List<ContainerItem> containerItems = new ArrayList<>(itemCount);
+        List<ContainerItem> openParents = new ArrayList<>();
+        Map<ContainerItem, Integer> depths = new IdentityHashMap<>();
+        for (int i = 0; i < itemCount; i++) {
+            boolean isParent = !parents.isEmpty() && random.nextInt(5) == 0;
+            ContainerItem containerItem = new ContainerItem();
+            containerItem.setContainer(container);
+            containerItem.setItem(isParent ? parents.get(random.nextInt(parents.size())) : leaves.get(random.nextInt(leaves.size())));
+            containerItem.setQuantity(SEEDED_QUANTITY);
+            containerItem.setUserNote(i % 4 == 0 ? "seeded note " + i : null);
+
+            int depth = 1;
+            if (!openParents.isEmpty() && random.nextInt(4) != 0) {
+                ContainerItem parent = openParents.get(random.nextInt(openParents.size()));
+                parent.addChild(containerItem);
+                depth = depths.get(parent) + 1;
+            }
+            if (isParent && depth < maxDepth) {
+                openParents.add(containerItem);
+                depths.put(containerItem, depth);
+            }
+            containerItems.add(containerItem);
+        }
+        // Start from correct totals, like a database the rollup migration has backfilled. Parents always come
+        // before their children in the list, so walking it backwards finishes every subtree before its parent.
+        Rollup containerTotals = Rollup.ZERO;
+        for (int i = containerItems.size() - 1; i >= 0; i--) {
+            ContainerItem containerItem = containerItems.get(i);
+            Rollup totals = Rollup.totalsOf(containerItem).plus(Rollup.of(containerItem.getItem(), containerItem.getQuantity()));
+            setTotals(containerItem, totals);
+            if (containerItem.getParent() != null) {
+                setTotals(containerItem.getParent(), Rollup.totalsOf(containerItem.getParent()).plus(totals));
+            } else {
+                containerTotals = containerTotals.plus(totals);
+            }
+        }
+        container.setTotalWeight(containerTotals.weight());
+        container.setTotalValue(containerTotals.value());
+        container.setContainerItems(containerItems);
+        owner.addContainer(container);
+        return containerRepository.saveAndFlush(container);
+    }
+
+    private static void setTotals(ContainerItem containerItem, Rollup totals) {
+        containerItem.setTotalWeight(totals.weight());
+        containerItem.setTotalValue(totals.value());
+    }
+
+    // ----------------------------------------------------------------------------------------------------------
+    // Traffic
+    // ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Runs one session per thread until the time is up. Every user is owned by exactly one session, like a Discord
+     * user whose commands arrive one after another.
+     */
+    private void runLoad(List<SimulatedUser> users, int seconds, boolean record) throws Exception {
+        long until = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> sessions = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<SimulatedUser> sessionUsers = new ArrayList<>();
+                for (int u = t; u < users.size(); u += threads) {
+                    sessionUsers.add(users.get(u));
+                }
+                if (sessionUsers.isEmpty()) {
+                    continue;
+                }
+                Random random = new Random(t * 31L + (record ? 1 : 0));
+                sessions.add(executor.submit(() -> runSession(sessionUsers, until, record, random)));
+            }
+            for (Future<?> session : sessions) {
+                session.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The request mix: autocomplete dominates (the bot fires one per keystroke), followed by bursts of
+     * add/drop/modify commands, plain views and the occasional container switch.
+     */
+    private void runSession(List<SimulatedUser> users, long until, boolean record, Random random) {
+        while (System.nanoTime() < until) {
+            SimulatedUser user = users.get(random.nextInt(users.size()));
+            int roll = random.nextInt(100);
+            if (roll < 45) {
+                get(user, null, "GET /api/containers/active/items/autocomplete",
+                        "/api/containers/active/items/autocomplete?prefix=" + randomFragment(random), record);
+            } else if (roll < 55) {
+                get(user, null, "GET /api/containers/active/parents/autocomplete",
+                        "/api/containers/active/parents/autocomplete?prefix=" + randomFragment(random), record);
+            } else if (roll < 65) {
+                get(user, null, "GET /api/items/autocomplete",
+                        "/api/items/autocomplete?prefix=" + randomFragment(random), record);
+            } else if (roll < 70) {
+                get(user, user.guildDiscordId, "GET /api/containers/autocomplete (guild)",
+                        "/api/containers/autocomplete?prefix=" + encode("G"), record);
+            } else if (roll < 72) {
+                get(user, null, "GET /api/containers/active", "/api/containers/active", record);
+            } else if (roll < 75) {
+                // Another bot instance catching up on the active container from the version it last saw.
+                get(user, null, "GET /api/containers/{id}/changes", "/api/containers/" + user.containerIds[user.activeIndex]
+                        + "/changes?since=" + Math.max(0, versionOf(user.activeContainerETag) - 5), record);
+            } else if (roll < 90) {
+                mutationBurst(user, random, record);
+            } else if (roll < 95) {
+                compoundCommand(user, random, record);
+            } else {
+                int next = 1 - user.activeIndex;
+                send(user, null, "PUT /api/containers/{id}/activate",
+                        "/api/containers/" + user.containerIds[next] + "/activate", "PUT", null, record);
+                user.activeIndex = next;
+            }
+        }
+    }
+
+    private void mutationBurst(SimulatedUser user, Random random, boolean record) {
+        long[] stacks = user.containerItemIds[user.activeIndex];
+        int burst = 3 + random.nextInt(4);
+        for (int i = 0; i < burst; i++) {
+            int roll = random.nextInt(10);
+            if (roll < 4 || stacks.length == 0) {
+                long itemId = catalogIds[random.nextInt(catalogIds.length)];
+                send(user, null, "POST /api/containers/active/items", "/api/containers/active/items", "POST",
+                        "{\"itemId\":" + itemId + ",\"quantity\":" + (1 + random.nextInt(5)) + "}", record);
+            } else if (roll < 7) {
+                long stack = stacks[random.nextInt(stacks.length)];
+                send(user, null, "PATCH /api/containers/active/items", "/api/containers/active/items", "PATCH",
+                        "{\"containerItemId\":" + stack + ",\"newQuantity\":" + (SEEDED_QUANTITY / 2 + random.nextInt(SEEDED_QUANTITY / 2)) + "}", record);
+            } else {
+                long stack = stacks[random.nextInt(stacks.length)];
+                send(user, null, "DELETE /api/containers/active/items",
+                        "/api/containers/active/items?id=" + stack + "&quantity=1", "DELETE", null, record);
+            }
+        }
+    }
+
+    /**
+     * A slash command that switches container, adds an item and notes another one, sent as a single batch.
+     */
+    private void compoundCommand(SimulatedUser user, Random random, boolean record) {
+        int next = 1 - user.activeIndex;
+        long[] stacks = user.containerItemIds[next];
+        long itemId = catalogIds[random.nextInt(catalogIds.length)];
+        StringBuilder json = new StringBuilder("{\"operations\":[")
+                .append("{\"type\":\"ACTIVATE\",\"activate\":{\"containerId\":").append(user.containerIds[next]).append("}},")
+                .append("{\"type\":\"ADD\",\"add\":{\"itemId\":").append(itemId).append(",\"quantity\":").append(1 + random.nextInt(5)).append("}}");
+        if (stacks.length > 0) {
+            json.append(",{\"type\":\"MODIFY\",\"modify\":{\"containerItemId\":").append(stacks[random.nextInt(stacks.length)])
+                    .append(",\"note\":\"batched ").append(random.nextInt(1000)).append("\"}}");
+        }
+        json.append("]}");
+        send(user, null, "POST /api/containers/active/batch", "/api/containers/active/batch", "POST", json.toString(), record);
+        user.activeIndex = next;
+    }
+
+    private String randomFragment(Random random) {
+        String name = catalogNames.get(random.nextInt(catalogNames.size())).toLowerCase(Locale.ROOT);
+        int length = Math.min(name.length(), 2 + random.nextInt(3));
+        int start = random.nextInt(name.length() - length + 1);
+        return encode(name.substring(start, start + length));
+    }
+
+    private void get(SimulatedUser user, Long guildDiscordId, String endpoint, String path, boolean record) {
+        send(user, guildDiscordId, endpoint, path, "GET", null, record);
+    }
+
+    /**
+     * Subscribes to each user's main container stream and counts the received events by name until shut down.
+     */
+    private ExecutorService openChangeStreams(List<SimulatedUser> users) {
+        // Daemon threads: a blocked stream read doesn't react to interrupts and must not keep the JVM alive.
+        ExecutorService readers = Executors.newFixedThreadPool(users.size(), runnable -> {
+            Thread thread = new Thread(runnable, "change-stream-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (SimulatedUser user : users) {
+            HttpRequest request = authorized(user, "/api/containers/" + user.containerIds[0] + "/stream")
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+            readers.submit(() -> {
+                try {
+                    httpClient.send(request, HttpResponse.BodyHandlers.ofLines()).body()
+                            .filter(line -> line.startsWith("event:"))
+                            .forEach(line -> streamEvents.computeIfAbsent(line.substring(6).trim(), name -> new LongAdder()).increment());
+                } catch (IOException e) {
+                    logger.warn("Change stream for {} ended: {}", user.name, e.getMessage());
+                }
+                return null;
+            });
+        }
+        return readers;
+    }
+
+    private HttpRequest.Builder authorized(SimulatedUser user, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + botToken)
+                .header("X-On-Behalf-Of-User-ID", Long.toString(user.discordId))
+                .header("X-On-Behalf-Of-User-Name", user.name)
+                .header("X-On-Behalf-Of-Global-Name", "Load User " + user.discordId);
+    }
+
+    private void send(SimulatedUser user, Long guildDiscordId, String endpoint, String path, String method, String json, boolean record) {
+        HttpRequest.Builder builder = authorized(user, path)
+                .timeout(Duration.ofSeconds(30))
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        if (json != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (guildDiscordId != null) {
+            builder.header("X-Target-Owner-ID", Long.toString(guildDiscordId))
+                    .header("X-Target-Owner-Type", "GUILD");
+        }
+        // Like the bot, revalidate the active container view instead of refetching it.
+        String knownETag = user.activeContainerETag;
+        if ("GET".equals(method) && "/api/containers/active".equals(path) && knownETag != null) {
+            builder.header("If-None-Match", knownETag);
+        }
+
+        int status;
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+            // Only the active container views and the commands that change it carry an ETag.
+            response.headers().firstValue("ETag").ifPresent(eTag -> user.activeContainerETag = eTag);
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (record) {
+            stats.computeIfAbsent(endpoint, EndpointStats::new).record(elapsed, status);
+        }
+    }
+
+    /**
+     * The container version inside an ETag of the form {@code "<id>-<version>[-a]"}, or 0 if none was seen yet.
+     */
+    private static long versionOf(String eTag) {
+        if (eTag == null) {
+            return 0;
+        }
+        String[] parts = eTag.replace("\"", "").split("-");
+        return Long.parseLong(parts[1]);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private int report(double seconds) {
+        StringBuilder table = new StringBuilder();
+        table.append(System.lineSeparator()).append(EndpointStats.header());
+        int total = 0;
+        for (EndpointStats endpoint : stats.values().stream().sorted(Comparator.comparing(EndpointStats::getEndpoint)).toList()) {
+            table.append(System.lineSeparator()).append(endpoint.toReportRow(seconds));
+            total += endpoint.getCount();
+        }
+        table.append(System.lineSeparator())
+                .append(String.format("%d requests in %.1fs (%.1f req/s) from %d threads", total, seconds, total / seconds, threads));
+        logger.info("Load test results:{}", table);
+        return total;
+    }
+}
@@ -0,0 +1,85 @@
+package com.botofholding.api.LoadTests;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe latency and outcome recorder for a single endpoint of the load test.
+ * Latencies are kept raw (not bucketed) so percentiles are exact for the run.
+ */
+class EndpointStats {
+
+    private final String endpoint;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private int clientErrors;
+    private int serverErrors;
+    private int failures;
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param nanos The request latency.
+     * @param status The HTTP status, or -1 if the request failed without a response.
+     */
+    synchronized void record(long nanos, int status) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = nanos;
+        if (status < 0) {
+            failures++;
+        } else if (status >= 500) {
+            serverErrors++;
+        } else if (status >= 400) {
+            clientErrors++;
+        }
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    synchronized int getServerErrors() {
+        return serverErrors + failures;
+    }
+
+    /**
+     * @param seconds The measured duration of the run.
+     * @return One formatted report row, matching {@link #header()}.
+     */
+    synchronized String toReportRow(double seconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        int errors = clientErrors + serverErrors + failures;
+        return String.format("%-52s %8d %9.1f %9.2f %9.2f %9.2f %7.2f%% %6d %6d %6d",
+                endpoint,
+                count,
+                count / seconds,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.99),
+                count == 0 ? 0.0 : sorted[count - 1] / 1_000_000.0,
+                count == 0 ? 0.0 : errors * 100.0 / count,
+                clientErrors,
+                serverErrors,
+                failures);
+    }
+
+    static String header() {
+        return String.format("%-52s %8s %9s %9s %9s %9s %8s %6s %6s %6s",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "4xx", "5xx", "io");
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,315 @@
+package com.botofholding.api.LoadTests;
+
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.Container;
+import com.botofholding.api.Domain.Entity.ContainerItem;
+import com.botofholding.api.Domain.Entity.Guild;
+import com.botofholding.api.Domain.Entity.Item;
+import com.botofholding.api.Domain.Entity.Owner;
+import com.botofholding.api.Domain.Entity.SystemOwner;
+import com.botofholding.api.Repository.BohUserRepository;
+import com.botofholding.api.Repository.ContainerItemRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Repository.ItemRepository;
+import com.botofholding.api.Repository.OwnerRepository;
+import com.botofholding.api.Security.JwtService;
+import com.botofholding.api.Service.Interfaces.ContainerMutationQueue;
+import com.botofholding.api.Utility.Rollup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many users changing the same stack of a guild container at once (the guild's arrows, say), first as a plain stack,
+ * then with the stack sharded. Reports throughput and latency of both runs, then folds the shards and checks that
+ * the stack's quantity and the totals above it account for every change that was acknowledged.
+ * <p>
+ * Skipped unless {@code -Dboh.loadtest=true} is given, e.g.
+ * <pre>{@code mvn test -Dtest=SharedStackLoadTest -Dboh.loadtest=true -Dboh.loadtest.shared.users=32}</pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@EnabledIfSystemProperty(named = "boh.loadtest", matches = "true")
+public class SharedStackLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedStackLoadTest.class);
+
+    private static final long FIRST_USER_DISCORD_ID = 710_000_000_000_000_000L;
+    private static final long GUILD_DISCORD_ID = 810_000_000_000_000_000L;
+    private static final int SEEDED_QUANTITY = 1_000_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private OwnerRepository ownerRepository;
+    @Autowired
+    private BohUserRepository bohUserRepository;
+    @Autowired
+    private ContainerRepository containerRepository;
+    @Autowired
+    private ContainerItemRepository containerItemRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ContainerMutationQueue containerMutationQueue;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${boh.loadtest.shared.users:16}")
+    private int userCount;
+    @Value("${boh.loadtest.shared.items:200}")
+    private int itemCount;
+    @Value("${boh.loadtest.shared.depth:3}")
+    private int depth;
+    @Value("${boh.loadtest.shared.shards:8}")
+    private int shardCount;
+    @Value("${boh.loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+    @Value("${boh.loadtest.duration-seconds:60}")
+    private int durationSeconds;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong acknowledgedDelta = new AtomicLong();
+    private String botToken;
+    private long containerId;
+    private long stackId;
+    private long stackItemId;
+    private long parentId;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Change one guild stack from many users, plain and sharded, and report throughput and latency")
+    void changeSharedStack() throws Exception {
+        List<Long> users = seed();
+        botToken = jwtService.generateBotToken();
+
+        EndpointStats plain = run(users, "plain");
+        int status = send(users.get(0), "/api/containers/active/items/" + stackId + "/shards?count=" + shardCount, "PUT", null);
+        assertThat(status).as("status of the reshard").isEqualTo(200);
+        EndpointStats sharded = run(users, shardCount + " shards");
+
+        logger.info("Shared stack results:{}{}{}{}{}{}", System.lineSeparator(), EndpointStats.header(),
+                System.lineSeparator(), plain.toReportRow(durationSeconds),
+                System.lineSeparator(), sharded.toReportRow(durationSeconds));
+
+        containerMutationQueue.consolidateShards();
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            ContainerItem stack = containerItemRepository.findById(stackId).orElseThrow();
+            assertThat(stack.getShardedQuantity()).isZero();
+            assertThat(stack.getQuantity()).isEqualTo(SEEDED_QUANTITY + (int) acknowledgedDelta.get());
+            Rollup stackTotals = Rollup.of(stack.getItem(), stack.getQuantity());
+            assertThat(stack.getTotalWeight()).isEqualByComparingTo(stackTotals.weight());
+
+            Container container = containerRepository.findByIdWithItems(containerId).orElseThrow();
+            Rollup rootTotals = container.getContainerItems().stream()
+                    .filter(ci -> ci.getParent() == null)
+                    .map(Rollup::totalsOf)
+                    .reduce(Rollup.ZERO, Rollup::plus);
+            assertThat(container.getTotalWeight()).isEqualByComparingTo(rootTotals.weight());
+            if (parentId != 0) {
+                ContainerItem parent = containerItemRepository.findById(parentId).orElseThrow();
+                assertThat(parent.getTotalWeight()).isEqualByComparingTo(
+                        Rollup.of(parent.getItem(), 1).plus(stackTotals).weight());
+            }
+        });
+        assertThat(plain.getServerErrors() + sharded.getServerErrors()).isZero();
+    }
+
+    /**
+     * Creates the guild container: filler stacks at the root, a chain of {@code depth - 1} nested parent items and
+     * the shared stack at the bottom of it. Every user gets the guild container as their active one.
+     */
+    private List<Long> seed() {
+        Owner systemOwner = ownerRepository.findByDiscordId(SystemOwner.SYSTEM_OWNER_DISCORD_ID).orElseThrow();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(systemOwner, null, systemOwner.getAuthorities()));
+        List<Item> catalog = itemRepository.findAll();
+        Item parentItem = catalog.stream().filter(Item::isParent).findFirst().orElseThrow();
+        List<Item> leaves = catalog.stream().filter(i -> !i.isParent()).toList();
+        // A stack with a weight, so its changes have totals to roll up.
+        Item stackItem = leaves.stream().filter(i -> !Rollup.of(i, 1).isZero() && Rollup.of(i, 1).addsWeight())
+                .findFirst().orElseThrow();
+        stackItemId = stackItem.getItemId();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Random random = new Random(42);
+        Container guildContainer = tx.execute(status -> {
+            Guild guild = (Guild) ownerRepository.save(Guild.builder().discordId(GUILD_DISCORD_ID).guildName("Shared Guild").build());
+            Container container = new Container();
+            container.setOwner(guild);
+            container.setContainerName("Guild Treasury");
+            List<ContainerItem> containerItems = new ArrayList<>();
+            Rollup containerTotals = Rollup.ZERO;
+            for (int i = 0; i < itemCount; i++) {
+                ContainerItem filler = stack(container, leaves.get(random.nextInt(leaves.size())), SEEDED_QUANTITY);
+                containerItems.add(filler);
+                containerTotals = containerTotals.plus(Rollup.totalsOf(filler));
+            }
+            ContainerItem above = null;
+            List<ContainerItem> chain = new ArrayList<>();
+            for (int level = 1; level < depth; level++) {
+                ContainerItem parent = stack(container, parentItem, 1);
+                if (above != null) {
+                    above.addChild(parent);
+                }
+                chain.add(parent);
+                above = parent;
+            }
+            ContainerItem shared = stack(container, stackItem, SEEDED_QUANTITY);
+            if (above != null) {
+                above.addChild(shared);
+            }
+            chain.add(shared);
+            // Every item of the chain carries the shared stack's totals.
+            Rollup sharedTotals = Rollup.totalsOf(shared);
+            for (ContainerItem ci : chain.subList(0, chain.size() - 1)) {
+                ci.setTotalWeight(ci.getTotalWeight().add(sharedTotals.weight()));
+                ci.setTotalValue(ci.getTotalValue().add(sharedTotals.value()));
+            }
+            containerItems.addAll(chain);
+            containerTotals = containerTotals.plus(Rollup.totalsOf(chain.get(0)));
+            container.setTotalWeight(containerTotals.weight());
+            container.setTotalValue(containerTotals.value());
+            container.setContainerItems(containerItems);
+            guild.addContainer(container);
+            return containerRepository.saveAndFlush(container);
+        });
+        containerId = guildContainer.getContainerId();
+        ContainerItem shared = guildContainer.getContainerItems().get(guildContainer.getContainerItems().size() - 1);
+        stackId = shared.getContainerItemId();
+        parentId = shared.getParent() != null ? shared.getParent().getContainerItemId() : 0;
+
+        List<Long> users = new ArrayList<>(userCount);
+        for (int u = 0; u < userCount; u++) {
+            long discordId = FIRST_USER_DISCORD_ID + u;
+            tx.executeWithoutResult(status -> {
+                BohUser user = bohUserRepository.save(BohUser.builder()
+                        .discordId(discordId)
+                        .bohUserName("shareduser" + discordId)
+                        .bohGlobalUserName("Shared User " + discordId)
+                        .build());
+                user.setPrimaryContainer(containerRepository.getReferenceById(containerId));
+                bohUserRepository.save(user);
+            });
+            users.add(discordId);
+        }
+        SecurityContextHolder.clearContext();
+        return users;
+    }
+
+    private static ContainerItem stack(Container container, Item item, int quantity) {
+        ContainerItem containerItem = new ContainerItem();
+        containerItem.setContainer(container);
+        containerItem.setItem(item);
+        containerItem.setQuantity(quantity);
+        Rollup totals = Rollup.of(item, quantity);
+        containerItem.setTotalWeight(totals.weight());
+        containerItem.setTotalValue(totals.value());
+        return containerItem;
+    }
+
+    /**
+     * Warms up, then has every user add one to or take one from the shared stack as fast as it can, one request
+     * after the other, for the measured duration.
+     */
+    private EndpointStats run(List<Long> users, String label) throws Exception {
+        runLoad(users, warmupSeconds, null);
+        EndpointStats stats = new EndpointStats("add/drop 1 of a shared stack (" + label + ")");
+        logger.info("Measuring the {} stack for {}s with {} users...", label, durationSeconds, users.size());
+        runLoad(users, durationSeconds, stats);
+        return stats;
+    }
+
+    private void runLoad(List<Long> users, int seconds, EndpointStats stats) throws Exception {
+        long until = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(users.size());
+        try {
+            List<Future<?>> sessions = new ArrayList<>();
+            for (Long user : users) {
+                Random random = new Random(user);
+                sessions.add(executor.submit(() -> {
+                    while (System.nanoTime() < until) {
+                        boolean add = random.nextBoolean();
+                        long start = System.nanoTime();
+                        int status = add
+                                ? send(user, "/api/containers/active/items", "POST",
+                                        "{\"itemId\":" + stackItemId + ",\"quantity\":1" + (parentId != 0 ? ",\"insideId\":" + parentId : "") + "}")
+                                : send(user, "/api/containers/active/items?id=" + stackId + "&quantity=1", "DELETE", null);
+                        long elapsed = System.nanoTime() - start;
+                        if (status == 200) {
+                            acknowledgedDelta.addAndGet(add ? 1 : -1);
+                        }
+                        if (stats != null) {
+                            stats.record(elapsed, status);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> session : sessions) {
+                session.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int send(Long user, String path, String method, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + botToken)
+                .header("X-On-Behalf-Of-User-ID", Long.toString(user))
+                .header("X-On-Behalf-Of-User-Name", "shareduser" + user)
+                .header("X-On-Behalf-Of-Global-Name", "Shared User " + user)
+                .timeout(Duration.ofSeconds(30))
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        if (json != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        try {
+            return httpClient.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.botofholding.api.ObservabilityTests;
+
+import com.botofholding.api.Observability.RequestTimings;
+import com.botofholding.api.Observability.RequestTimings.Phase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    @DisplayName("Nested phases are accounted exclusively and add up to the total")
+    void phasesAddUpToTotal() throws InterruptedException {
+        RequestTimings timings = RequestTimings.start();
+        try (RequestTimings ignored = RequestTimings.phase(Phase.AUTHZ)) {
+            Thread.sleep(2);
+            try (RequestTimings db = RequestTimings.phase(Phase.DB)) {
+                Thread.sleep(2);
+            }
+        }
+        timings.stop();
+
+        long sum = 0;
+        for (Phase phase : Phase.values()) {
+            sum += timings.getPhaseNanos(phase);
+        }
+        assertThat(sum).isEqualTo(timings.getTotalNanos());
+        assertThat(timings.getPhaseNanos(Phase.DB)).isGreaterThan(0);
+        assertThat(timings.getStatementCount()).isEqualTo(1);
+        assertThat(timings.toServerTimingHeader())
+                .contains("authz;dur=")
+                .contains("db;dur=")
+                .contains("desc=\"1 statement (authz ")
+                .contains("total;dur=");
+    }
+
+    @Test
+    @DisplayName("Phases are ignored when no timer is bound to the thread")
+    void unboundTimerIsNoop() {
+        try (RequestTimings ignored = RequestTimings.phase(Phase.MAP)) {
+            assertThat(ignored.getTotalNanos()).isZero();
+        }
+        assertThat(RequestTimings.current().getPhaseNanos(Phase.MAP)).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+package com.botofholding.api.ServiceTests.ContainerTests;
+
+import com.botofholding.api.Repository.BohUserRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Service.Implementations.ActivityTrackerImpl;
+import com.botofholding.api.Service.Interfaces.AutocompleteCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ActivityTrackerTest {
+
+    private ContainerRepository containerRepository;
+    private AutocompleteCache autocompleteCache;
+    private ActivityTrackerImpl activityTracker;
+
+    @BeforeEach
+    void setUp() {
+        containerRepository = mock(ContainerRepository.class);
+        autocompleteCache = mock(AutocompleteCache.class);
+        activityTracker = new ActivityTrackerImpl(containerRepository, mock(BohUserRepository.class), autocompleteCache,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("Activity: Should drop the owner's cached container autocompletes once a container stamp is written")
+    void flush_whenContainerStampMoves_movesOwnersAutocompleteGeneration() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        activityTracker.recordContainerActivity(5L, now);
+        when(containerRepository.touchLastActive(5L, now)).thenReturn(1);
+        when(containerRepository.findOwnerIdsByIdIn(List.of(5L))).thenReturn(List.of(9L));
+
+        // Act
+        int written = activityTracker.flush();
+
+        // Assert
+        assertThat(written).isEqualTo(1);
+        assertThat(activityTracker.pendingContainerActivity(5L)).isEmpty();
+        verify(autocompleteCache).containersChanged(9L);
+    }
+
+    @Test
+    @DisplayName("Activity: Should leave the cached container autocompletes alone when no stamp moved")
+    void flush_whenStampIsAlreadyCurrent_leavesAutocompleteGenerations() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        activityTracker.recordContainerActivity(5L, now);
+        when(containerRepository.touchLastActive(5L, now)).thenReturn(0);
+
+        // Act
+        int written = activityTracker.flush();
+
+        // Assert
+        assertThat(written).isZero();
+        verify(containerRepository, never()).findOwnerIdsByIdIn(anyCollection());
+        verify(autocompleteCache, never()).containersChanged(anyLong());
+    }
+}
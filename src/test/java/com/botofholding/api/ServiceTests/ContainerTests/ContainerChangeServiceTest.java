@@ -0,0 +1,120 @@
+package com.botofholding.api.ServiceTests.ContainerTests;
+
+import com.botofholding.api.Domain.DTO.Response.ContainerChangeDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerChangesDto;
+import com.botofholding.api.Domain.Entity.ContainerChange;
+import com.botofholding.api.Mapper.ContainerChangeMapper;
+import com.botofholding.api.Repository.ContainerChangeRepository;
+import com.botofholding.api.Repository.ContainerRepository;
+import com.botofholding.api.Service.Implementations.ContainerChangeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ContainerChangeServiceTest {
+
+    private static final Long CONTAINER_ID = 7L;
+
+    private ContainerChangeRepository containerChangeRepository;
+    private ContainerRepository containerRepository;
+    private ContainerChangeMapper containerChangeMapper;
+    private ContainerChangeServiceImpl containerChangeService;
+
+    @BeforeEach
+    void setUp() {
+        containerChangeRepository = mock(ContainerChangeRepository.class);
+        containerRepository = mock(ContainerRepository.class);
+        containerChangeMapper = mock(ContainerChangeMapper.class);
+        containerChangeService = new ContainerChangeServiceImpl(containerChangeRepository, containerRepository,
+                containerChangeMapper, mock(ApplicationEventPublisher.class), 168, 500);
+        when(containerRepository.findVersionById(CONTAINER_ID)).thenReturn(Optional.of(10L));
+    }
+
+    @Test
+    @DisplayName("Changes: Should return the logged changes when the log still covers the client's version")
+    void findChangesSince_whenLogCoversClientVersion_returnsChanges() {
+        // Arrange
+        List<ContainerChange> changes = List.of(change(9L), change(10L));
+        List<ContainerChangeDto> changeDtos = List.of(new ContainerChangeDto(), new ContainerChangeDto());
+        when(containerChangeRepository.findChangesInRange(eq(CONTAINER_ID), eq(8L), eq(10L), any(Pageable.class))).thenReturn(changes);
+        when(containerChangeMapper.toDtoList(changes)).thenReturn(changeDtos);
+        when(containerRepository.findChangeLogFloorById(CONTAINER_ID)).thenReturn(Optional.of(8L));
+
+        // Act
+        ContainerChangesDto result = containerChangeService.findChangesSince(CONTAINER_ID, 8L);
+
+        // Assert
+        assertThat(result.isResetRequired()).isFalse();
+        assertThat(result.getVersion()).isEqualTo(10L);
+        assertThat(result.getChanges()).isSameAs(changeDtos);
+    }
+
+    @Test
+    @DisplayName("Changes: Should ask for a reset when compaction removed changes the client hadn't seen")
+    void findChangesSince_whenCompactedPastClientVersion_requiresReset() {
+        // Arrange
+        // The client has version 4; compaction then dropped everything up to version 8 before it asked.
+        when(containerChangeRepository.findChangesInRange(eq(CONTAINER_ID), eq(4L), eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(change(9L), change(10L)));
+        when(containerRepository.findChangeLogFloorById(CONTAINER_ID)).thenReturn(Optional.of(8L));
+
+        // Act
+        ContainerChangesDto result = containerChangeService.findChangesSince(CONTAINER_ID, 4L);
+
+        // Assert
+        assertThat(result.isResetRequired()).isTrue();
+        assertThat(result.getVersion()).isEqualTo(10L);
+        assertThat(result.getChanges()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Changes: Should ask for a reset when compaction commits while the changes are being read")
+    void findChangesSince_whenCompactedDuringRead_requiresReset() {
+        // Arrange
+        // The entries are read before the compaction commits, the floor after: the floor shows the gap.
+        when(containerChangeRepository.findChangesInRange(eq(CONTAINER_ID), eq(4L), eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(change(5L), change(6L), change(7L), change(8L), change(9L), change(10L)));
+        when(containerRepository.findChangeLogFloorById(CONTAINER_ID)).thenReturn(Optional.of(6L));
+
+        // Act
+        ContainerChangesDto result = containerChangeService.findChangesSince(CONTAINER_ID, 4L);
+
+        // Assert
+        assertThat(result.isResetRequired()).isTrue();
+        assertThat(result.getChanges()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Changes: Should ask for a reset when the client claims a version newer than the container's")
+    void findChangesSince_whenSinceIsAheadOfVersion_requiresReset() {
+        // Act
+        ContainerChangesDto result = containerChangeService.findChangesSince(CONTAINER_ID, 12L);
+
+        // Assert
+        assertThat(result.isResetRequired()).isTrue();
+        assertThat(result.getVersion()).isEqualTo(10L);
+        assertThat(result.getChanges()).isEmpty();
+        verify(containerChangeRepository, never()).findChangesInRange(anyLong(), anyLong(), anyLong(), any(Pageable.class));
+    }
+
+    private static ContainerChange change(Long version) {
+        ContainerChange change = new ContainerChange();
+        change.setContainerId(CONTAINER_ID);
+        change.setVersion(version);
+        return change;
+    }
+}
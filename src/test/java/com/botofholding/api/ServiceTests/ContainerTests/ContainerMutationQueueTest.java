@@ -0,0 +1,291 @@
+package com.botofholding.api.ServiceTests.ContainerTests;
+
+import com.botofholding.api.Domain.DTO.Request.AddItemRequestDto;
+import com.botofholding.api.Domain.DTO.Request.BatchOperationDto;
+import com.botofholding.api.Domain.DTO.Request.BatchRequestDto;
+import com.botofholding.api.Domain.DTO.Response.BatchOperationResultDto;
+import com.botofholding.api.Domain.DTO.Response.BatchResultDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
+import com.botofholding.api.Domain.DTO.Response.ServiceResponse;
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.ExceptionHandling.ContainerBusyException;
+import com.botofholding.api.ExceptionHandling.ValidationException;
+import com.botofholding.api.Service.Implementations.ContainerMutationQueueImpl;
+import com.botofholding.api.Service.Interfaces.ContainerItemShardService;
+import com.botofholding.api.Service.Interfaces.ContainerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ContainerMutationQueueTest {
+
+    private ContainerService containerService;
+    private ContainerItemShardService containerItemShardService;
+    private BohUser testUser;
+    private ContainerSummaryDto container;
+    private CountDownLatch firstApplying;
+    private CountDownLatch releaseFirst;
+
+    @BeforeEach
+    void setUp() {
+        containerService = mock(ContainerService.class);
+        containerItemShardService = mock(ContainerItemShardService.class);
+        testUser = BohUser.builder().discordId(1L).bohUserName("TestUser").bohGlobalUserName("TestUserGlobal").build();
+        container = new ContainerSummaryDto();
+        container.setContainerName("Backpack");
+
+        ContainerVersionProjection version = mock(ContainerVersionProjection.class);
+        when(version.getContainerId()).thenReturn(1L);
+        when(containerService.findActiveContainerVersionForUser(testUser)).thenReturn(version);
+
+        // The first add holds the container until the test lets it go, so the others queue up behind it.
+        firstApplying = new CountDownLatch(1);
+        releaseFirst = new CountDownLatch(1);
+        when(containerService.addItemToActiveContainer(argThat(dto -> dto != null && "First".equals(dto.getItemName())), eq(testUser), eq(testUser)))
+                .thenAnswer(invocation -> {
+                    firstApplying.countDown();
+                    assertThat(releaseFirst.await(10, TimeUnit.SECONDS)).isTrue();
+                    return new ServiceResponse<>(container, "Added First.");
+                });
+    }
+
+    @Test
+    @DisplayName("Queue: Should merge the adds queued behind a running one into a single batch")
+    void addItem_whenSubmittedConcurrently_mergesQueuedAddsIntoOneBatch() throws Exception {
+        // Arrange
+        ContainerMutationQueueImpl queue = new ContainerMutationQueueImpl(containerService, containerItemShardService, 1, true, 5000, 25, 0, 0);
+        when(containerService.applyQuantityDeltasToActiveContainer(anyList(), eq(testUser))).thenReturn(Optional.empty());
+        when(containerService.applyBatchToActiveContainer(any(BatchRequestDto.class), eq(testUser), eq(testUser)))
+                .thenAnswer(invocation -> {
+                    BatchRequestDto batch = invocation.getArgument(0);
+                    List<BatchOperationDto> operations = batch.getOperations();
+                    List<BatchOperationResultDto> results = new ArrayList<>();
+                    for (int i = 0; i < operations.size(); i++) {
+                        BatchOperationDto operation = operations.get(i);
+                        results.add(new BatchOperationResultDto(i, operation.getType(), true,
+                                "Added " + operation.getAdd().getItemName() + "."));
+                    }
+                    return new ServiceResponse<>(new BatchResultDto(container, results), "Batch applied.");
+                });
+
+        // Act
+        Submitter first = submit(() -> queue.addItem(addDto("First"), testUser, testUser));
+        assertThat(firstApplying.await(5, TimeUnit.SECONDS)).isTrue();
+        Submitter rope = submit(() -> queue.addItem(addDto("Rope"), testUser, testUser));
+        Submitter torch = submit(() -> queue.addItem(addDto("Torch"), testUser, testUser));
+        Submitter ration = submit(() -> queue.addItem(addDto("Ration"), testUser, testUser));
+        awaitQueued(rope, torch, ration);
+        releaseFirst.countDown();
+
+        // Assert
+        assertThat(first.result().message()).isEqualTo("Added First.");
+        assertThat(rope.result().message()).isEqualTo("Added Rope.");
+        assertThat(torch.result().message()).isEqualTo("Added Torch.");
+        assertThat(ration.result().message()).isEqualTo("Added Ration.");
+        assertThat(ration.result().data()).isSameAs(container);
+        verify(containerService, times(1)).applyBatchToActiveContainer(
+                argThat(batch -> batch.getOperations().size() == 3), eq(testUser), eq(testUser));
+        verify(containerService, never()).addItemToActiveContainer(argThat(dto -> dto != null && !"First".equals(dto.getItemName())), any(), any());
+    }
+
+    @Test
+    @DisplayName("Queue: Should apply the mutations one by one when their merged batch fails")
+    void addItem_whenMergedBatchFails_appliesEachMutationAlone() throws Exception {
+        // Arrange
+        ContainerMutationQueueImpl queue = new ContainerMutationQueueImpl(containerService, containerItemShardService, 1, true, 5000, 25, 0, 0);
+        when(containerService.applyQuantityDeltasToActiveContainer(anyList(), eq(testUser))).thenReturn(Optional.empty());
+        when(containerService.applyBatchToActiveContainer(any(BatchRequestDto.class), eq(testUser), eq(testUser)))
+                .thenThrow(new ValidationException("Item 'Anvil' is too heavy."));
+        when(containerService.addItemToActiveContainer(argThat(dto -> dto != null && "Rope".equals(dto.getItemName())), eq(testUser), eq(testUser)))
+                .thenReturn(new ServiceResponse<>(container, "Added Rope."));
+        when(containerService.addItemToActiveContainer(argThat(dto -> dto != null && "Anvil".equals(dto.getItemName())), eq(testUser), eq(testUser)))
+                .thenThrow(new ValidationException("Item 'Anvil' is too heavy."));
+        when(containerService.addItemToActiveContainer(argThat(dto -> dto != null && "Torch".equals(dto.getItemName())), eq(testUser), eq(testUser)))
+                .thenReturn(new ServiceResponse<>(container, "Added Torch."));
+
+        // Act
+        Submitter first = submit(() -> queue.addItem(addDto("First"), testUser, testUser));
+        assertThat(firstApplying.await(5, TimeUnit.SECONDS)).isTrue();
+        Submitter rope = submit(() -> queue.addItem(addDto("Rope"), testUser, testUser));
+        Submitter anvil = submit(() -> queue.addItem(addDto("Anvil"), testUser, testUser));
+        Submitter torch = submit(() -> queue.addItem(addDto("Torch"), testUser, testUser));
+        awaitQueued(rope, anvil, torch);
+        releaseFirst.countDown();
+
+        // Assert
+        assertThat(first.result().message()).isEqualTo("Added First.");
+        assertThat(rope.result().message()).isEqualTo("Added Rope.");
+        assertThat(torch.result().message()).isEqualTo("Added Torch.");
+        ValidationException exception = assertThrows(ValidationException.class, anvil::result);
+        assertThat(exception.getMessage()).isEqualTo("Item 'Anvil' is too heavy.");
+        verify(containerService, times(1)).applyBatchToActiveContainer(any(BatchRequestDto.class), eq(testUser), eq(testUser));
+        verify(containerService, times(4)).addItemToActiveContainer(any(AddItemRequestDto.class), eq(testUser), eq(testUser));
+    }
+
+    @Test
+    @DisplayName("Queue: Should refuse a mutation with ContainerBusyException when its turn doesn't come in time")
+    void addItem_whenContainerStaysBusy_throwsContainerBusyException() throws Exception {
+        // Arrange
+        ContainerMutationQueueImpl queue = new ContainerMutationQueueImpl(containerService, containerItemShardService, 1, true, 100, 25, 0, 0);
+
+        // Act
+        Submitter first = submit(() -> queue.addItem(addDto("First"), testUser, testUser));
+        assertThat(firstApplying.await(5, TimeUnit.SECONDS)).isTrue();
+        Submitter rope = submit(() -> queue.addItem(addDto("Rope"), testUser, testUser));
+
+        // Assert
+        ContainerBusyException exception = assertThrows(ContainerBusyException.class, rope::result);
+        assertThat(exception.getMessage()).isEqualTo("The container is busy with other changes, please try again.");
+        releaseFirst.countDown();
+        assertThat(first.result().message()).isEqualTo("Added First.");
+        verify(containerService, never()).addItemToActiveContainer(argThat(dto -> dto != null && "Rope".equals(dto.getItemName())), any(), any());
+        verify(containerService, never()).applyBatchToActiveContainer(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Queue: Should fail every merged mutation when applying them throws an Error")
+    void addItem_whenMergedBatchThrowsError_failsEveryMutationOfTheGroup() throws Exception {
+        // Arrange
+        ContainerMutationQueueImpl queue = new ContainerMutationQueueImpl(containerService, containerItemShardService, 1, true, 5000, 25, 0, 0);
+        when(containerService.applyQuantityDeltasToActiveContainer(anyList(), eq(testUser))).thenReturn(Optional.empty());
+        when(containerService.applyBatchToActiveContainer(any(BatchRequestDto.class), eq(testUser), eq(testUser)))
+                .thenThrow(new OutOfMemoryError("Java heap space"));
+
+        // Act
+        Submitter first = submit(() -> queue.addItem(addDto("First"), testUser, testUser));
+        assertThat(firstApplying.await(5, TimeUnit.SECONDS)).isTrue();
+        Submitter rope = submit(() -> queue.addItem(addDto("Rope"), testUser, testUser));
+        Submitter torch = submit(() -> queue.addItem(addDto("Torch"), testUser, testUser));
+        awaitQueued(rope, torch);
+        releaseFirst.countDown();
+
+        // Assert
+        assertThat(first.result().message()).isEqualTo("Added First.");
+        assertThrows(OutOfMemoryError.class, rope::result);
+        assertThrows(OutOfMemoryError.class, torch::result);
+    }
+
+    @Test
+    @DisplayName("Queue: Should let other containers on the stripe through while a burst lingers")
+    void addItem_whenBurstLingers_doesNotHoldUpOtherContainersOnTheStripe() throws Exception {
+        // Arrange
+        ContainerMutationQueueImpl queue = new ContainerMutationQueueImpl(containerService, containerItemShardService, 1, true, 5000, 25, 2000, 60000);
+        BohUser otherUser = BohUser.builder().discordId(2L).bohUserName("OtherUser").bohGlobalUserName("OtherUserGlobal").build();
+        ContainerVersionProjection otherVersion = mock(ContainerVersionProjection.class);
+        when(otherVersion.getContainerId()).thenReturn(2L);
+        when(containerService.findActiveContainerVersionForUser(otherUser)).thenReturn(otherVersion);
+        when(containerService.addItemToActiveContainer(argThat(dto -> dto != null && "Arrow".equals(dto.getItemName())), eq(testUser), eq(testUser)))
+                .thenReturn(new ServiceResponse<>(container, "Added Arrow."));
+        when(containerService.addItemToActiveContainer(argThat(dto -> dto != null && "Rope".equals(dto.getItemName())), eq(otherUser), eq(otherUser)))
+                .thenReturn(new ServiceResponse<>(container, "Added Rope."));
+        // One applied add makes the next add to the same container linger for the rest of its burst.
+        queue.addItem(addDto("Arrow"), testUser, testUser);
+
+        // Act
+        Submitter lingering = submit(() -> queue.addItem(addDto("Arrow"), testUser, testUser));
+        awaitQueued(lingering);
+        long start = System.nanoTime();
+        ServiceResponse<ContainerSummaryDto> other = queue.addItem(addDto("Rope"), otherUser, otherUser);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertThat(other.message()).isEqualTo("Added Rope.");
+        assertThat(elapsedMillis).isLessThan(1000);
+        assertThat(lingering.result().message()).isEqualTo("Added Arrow.");
+    }
+
+    @Test
+    @DisplayName("Queue: Should fold a container's shards only once its running mutation is done")
+    void consolidateShards_whenMutationIsRunning_waitsForItsTurn() throws Exception {
+        // Arrange
+        ContainerMutationQueueImpl queue = new ContainerMutationQueueImpl(containerService, containerItemShardService, 1, true, 5000, 25, 0, 0);
+        when(containerItemShardService.findContainerIdsToFold()).thenReturn(List.of(1L));
+        when(containerItemShardService.consolidateShards(1L)).thenReturn(2);
+        Submitter first = submit(() -> queue.addItem(addDto("First"), testUser, testUser));
+        assertThat(firstApplying.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        CompletableFuture<Integer> folded = CompletableFuture.supplyAsync(queue::consolidateShards);
+        Thread.sleep(200);
+        boolean foldedWhileRunning = folded.isDone();
+        releaseFirst.countDown();
+
+        // Assert
+        assertThat(foldedWhileRunning).isFalse();
+        assertThat(folded.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(first.result().message()).isEqualTo("Added First.");
+    }
+
+    private static AddItemRequestDto addDto(String itemName) {
+        AddItemRequestDto dto = new AddItemRequestDto();
+        dto.setItemName(itemName);
+        dto.setQuantity(1);
+        return dto;
+    }
+
+    private static Submitter submit(Supplier<ServiceResponse<ContainerSummaryDto>> call) {
+        CompletableFuture<ServiceResponse<ContainerSummaryDto>> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        thread.start();
+        return new Submitter(thread, result);
+    }
+
+    /**
+     * Waits until each submitter parks, on the container's lock or lingering for its burst. A submitter queues its
+     * mutation before either, so by then all of them are queued.
+     */
+    private static void awaitQueued(Submitter... submitters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Submitter submitter : submitters) {
+            while (submitter.thread().getState() != Thread.State.TIMED_WAITING) {
+                assertThat(System.nanoTime() - deadline).as("submitter queued in time").isNegative();
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private record Submitter(Thread thread, CompletableFuture<ServiceResponse<ContainerSummaryDto>> future) {
+
+        /** The response the submitter got, or the exception it got instead. */
+        ServiceResponse<ContainerSummaryDto> result() {
+            try {
+                return future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) e.getCause();
+            } catch (Exception e) {
+                throw new AssertionError("The submitter didn't finish.", e);
+            }
+        }
+    }
+}
@@ -4,12 +4,15 @@ package com.botofholding.api.ServiceTests.ContainerTests;
 
 import com.botofholding.api.Domain.DTO.Request.ContainerRequestDto;
 import com.botofholding.api.Domain.DTO.Response.ContainerSummaryDto;
+import com.botofholding.api.Domain.DTO.Response.ContainerVersionProjection;
 import com.botofholding.api.Domain.DTO.Response.StandardApiResponse;
 import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.Domain.Entity.Guild;
 import com.botofholding.api.Domain.Entity.Owner;
 import com.botofholding.api.ExceptionHandling.DuplicateResourceException;
 import com.botofholding.api.Repository.OwnerRepository;
 import com.botofholding.api.Service.Interfaces.ContainerService;
+import com.botofholding.api.Utility.ContainerETag;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -111,6 +114,31 @@ public class ContainerTest {
         assertThat(exception.getMessage()).contains("A container named 'Magic Pouch' already exists for");
     }
 
+    @Test
+    @DisplayName("Find Container Version - Same Outcome and ETag as the Full Read for Users and Guilds")
+    void findContainerVersionById_MatchesFullRead() {
+        // Arrange: A user's container, read by the user and by a guild
+        Owner owner = createTestOwner("VersionOwner", 777888999L);
+        runAs(owner);
+        Guild guild = Guild.builder().discordId(999888777L).guildName("VersionGuild").build();
+        guild.setCreatedBy(owner);
+        guild.setLastModifiedBy(owner);
+        ownerRepository.save(guild);
+
+        ContainerRequestDto requestDto = new ContainerRequestDto();
+        requestDto.setContainerName("Guild Chest");
+        Long containerId = containerService.addContainer(owner, requestDto).getContainerId();
+
+        // Act
+        ContainerVersionProjection userVersion = containerService.findContainerVersionById(containerId, owner);
+        ContainerVersionProjection guildVersion = containerService.findContainerVersionById(containerId, guild);
+
+        // Assert: A conditional GET sees the same ETag the full read hands out, whoever asks
+        assertThat(ContainerETag.of(userVersion)).isEqualTo(ContainerETag.of(containerService.findContainerById(containerId, owner)));
+        assertThat(ContainerETag.of(guildVersion)).isEqualTo(ContainerETag.of(containerService.findContainerById(containerId, guild)));
+        assertThat(guildVersion.getActive()).isFalse();
+    }
+
     // NOTE: The tests 'addContainer_FailsWhenOwnerNotFound' and 'addContainer_FailsOnNullOwnerId'
     // have been removed. This is a positive result of your refactoring. The service layer
     // no longer performs this validation because the owner is now guaranteed to be valid
@@ -0,0 +1,164 @@
+package com.botofholding.api.ServiceTests.IdempotencyTests;
+
+import com.botofholding.api.Domain.DTO.Response.StandardApiResponse;
+import com.botofholding.api.Domain.Entity.BohUser;
+import com.botofholding.api.ExceptionHandling.DuplicateResourceException;
+import com.botofholding.api.ExceptionHandling.ValidationException;
+import com.botofholding.api.Service.Implementations.IdempotencyServiceImpl;
+import com.botofholding.api.Service.Interfaces.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyServiceTest {
+
+    private static final String OPERATION = "POST /api/containers/active/items";
+
+    private BohUser testUser;
+    private AtomicInteger actionRuns;
+    private CountDownLatch firstRunning;
+    private CountDownLatch releaseFirst;
+
+    @BeforeEach
+    void setUp() {
+        testUser = BohUser.builder().discordId(1L).bohUserName("TestUser").bohGlobalUserName("TestUserGlobal").build();
+        actionRuns = new AtomicInteger();
+        firstRunning = new CountDownLatch(1);
+        releaseFirst = new CountDownLatch(1);
+    }
+
+    @Test
+    @DisplayName("Idempotency: Should make a retry wait for the first request and replay its response")
+    void execute_whenRetriedWhileFirstIsRunning_waitsAndReplaysFirstResponse() throws Exception {
+        // Arrange
+        IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(100, 60, 5000);
+        StandardApiResponse<String> body = new StandardApiResponse<>(true, "Added Rope.", "Backpack");
+
+        // Act
+        Caller first = call(() -> idempotencyService.execute("key-1", testUser, OPERATION,
+                blockingAction(() -> ResponseEntity.ok(body))));
+        assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+        Caller retry = call(() -> idempotencyService.execute("key-1", testUser, OPERATION,
+                blockingAction(() -> ResponseEntity.ok(new StandardApiResponse<>(true, "Added Rope again.", "Backpack")))));
+        awaitWaiting(retry);
+        releaseFirst.countDown();
+
+        // Assert
+        ResponseEntity<StandardApiResponse<String>> original = first.result();
+        ResponseEntity<StandardApiResponse<String>> replayed = retry.result();
+        assertThat(actionRuns.get()).isEqualTo(1);
+        assertThat(original.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(replayed.getBody()).isSameAs(body);
+        assertThat(replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("Idempotency: Should fail a waiting retry like the first request and then run the key again")
+    void execute_whenFirstRequestFails_failsWaitingRetryAndForgetsKey() throws Exception {
+        // Arrange
+        IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(100, 60, 5000);
+
+        // Act
+        Caller first = call(() -> idempotencyService.execute("key-1", testUser, OPERATION,
+                blockingAction(() -> {
+                    throw new ValidationException("Quantity must be at least 1.");
+                })));
+        assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+        Caller retry = call(() -> idempotencyService.execute("key-1", testUser, OPERATION,
+                () -> ResponseEntity.ok(new StandardApiResponse<>(true, "Not expected.", "Backpack"))));
+        awaitWaiting(retry);
+        releaseFirst.countDown();
+
+        // Assert
+        assertThrows(ValidationException.class, first::result);
+        ValidationException exception = assertThrows(ValidationException.class, retry::result);
+        assertThat(exception.getMessage()).isEqualTo("Quantity must be at least 1.");
+        ResponseEntity<StandardApiResponse<String>> next = idempotencyService.execute("key-1", testUser, OPERATION,
+                () -> ResponseEntity.ok(new StandardApiResponse<>(true, "Added Rope.", "Backpack")));
+        assertThat(next.getBody().getMessage()).isEqualTo("Added Rope.");
+        assertThat(next.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Idempotency: Should refuse a retry with DuplicateResourceException when the first request runs too long")
+    void execute_whenFirstRequestOutlastsWait_throwsDuplicateResourceException() throws Exception {
+        // Arrange
+        IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(100, 60, 100);
+
+        // Act
+        Caller first = call(() -> idempotencyService.execute("key-1", testUser, OPERATION,
+                blockingAction(() -> ResponseEntity.ok(new StandardApiResponse<>(true, "Added Rope.", "Backpack")))));
+        assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Assert
+        assertThrows(DuplicateResourceException.class, () -> idempotencyService.execute("key-1", testUser, OPERATION,
+                () -> ResponseEntity.ok(new StandardApiResponse<>(true, "Not expected.", "Backpack"))));
+        releaseFirst.countDown();
+        assertThat(first.result().getBody().getMessage()).isEqualTo("Added Rope.");
+        assertThat(actionRuns.get()).isEqualTo(1);
+    }
+
+    /** An action that counts its runs and holds until the test releases the first request. */
+    private Supplier<ResponseEntity<StandardApiResponse<String>>> blockingAction(
+            Supplier<ResponseEntity<StandardApiResponse<String>>> response) {
+        return () -> {
+            actionRuns.incrementAndGet();
+            firstRunning.countDown();
+            try {
+                assertThat(releaseFirst.await(10, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return response.get();
+        };
+    }
+
+    private static Caller call(Supplier<ResponseEntity<StandardApiResponse<String>>> request) {
+        CompletableFuture<ResponseEntity<StandardApiResponse<String>>> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(request.get());
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        thread.start();
+        return new Caller(thread, result);
+    }
+
+    /** Waits until the caller parks on the response of the first request. */
+    private static void awaitWaiting(Caller caller) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (caller.thread().getState() != Thread.State.TIMED_WAITING) {
+            assertThat(System.nanoTime() - deadline).as("caller waiting in time").isNegative();
+            Thread.sleep(1);
+        }
+    }
+
+    private record Caller(Thread thread, CompletableFuture<ResponseEntity<StandardApiResponse<String>>> future) {
+
+        /** The response the caller got, or the exception it got instead. */
+        ResponseEntity<StandardApiResponse<String>> result() {
+            try {
+                return future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                throw (RuntimeException) e.getCause();
+            } catch (Exception e) {
+                throw new AssertionError("The caller didn't finish.", e);
+            }
+        }
+    }
+}
@@ -80,7 +80,7 @@ public class ItemServiceTest {
     @DisplayName("Find Items: Should find an item owned by the user (actor)")
     void findItemsForPrincipalAndActor_findsUserItem() {
         // Act: Search for an item owned by the user
-        List<ItemSummaryDto> results = itemService.findItemsForPrincipalAndActor("Iron Sword", testUser, testGuild);
+        List<ItemSummaryDto> results = itemService.findItemsForPrincipalAndActor("Iron Sword", null, null, testUser, testGuild).getItems();
 
         // Assert
         assertThat(results).hasSize(1);
@@ -92,7 +92,7 @@ public class ItemServiceTest {
     @DisplayName("Find Items: Should find an item owned by the guild (principal)")
     void findItemsForPrincipalAndActor_findsGuildItem() {
         // Act: Search for an item owned by the guild
-        List<ItemSummaryDto> results = itemService.findItemsForPrincipalAndActor("Guild Banner", testUser, testGuild);
+        List<ItemSummaryDto> results = itemService.findItemsForPrincipalAndActor("Guild Banner", null, null, testUser, testGuild).getItems();
 
         // Assert
         assertThat(results).hasSize(1);
@@ -104,7 +104,7 @@ public class ItemServiceTest {
     @DisplayName("Find Items: Should return an empty list for a non-existent item")
     void findItemsForPrincipalAndActor_returnsEmptyForNoMatch() {
         // Act: Search for an item that does not exist
-        List<ItemSummaryDto> results = itemService.findItemsForPrincipalAndActor("Mythical Armor", testUser, testGuild);
+        List<ItemSummaryDto> results = itemService.findItemsForPrincipalAndActor("Mythical Armor", null, null, testUser, testGuild).getItems();
 
         // Assert
         assertThat(results).isEmpty();
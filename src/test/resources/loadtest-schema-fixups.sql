@@ -0,0 +1,14 @@
+-- Hibernate creates unbounded String columns as VARCHAR(255); widen the free-text columns the way the
+-- SQL Server schema has them so the item catalog and long notes can be stored.
+ALTER TABLE ITEM ALTER COLUMN ITEM_DESC SET DATA TYPE VARCHAR(4000);
+ALTER TABLE CNTNR_ITEM ALTER COLUMN USER_NOTE SET DATA TYPE VARCHAR(4000);
+ALTER TABLE CNTNR ALTER COLUMN CNTNR_DESC SET DATA TYPE VARCHAR(4000);
+ALTER TABLE CNTNR_CHNG ALTER COLUMN USER_NOTE SET DATA TYPE VARCHAR(4000);
+
+-- Shards go with their stack, like the ON DELETE CASCADE of the SQL Server schema.
+ALTER TABLE CNTNR_ITEM_SHRD ADD CONSTRAINT FK_CNTNR_ITEM_SHRD_CNTNR_ITEM
+    FOREIGN KEY (CNTNR_ITEM_ID) REFERENCES CNTNR_ITEM (CNTNR_ITEM_ID) ON DELETE CASCADE;
+
+-- Usage scores go with their item, like the ON DELETE CASCADE of the SQL Server schema.
+ALTER TABLE ITEM_USG ADD CONSTRAINT FK_ITEM_USG_ITEM
+    FOREIGN KEY (ITEM_ID) REFERENCES ITEM (ITEM_ID) ON DELETE CASCADE;